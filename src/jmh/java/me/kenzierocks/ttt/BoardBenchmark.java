@@ -0,0 +1,75 @@
+package me.kenzierocks.ttt;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The win check on large boards: places {@value #MOVES} marks clustered in
+ * the middle of a fresh {@link SparseBoard}, so most placements extend runs
+ * in several directions. Scores are per placement, board creation included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private static final int MOVES = 1024;
+    private static final int CLUSTER = 48;
+
+    @Param({ "100", "1000", "30000" })
+    public int size;
+
+    @Param({ "5" })
+    public int winLength;
+
+    private int[] xs;
+    private int[] ys;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        this.xs = new int[MOVES];
+        this.ys = new int[MOVES];
+        boolean[] taken = new boolean[CLUSTER * CLUSTER];
+        int origin = (this.size - CLUSTER) / 2;
+        for (int i = 0; i < MOVES; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(taken.length);
+            } while (taken[cell]);
+            taken[cell] = true;
+            this.xs[i] = origin + cell / CLUSTER;
+            this.ys[i] = origin + cell % CLUSTER;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int place() {
+        Board board = new SparseBoard(this.size, this.size, this.winLength);
+        int wins = 0;
+        for (int i = 0; i < MOVES; i++) {
+            if (board.place(this.xs[i], this.ys[i], i & 1)) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+}
@@ -0,0 +1,88 @@
+package me.kenzierocks.ttt;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Util#readProperties} and {@link Util#saveProperties} on files of
+ * {@code entries} lines, a few with characters that have to be escaped.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int entries;
+
+    private Map<String, String> properties;
+    private Path directory;
+    private Path read;
+    private Path written;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.properties = new LinkedHashMap<>();
+        for (int i = 0; i < this.entries; i++) {
+            String value = i % 16 == 0 ? "tab\there:colon=equals é"
+                    : "value-" + Integer.toHexString(i * 31);
+            this.properties.put("key." + i, value);
+        }
+        this.directory = Files.createTempDirectory("ttt-jmh");
+        this.read = this.directory.resolve("read.properties");
+        this.written = this.directory.resolve("written.properties");
+        try (BufferedWriter writer =
+                Files.newBufferedWriter(this.read, StandardCharsets.UTF_8)) {
+            Util.saveProperties(this.properties, writer, "benchmark");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.read);
+        Files.deleteIfExists(this.written);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public Map<String, String> read() throws IOException {
+        try (BufferedReader reader =
+                Files.newBufferedReader(this.read, StandardCharsets.UTF_8)) {
+            return Util.readProperties(reader);
+        }
+    }
+
+    @Benchmark
+    public Path save() throws IOException {
+        try (BufferedWriter writer = Files
+                .newBufferedWriter(this.written, StandardCharsets.UTF_8)) {
+            Util.saveProperties(this.properties, writer, "benchmark");
+        }
+        return this.written;
+    }
+
+}
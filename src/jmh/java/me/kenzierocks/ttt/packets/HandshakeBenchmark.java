@@ -0,0 +1,84 @@
+package me.kenzierocks.ttt.packets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.kenzierocks.ttt.packets.c2s.ClientHandshakePacket;
+import me.kenzierocks.ttt.packets.c2s.ClientHandshakePacketReader;
+import me.kenzierocks.ttt.packets.s2c.ServerHandshakePacket;
+import me.kenzierocks.ttt.packets.s2c.ServerHandshakePacketReader;
+
+/**
+ * Encodes the generated handshake packets and decodes them again through
+ * their {@link PacketReader}s, over both a reused buffer and the streams the
+ * blocking transport uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandshakeBenchmark {
+
+    private final ClientHandshakePacket client =
+            new ClientHandshakePacket(new UUID(0x1234_5678_9ABC_DEF0L, 42));
+    private final ServerHandshakePacket server =
+            new ServerHandshakePacket(true);
+    private final ClientHandshakePacketReader clientReader =
+            new ClientHandshakePacketReader();
+    private final ServerHandshakePacketReader serverReader =
+            new ServerHandshakePacketReader();
+    private final ByteBuffer buffer = ByteBuffer.allocate(64);
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    private final DataOutputStream output = new DataOutputStream(this.bytes);
+
+    @Benchmark
+    public ClientHandshakePacket clientBuffer() throws IOException {
+        this.buffer.clear();
+        this.client.write(this.buffer);
+        this.buffer.flip();
+        return this.clientReader.read(this.buffer);
+    }
+
+    @Benchmark
+    public ServerHandshakePacket serverBuffer() throws IOException {
+        this.buffer.clear();
+        this.server.write(this.buffer);
+        this.buffer.flip();
+        return this.serverReader.read(this.buffer);
+    }
+
+    @Benchmark
+    public ClientHandshakePacket clientStream() throws IOException {
+        this.bytes.reset();
+        this.client.write(this.output);
+        return this.clientReader.read(new DataInputStream(
+                new ByteArrayInputStream(this.bytes.toByteArray())));
+    }
+
+    @Benchmark
+    public ServerHandshakePacket serverStream() throws IOException {
+        this.bytes.reset();
+        this.server.write(this.output);
+        return this.serverReader.read(new DataInputStream(
+                new ByteArrayInputStream(this.bytes.toByteArray())));
+    }
+
+}
@@ -0,0 +1,135 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Plays random classic games through a {@link GameRegistry} from every core,
+ * {@value #GAMES_PER_OP} games in flight per thread and operation. Games per
+ * second are operations per second times {@value #GAMES_PER_OP}, and should
+ * grow with the shards until they run out of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class GameRegistryBenchmark {
+
+    private static final int GAMES_PER_OP = 64;
+    // move orders are replayed from a fixed pool, so every run is the same
+    private static final int GAMES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Registry {
+
+        @Param({ "1", "2", "4", "8" })
+        public int shards;
+
+        private GameRegistry registry;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.registry = new GameRegistry("bench-shard", this.shards);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.registry.close();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Players implements GameRegistry.Listener {
+
+        private int[][] moveOrders;
+        // moves until each order's game is over
+        private int[] lengths;
+        private int nextGame;
+        private volatile CountDownLatch ended;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(0);
+            this.moveOrders = new int[GAMES][];
+            this.lengths = new int[GAMES];
+            for (int i = 0; i < GAMES; i++) {
+                int[] cells = new int[Game.CLASSIC_SIZE * Game.CLASSIC_SIZE];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    cells[cell] = cell;
+                }
+                for (int cell = cells.length - 1; cell > 0; cell--) {
+                    int swap = random.nextInt(cell + 1);
+                    int temp = cells[cell];
+                    cells[cell] = cells[swap];
+                    cells[swap] = temp;
+                }
+                Game game = new Game();
+                int length = 0;
+                while (game.clickAndWin(cells[length] / Game.CLASSIC_SIZE,
+                        cells[length] % Game.CLASSIC_SIZE)
+                        == WinState.NEUTRAL) {
+                    length++;
+                }
+                this.moveOrders[i] = cells;
+                this.lengths[i] = length + 1;
+            }
+        }
+
+        @Override
+        public void moved(long id, char mark, int x, int y, WinState state) {
+            if (state != WinState.NEUTRAL) {
+                this.ended.countDown();
+            }
+        }
+
+        @Override
+        public void abandoned(long id, char quitter) {
+            this.ended.countDown();
+        }
+
+    }
+
+    @Benchmark
+    public void playGames(Registry registry, Players players)
+            throws InterruptedException {
+        GameRegistry games = registry.registry;
+        CountDownLatch ended = new CountDownLatch(GAMES_PER_OP);
+        players.ended = ended;
+        for (int i = 0; i < GAMES_PER_OP; i++) {
+            int[] cells = players.moveOrders[players.nextGame];
+            int length = players.lengths[players.nextGame];
+            players.nextGame = (players.nextGame + 1) % GAMES;
+            long id = games.create(new Game(), players);
+            char mark = 'X';
+            for (int move = 0; move < length; move++) {
+                games.move(id, mark, cells[move] / Game.CLASSIC_SIZE,
+                        cells[move] % Game.CLASSIC_SIZE);
+                mark = mark == 'X' ? 'O' : 'X';
+            }
+        }
+        ended.await();
+    }
+
+}
@@ -0,0 +1,81 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Queues players with ratings from 0 to 999 into a {@link Matchmaker} from
+ * every core. Every two operations make a pairing and a game on the
+ * registry, which is abandoned right away. A band width of 0 puts everyone in
+ * one band.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class MatchmakerBenchmark {
+
+    @Param({ "0", "100" })
+    public long bandWidth;
+
+    private GameRegistry registry;
+    private Matchmaker<UUID> matchmaker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.registry = new GameRegistry("bench-shard",
+                Runtime.getRuntime().availableProcessors());
+        GameRegistry.Listener games = new GameRegistry.Listener() {
+
+            @Override
+            public void moved(long id, char mark, int x, int y,
+                    WinState state) {
+            }
+
+            @Override
+            public void abandoned(long id, char quitter) {
+            }
+
+        };
+        // ends every game at once, so the registry doesn't fill up
+        this.matchmaker = new Matchmaker<>((x, o) -> this.registry
+                .abandon(this.registry.create(new Game(), games), 'X'),
+                this.bandWidth, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.matchmaker.close();
+        this.registry.close();
+    }
+
+    @Benchmark
+    public boolean enqueue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID player = new UUID(random.nextLong(), random.nextLong());
+        return this.matchmaker.enqueue(player, random.nextInt(1000), player);
+    }
+
+}
@@ -0,0 +1,111 @@
+package me.kenzierocks.ttt;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import me.kenzierocks.ttt.ai.AlphaBetaBot;
+
+/**
+ * Runs {@link AlphaBetaBot} searches for the UI on a background thread, so
+ * the UI thread never waits on one.
+ *
+ * <p>
+ * Everything but the search itself happens on the UI thread: starting,
+ * cancelling, and the progress, result and failure callbacks, which are
+ * handed to the {@code uiThread} executor. Only the latest search reports
+ * anything; starting another or cancelling silences the old one and
+ * interrupts it. Progress that arrives faster than the UI thread takes it is
+ * coalesced to the newest.
+ * </p>
+ */
+final class BackgroundSearch {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(BackgroundSearch.class);
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("ttt-search").setDaemon(true).build());
+    // only touched by the search thread
+    private final AlphaBetaBot bot = new AlphaBetaBot();
+    private final Executor uiThread;
+    @Nullable
+    private Future<?> running;
+    // bumped by every start and cancel, a callback of an older one is stale
+    private long generation;
+
+    BackgroundSearch(Executor uiThread) {
+        this.uiThread = uiThread;
+    }
+
+    /**
+     * Searches a copy of {@code game} for {@code timeMillis}, cancelling any
+     * search still running. Exactly one of {@code finished} and
+     * {@code failed} is called, unless the search is cancelled first.
+     */
+    void start(Game game, long timeMillis,
+            Consumer<AlphaBetaBot.Result> progress,
+            Consumer<AlphaBetaBot.Result> finished,
+            Consumer<RuntimeException> failed) {
+        cancel();
+        long generation = this.generation;
+        Game position = game.copy();
+        AtomicReference<AlphaBetaBot.Result> latest = new AtomicReference<>();
+        Consumer<AlphaBetaBot.Result> progressOnUi = best -> {
+            if (latest.getAndSet(best) == null) {
+                this.uiThread.execute(() -> {
+                    AlphaBetaBot.Result newest = latest.getAndSet(null);
+                    if (generation == this.generation) {
+                        progress.accept(newest);
+                    }
+                });
+            }
+        };
+        this.running = this.executor.submit(() -> {
+            AlphaBetaBot.Result result = null;
+            RuntimeException failure = null;
+            try {
+                result = this.bot.search(position, timeMillis, progressOnUi);
+            } catch (RuntimeException e) {
+                LOGGER.error("Search failed", e);
+                failure = e;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // cancelled, nobody is listening
+                return;
+            }
+            AlphaBetaBot.Result found = result;
+            RuntimeException error = failure;
+            this.uiThread.execute(() -> {
+                if (generation == this.generation) {
+                    this.running = null;
+                    if (error != null) {
+                        failed.accept(error);
+                    } else {
+                        finished.accept(found);
+                    }
+                }
+            });
+        });
+    }
+
+    void cancel() {
+        this.generation++;
+        if (this.running != null) {
+            this.running.cancel(true);
+            this.running = null;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package me.kenzierocks.ttt;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Board of at most 64 cells, one bitmask per player. Every line of
+ * {@code winLength} cells is precomputed as a mask, and each cell keeps only
+ * the masks that pass through it, so a win check is at most
+ * {@code 4 * winLength} ANDs.
+ */
+final class BitBoard extends Board {
+
+    private static final ConcurrentMap<Long, long[][]> CELL_WIN_MASKS =
+            new ConcurrentHashMap<>();
+
+    private static long[][] cellWinMasks(int rows, int columns,
+            int winLength) {
+        // every length that fits no line has the same (empty) masks, and
+        // clamping keeps the length from spilling into the other fields
+        int length = Math.min(winLength, Math.max(rows, columns) + 1);
+        long key = ((long) rows << 32) | ((long) columns << 16) | length;
+        return CELL_WIN_MASKS.computeIfAbsent(key,
+                k -> computeCellWinMasks(rows, columns, length));
+    }
+
+    private static long[][] computeCellWinMasks(int rows, int columns,
+            int winLength) {
+        int cells = rows * columns;
+        long[][] masks = new long[cells][];
+        int[] counts = new int[cells];
+        long[] lines = new long[cells * AXES.length];
+        int lineCount = 0;
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                for (int[] axis : AXES) {
+                    int endX = x + axis[0] * (winLength - 1);
+                    int endY = y + axis[1] * (winLength - 1);
+                    if (endX < 0 || endX >= rows || endY < 0
+                            || endY >= columns) {
+                        continue;
+                    }
+                    long line = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        int cell = (x + axis[0] * i) * columns
+                                + (y + axis[1] * i);
+                        line |= 1L << cell;
+                        counts[cell]++;
+                    }
+                    lines[lineCount++] = line;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            masks[cell] = new long[counts[cell]];
+            counts[cell] = 0;
+        }
+        for (int i = 0; i < lineCount; i++) {
+            long line = lines[i];
+            for (long rest = line; rest != 0; rest &= rest - 1) {
+                int cell = Long.numberOfTrailingZeros(rest);
+                masks[cell][counts[cell]++] = line;
+            }
+        }
+        return masks;
+    }
+
+    private final long[][] cellWinMasks;
+    private final long full;
+    private final long[] boards = new long[2];
+
+    BitBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+        this.cellWinMasks = cellWinMasks(rows, columns, winLength);
+        int cells = rows * columns;
+        this.full = cells == Long.SIZE ? -1L : (1L << cells) - 1;
+    }
+
+    private BitBoard(BitBoard original) {
+        super(original.rows, original.columns, original.winLength);
+        this.cellWinMasks = original.cellWinMasks;
+        this.full = original.full;
+        this.boards[0] = original.boards[0];
+        this.boards[1] = original.boards[1];
+    }
+
+    private int cell(int x, int y) {
+        return x * this.columns + y;
+    }
+
+    private long occupied() {
+        return this.boards[0] | this.boards[1];
+    }
+
+    @Override
+    int owner(int x, int y) {
+        long bit = 1L << cell(x, y);
+        if ((this.boards[0] & bit) != 0) {
+            return 0;
+        }
+        if ((this.boards[1] & bit) != 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    @Override
+    boolean place(int x, int y, int player) {
+        int cell = cell(x, y);
+        long board = this.boards[player] |= 1L << cell;
+        for (long mask : this.cellWinMasks[cell]) {
+            if ((board & mask) == mask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    void remove(int x, int y, int player) {
+        this.boards[player] &= ~(1L << cell(x, y));
+    }
+
+    @Override
+    boolean isFull() {
+        return occupied() == this.full;
+    }
+
+    @Override
+    void clear() {
+        this.boards[0] = 0;
+        this.boards[1] = 0;
+    }
+
+    @Override
+    BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+}
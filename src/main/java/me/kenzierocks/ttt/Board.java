@@ -0,0 +1,62 @@
+package me.kenzierocks.ttt;
+
+/**
+ * Cell storage and win tracking behind {@link Game}. Players are passed as
+ * indexes (0 for X, 1 for O), and empty cells are reported as -1.
+ */
+abstract class Board {
+
+    /*
+     * The four lines a cell can be part of, as (dx, dy) steps. The opposite
+     * direction of each is walked by negating it.
+     */
+    static final int[][] AXES = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    static Board create(int rows, int columns, int winLength) {
+        if ((long) rows * columns <= Long.SIZE) {
+            return new BitBoard(rows, columns, winLength);
+        }
+        return new SparseBoard(rows, columns, winLength);
+    }
+
+    protected final int rows;
+    protected final int columns;
+    protected final int winLength;
+
+    protected Board(int rows, int columns, int winLength) {
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+    }
+
+    final boolean onBoard(int x, int y) {
+        return x >= 0 && x < this.rows && y >= 0 && y < this.columns;
+    }
+
+    /**
+     * Returns the player owning the cell, or -1 if it is empty.
+     */
+    abstract int owner(int x, int y);
+
+    /**
+     * Marks an empty cell for the player, returning {@code true} if it
+     * completes a line of at least {@code winLength}.
+     */
+    abstract boolean place(int x, int y, int player);
+
+    /**
+     * Takes back the player's mark from the cell, which must be the last one
+     * placed and not yet removed, leaving the board as it was before.
+     */
+    abstract void remove(int x, int y, int player);
+
+    abstract boolean isFull();
+
+    /**
+     * Empties every cell, keeping whatever was allocated for them.
+     */
+    abstract void clear();
+
+    abstract Board copy();
+
+}
@@ -0,0 +1,35 @@
+package me.kenzierocks.ttt;
+
+import javafx.scene.Node;
+
+/**
+ * Shows the board of a {@link Game}, redrawing only the cells that changed.
+ */
+interface BoardView {
+
+    interface ClickHandler {
+
+        void cellClicked(int x, int y);
+
+    }
+
+    Node getNode();
+
+    /**
+     * Starts showing {@code game}, which this view listens to from now on.
+     */
+    void setGame(Game game);
+
+    /**
+     * Brings the screen up to date with the changes made to the game.
+     */
+    void refresh();
+
+    /**
+     * Highlights the cell as a suggested move, replacing any other.
+     */
+    void showHint(int x, int y);
+
+    void clearHint();
+
+}
@@ -0,0 +1,229 @@
+package me.kenzierocks.ttt;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws only the cells in view on one {@link Canvas}, for boards too big for
+ * a node per cell. Dragging or scrolling pans the view.
+ *
+ * <p>
+ * Changes are drawn on the next animation pulse, so any number of moves or
+ * pan events between two frames cost one redraw.
+ * </p>
+ */
+final class CanvasBoardView implements BoardView {
+
+    private static final double CELL_SIZE = 32;
+    private static final Font MARK_FONT = Font.font(CELL_SIZE * 0.75);
+    // same colors as ttt.css
+    private static final Color X_COLOR = Color.RED;
+    private static final Color O_COLOR = Color.GREEN;
+    private static final Color CELL_COLOR = Color.WHITE;
+    private static final Color HINT_COLOR = Color.KHAKI;
+    private static final Color GRID_COLOR = Color.LIGHTGRAY;
+    private static final Color OFF_BOARD_COLOR = Color.GRAY;
+
+    private final Pane pane = new Pane();
+    private final Canvas canvas = new Canvas();
+    private final ClickHandler onClick;
+    private final AnimationTimer timer = new AnimationTimer() {
+
+        @Override
+        public void handle(long now) {
+            draw();
+        }
+
+    };
+    private DirtyCells dirty = new DirtyCells(0, 0);
+    private Game game;
+    private int hintCell = -1;
+    // the board's pixel at the canvas's top left corner
+    private double left;
+    private double top;
+    private double dragX;
+    private double dragY;
+    private boolean drawScheduled;
+
+    CanvasBoardView(ClickHandler onClick) {
+        this.onClick = onClick;
+        this.pane.getChildren().add(this.canvas);
+        this.pane.setCursor(Cursor.HAND);
+        this.pane.setStyle("-fx-border-color: black;");
+        this.canvas.widthProperty().bind(this.pane.widthProperty());
+        this.canvas.heightProperty().bind(this.pane.heightProperty());
+        InvalidationListener resized = ob -> panBy(0, 0, true);
+        this.canvas.widthProperty().addListener(resized);
+        this.canvas.heightProperty().addListener(resized);
+        this.canvas.setOnMousePressed(this::dragStarted);
+        this.canvas.setOnMouseDragged(this::dragged);
+        this.canvas.setOnMouseClicked(this::clicked);
+        this.canvas.setOnScroll(
+                event -> panBy(-event.getDeltaX(), -event.getDeltaY(), false));
+        GraphicsContext graphics = this.canvas.getGraphicsContext2D();
+        graphics.setFont(MARK_FONT);
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.CENTER);
+        graphics.setLineWidth(1);
+        graphics.setStroke(GRID_COLOR);
+    }
+
+    @Override
+    public Node getNode() {
+        return this.pane;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        if (this.game != null) {
+            this.game.setListener(null);
+        }
+        this.game = game;
+        this.dirty = new DirtyCells(game.getRows(), game.getColumns());
+        game.setListener(this.dirty);
+        this.hintCell = -1;
+        this.left = 0;
+        this.top = 0;
+        scheduleDraw();
+    }
+
+    @Override
+    public void refresh() {
+        if (!this.dirty.isEmpty()) {
+            scheduleDraw();
+        }
+    }
+
+    @Override
+    public void showHint(int x, int y) {
+        clearHint();
+        this.hintCell = x * this.dirty.getColumns() + y;
+        this.dirty.cellChanged(x, y);
+        scheduleDraw();
+    }
+
+    @Override
+    public void clearHint() {
+        if (this.hintCell >= 0) {
+            int columns = this.dirty.getColumns();
+            this.dirty.cellChanged(this.hintCell / columns,
+                    this.hintCell % columns);
+            this.hintCell = -1;
+            scheduleDraw();
+        }
+    }
+
+    private void dragStarted(MouseEvent event) {
+        this.dragX = event.getX();
+        this.dragY = event.getY();
+    }
+
+    private void dragged(MouseEvent event) {
+        panBy(this.dragX - event.getX(), this.dragY - event.getY(), false);
+        dragStarted(event);
+    }
+
+    private void clicked(MouseEvent event) {
+        if (!event.isStillSincePress() || this.game == null) {
+            // the end of a drag
+            return;
+        }
+        int x = (int) Math.floor((this.top + event.getY()) / CELL_SIZE);
+        int y = (int) Math.floor((this.left + event.getX()) / CELL_SIZE);
+        if (x >= 0 && x < this.game.getRows() && y >= 0
+                && y < this.game.getColumns()) {
+            this.onClick.cellClicked(x, y);
+        }
+    }
+
+    private void panBy(double dx, double dy, boolean force) {
+        double left = clamp(this.left + dx, this.dirty.getColumns() * CELL_SIZE
+                - this.canvas.getWidth());
+        double top = clamp(this.top + dy,
+                this.dirty.getRows() * CELL_SIZE - this.canvas.getHeight());
+        if (force || left != this.left || top != this.top) {
+            this.left = left;
+            this.top = top;
+            this.dirty.markAll();
+            scheduleDraw();
+        }
+    }
+
+    private static double clamp(double offset, double max) {
+        return Math.max(0, Math.min(offset, max));
+    }
+
+    private void scheduleDraw() {
+        if (!this.drawScheduled) {
+            this.drawScheduled = true;
+            this.timer.start();
+        }
+    }
+
+    private void draw() {
+        this.timer.stop();
+        this.drawScheduled = false;
+        if (this.game != null) {
+            this.dirty.drain(this::drawCell, this::drawAll);
+        }
+    }
+
+    private void drawAll() {
+        GraphicsContext graphics = this.canvas.getGraphicsContext2D();
+        double width = this.canvas.getWidth();
+        double height = this.canvas.getHeight();
+        graphics.setFill(OFF_BOARD_COLOR);
+        graphics.fillRect(0, 0, width, height);
+        int firstRow = (int) (this.top / CELL_SIZE);
+        int lastRow = Math.min(this.game.getRows(),
+                (int) Math.ceil((this.top + height) / CELL_SIZE));
+        int firstColumn = (int) (this.left / CELL_SIZE);
+        int lastColumn = Math.min(this.game.getColumns(),
+                (int) Math.ceil((this.left + width) / CELL_SIZE));
+        for (int x = firstRow; x < lastRow; x++) {
+            for (int y = firstColumn; y < lastColumn; y++) {
+                drawCell(graphics, x, y);
+            }
+        }
+    }
+
+    private void drawCell(int cell) {
+        int columns = this.game.getColumns();
+        drawCell(this.canvas.getGraphicsContext2D(), cell / columns,
+                cell % columns);
+    }
+
+    private void drawCell(GraphicsContext graphics, int x, int y) {
+        double cellLeft = y * CELL_SIZE - this.left;
+        double cellTop = x * CELL_SIZE - this.top;
+        if (cellLeft >= this.canvas.getWidth() || cellLeft + CELL_SIZE <= 0
+                || cellTop >= this.canvas.getHeight()
+                || cellTop + CELL_SIZE <= 0) {
+            // out of view
+            return;
+        }
+        graphics.setFill(x * this.game.getColumns() + y == this.hintCell
+                ? HINT_COLOR : CELL_COLOR);
+        graphics.fillRect(cellLeft, cellTop, CELL_SIZE, CELL_SIZE);
+        // on the half pixel so the line covers exactly one
+        graphics.strokeRect(Math.floor(cellLeft) + 0.5,
+                Math.floor(cellTop) + 0.5, CELL_SIZE - 1, CELL_SIZE - 1);
+        char mark = this.game.get(x, y);
+        if (mark != '\0') {
+            graphics.setFill(mark == 'X' ? X_COLOR : O_COLOR);
+            graphics.fillText(mark == 'X' ? "X" : "O",
+                    cellLeft + CELL_SIZE / 2, cellTop + CELL_SIZE / 2);
+        }
+    }
+
+}
@@ -1,27 +1,53 @@
 package me.kenzierocks.ttt;
 
 import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 
+import me.kenzierocks.ttt.ai.AlphaBetaBot;
+
 public class Controller {
 
+    // more cells than this and a node per cell gets too slow
+    private static final int MAX_GRID_CELLS = 400;
+    private static final long SEARCH_MILLIS = 1000;
+
     private final PlayerData playerData = new PlayerData();
+    private final BackgroundSearch search =
+            new BackgroundSearch(Platform::runLater);
+    @FXML
+    BorderPane rootPane;
+    @FXML
+    Label currentPlayerLabel;
+    @FXML
+    GridPane gameplayPane;
     @FXML
-    private Label currentPlayerLabel;
+    Label xScore;
     @FXML
-    private GridPane gameplayPane;
+    Label oScore;
     @FXML
-    private Label xScore;
+    CheckMenuItem computerPlaysO;
     @FXML
-    private Label oScore;
+    Label searchStatus;
+    @FXML
+    ProgressIndicator searchProgress;
     private Game game;
+    private GridBoardView gridView;
+    @Nullable
+    private CanvasBoardView canvasView;
+    private BoardView boardView;
 
     @FXML
     public void quit() {
@@ -66,55 +92,175 @@ public class Controller {
 
     @FXML
     public void restart() {
-        game = new Game();
+        stopSearch();
+        game.reset();
+        updateScores();
+        updateCurrentPlayer();
+        boardView.refresh();
+    }
+
+    /**
+     * Starts over on a {@code rows} by {@code columns} board. Boards with
+     * more than {@value #MAX_GRID_CELLS} cells are drawn on a canvas.
+     */
+    public void newGame(int rows, int columns, int winLength) {
+        stopSearch();
+        game = new Game(rows, columns, winLength);
+        BoardView view;
+        if ((long) rows * columns > MAX_GRID_CELLS) {
+            if (canvasView == null) {
+                canvasView = new CanvasBoardView(this::cellClicked);
+            }
+            view = canvasView;
+        } else {
+            view = gridView;
+        }
+        if (view != boardView) {
+            rootPane.setCenter(view.getNode());
+            boardView = view;
+        }
+        view.setGame(game);
         updateScores();
         updateCurrentPlayer();
-        gameplayPane.getChildren().stream().map(Label.class::cast)
-                .forEach(label -> {
-                    label.setText("[  ]");
-                    label.setOnMouseClicked(event -> {
-                        Integer x = GridPane.getRowIndex(label);
-                        Integer y = GridPane.getColumnIndex(label);
-                        x = x == null ? 0 : x;
-                        y = y == null ? 0 : y;
-                        WinState win = game.clickAndWin(x, y);
-                        updateScores();
-                        updateCurrentPlayer();
-                        label.setText(String.valueOf(game.get(x, y)));
-                        if (win != WinState.NEUTRAL) {
-                            Platform.runLater(() -> {
-                                Alert alert =
-                                        new Alert(Alert.AlertType.INFORMATION);
-                                String text;
-                                if (win == WinState.WIN) {
-                                    char currentPlayer =
-                                            game.getCurrentPlayer();
-                                    text = currentPlayer + " is the winner!";
-                                    if (currentPlayer == 'X') {
-                                        playerData.setXScore(
-                                                playerData.getXScore() + 1);
-                                    } else if (currentPlayer == 'O') {
-                                        playerData.setOScore(
-                                                playerData.getOScore() + 1);
-                                    } else {
-                                        throw new IllegalStateException(
-                                                "Player who now? "
-                                                        + currentPlayer);
-                                    }
-                                } else if (win == WinState.TIE) {
-                                    text = "Cat's game!";
-                                } else {
-                                    text = "You did something. WinState." + win;
-                                }
-                                alert.setContentText(text);
-                                alert.showAndWait();
-                                restart();
-                            });
-                        }
-                    });
+        view.refresh();
+    }
+
+    @FXML
+    public void computerToggled() {
+        if (computersTurn()) {
+            startComputerMove();
+        } else if (!computerPlaysO.isSelected()) {
+            stopSearch();
+        }
+    }
+
+    @FXML
+    public void showHint() {
+        if (game.getWinState() != WinState.NEUTRAL || computersTurn()
+                || !canSearch()) {
+            return;
+        }
+        startSearch("Looking for a hint",
+                best -> boardView.showHint(best.getX(), best.getY()),
+                hint -> {
+                    boardView.showHint(hint.getX(), hint.getY());
+                    searchStatus.setText("Hint: " + describe(hint));
                 });
     }
 
+    private void cellClicked(int x, int y) {
+        if (game.getWinState() != WinState.NEUTRAL) {
+            // waiting on the alert to restart
+            return;
+        }
+        if (computersTurn()) {
+            return;
+        }
+        play(x, y);
+    }
+
+    private void play(int x, int y) {
+        if (game.get(x, y) != '\0') {
+            return;
+        }
+        // any hint was for the position before this move
+        stopSearch();
+        WinState win = game.clickAndWin(x, y);
+        updateScores();
+        updateCurrentPlayer();
+        boardView.refresh();
+        if (win != WinState.NEUTRAL) {
+            Platform.runLater(() -> gameOver(win));
+        } else if (computersTurn()) {
+            startComputerMove();
+        }
+    }
+
+    private boolean computersTurn() {
+        return computerPlaysO.isSelected()
+                && game.getWinState() == WinState.NEUTRAL
+                && game.getCurrentPlayer() == 'O';
+    }
+
+    private void startComputerMove() {
+        if (!canSearch()) {
+            return;
+        }
+        startSearch("Thinking", best -> {
+        }, move -> play(move.getX(), move.getY()));
+    }
+
+    private boolean canSearch() {
+        long cells = (long) game.getRows() * game.getColumns();
+        if (cells > AlphaBetaBot.MAX_CELLS) {
+            searchStatus.setText("Board too big for the computer");
+            return false;
+        }
+        return true;
+    }
+
+    private void startSearch(String task,
+            Consumer<AlphaBetaBot.Result> progress,
+            Consumer<AlphaBetaBot.Result> finished) {
+        searchStatus.setText(task + "...");
+        searchProgress.setVisible(true);
+        search.start(game, SEARCH_MILLIS, best -> {
+            searchStatus.setText(task + ", " + describe(best));
+            progress.accept(best);
+        }, result -> {
+            searchProgress.setVisible(false);
+            finished.accept(result);
+        }, error -> {
+            searchProgress.setVisible(false);
+            searchStatus.setText(task + " failed");
+            if (computersTurn()) {
+                // otherwise nobody could ever move again
+                computerPlaysO.setSelected(false);
+            }
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setContentText(task + " failed: " + error);
+            alert.showAndWait();
+        });
+    }
+
+    private void stopSearch() {
+        search.cancel();
+        searchStatus.setText("");
+        searchProgress.setVisible(false);
+        if (boardView != null) {
+            boardView.clearHint();
+        }
+    }
+
+    private static String describe(AlphaBetaBot.Result result) {
+        return "row " + (result.getX() + 1) + ", column "
+                + (result.getY() + 1) + " at depth " + result.getDepth();
+    }
+
+    private void gameOver(WinState win) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        String text;
+        if (win == WinState.WIN) {
+            char currentPlayer = game.getCurrentPlayer();
+            text = currentPlayer + " is the winner!";
+            if (currentPlayer == 'X') {
+                playerData.setXScore(playerData.getXScore() + 1);
+            } else if (currentPlayer == 'O') {
+                playerData.setOScore(playerData.getOScore() + 1);
+            } else {
+                throw new IllegalStateException(
+                        "Player who now? " + currentPlayer);
+            }
+        } else if (win == WinState.TIE) {
+            text = "Cat's game!";
+        } else {
+            text = "You did something. WinState." + win;
+        }
+        alert.setContentText(text);
+        alert.showAndWait();
+        restart();
+    }
+
     private void updateScores() {
         xScore.setText(String.valueOf(playerData.getXScore()));
         oScore.setText(String.valueOf(playerData.getOScore()));
@@ -126,10 +272,9 @@ public class Controller {
 
     @FXML
     public void initialize() {
-        gameplayPane.getChildren().stream().map(Label.class::cast)
-                .forEach(Util::attachColorChange);
+        gridView = new GridBoardView(gameplayPane, this::cellClicked);
         Util.attachColorChange(currentPlayerLabel);
-        restart();
+        newGame(Game.CLASSIC_SIZE, Game.CLASSIC_SIZE, Game.CLASSIC_SIZE);
     }
 
 }
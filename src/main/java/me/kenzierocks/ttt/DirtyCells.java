@@ -0,0 +1,88 @@
+package me.kenzierocks.ttt;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * The cells of a {@link Game} that changed since they were last drawn, each
+ * kept once no matter how often it changed.
+ */
+final class DirtyCells implements Game.Listener {
+
+    private final int rows;
+    private final int columns;
+    private final BitSet marked = new BitSet();
+    private int[] cells = new int[16];
+    private int count;
+    private boolean all = true;
+
+    DirtyCells(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    boolean isEmpty() {
+        return !this.all && this.count == 0;
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        if (this.all) {
+            return;
+        }
+        int cell = x * this.columns + y;
+        if (this.marked.get(cell)) {
+            return;
+        }
+        this.marked.set(cell);
+        if (this.count == this.cells.length) {
+            this.cells = Arrays.copyOf(this.cells, 2 * this.cells.length);
+        }
+        this.cells[this.count++] = cell;
+    }
+
+    @Override
+    public void boardCleared() {
+        markAll();
+    }
+
+    void markAll() {
+        forget();
+        this.all = true;
+    }
+
+    /**
+     * Forgets the dirty cells, passing each to {@code redrawCell}, or runs
+     * {@code redrawAll} instead if the whole board is dirty.
+     */
+    void drain(IntConsumer redrawCell, Runnable redrawAll) {
+        if (this.all) {
+            this.all = false;
+            redrawAll.run();
+            return;
+        }
+        int[] cells = this.cells;
+        int count = this.count;
+        forget();
+        for (int i = 0; i < count; i++) {
+            redrawCell.accept(cells[i]);
+        }
+    }
+
+    private void forget() {
+        for (int i = 0; i < this.count; i++) {
+            this.marked.clear(this.cells[i]);
+        }
+        this.count = 0;
+    }
+
+}
@@ -0,0 +1,467 @@
+package me.kenzierocks.ttt;
+
+import static com.google.common.base.Preconditions.checkState;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+import javafx.fxml.FXML;
+
+/**
+ * Compiles {@code ttt.fxml} into {@code TttScene}, which builds the same
+ * scene graph with plain constructor and setter calls and assigns the
+ * controller's {@link FXML @FXML} fields directly. Startup then skips
+ * FXMLLoader's XML parsing and reflection, and the classes behind them.
+ * Run from the project root after changing the FXML.
+ *
+ * <p>
+ * Property types are looked up with reflection here, at generation time.
+ * Only the FXML features the file uses are supported: imports, instance and
+ * property elements, static properties, {@code fx:id}, {@code fx:constant},
+ * {@code #handler} event attributes and {@code @location} stylesheets.
+ * Anything else fails generation.
+ * </p>
+ */
+public final class FxmlClassGenerator {
+
+    private static final Path RESOURCES_DIR = Paths.get("src/main/resources");
+    private static final Path SOURCE = RESOURCES_DIR.resolve("ttt.fxml");
+    private static final Path TARGET_DIR = Paths.get("src/main/java");
+    private static final String CLASS_NAME = "TttScene";
+    private static final String FX_NAMESPACE = "http://javafx.com/fxml/1";
+    private static final String XMLNS_NAMESPACE =
+            "http://www.w3.org/2000/xmlns/";
+    private static final String JAVADOC = "Generated from $L\n\t on "
+            + ZonedDateTime.now().withZoneSameInstant(ZoneOffset.UTC)
+                    .format(DateTimeFormatter.RFC_1123_DATE_TIME);
+
+    public static void main(String[] args) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document =
+                factory.newDocumentBuilder().parse(SOURCE.toFile());
+        JavaFile file = new FxmlClassGenerator(document).generate();
+        try {
+            file.writeTo(TARGET_DIR);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final Document document;
+    private final Map<String, Class<?>> imports = new HashMap<>();
+    private final List<String> packageImports = new ArrayList<>();
+    private final Map<String, Integer> nameCounts = new HashMap<>();
+    private final CodeBlock.Builder code = CodeBlock.builder();
+    private Class<?> controllerType;
+    private ClassName sceneType;
+
+    private FxmlClassGenerator(Document document) {
+        this.document = document;
+    }
+
+    private JavaFile generate() throws ReflectiveOperationException {
+        NodeList nodes = this.document.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof ProcessingInstruction
+                    && ((ProcessingInstruction) node).getTarget()
+                            .equals("import")) {
+                addImport(((ProcessingInstruction) node).getData().trim());
+            }
+        }
+        Element root = this.document.getDocumentElement();
+        String controller = fxAttribute(root, "controller");
+        checkState(controller != null, "fx:controller is required");
+        this.controllerType = Class.forName(controller);
+        this.sceneType = ClassName.get(
+                this.controllerType.getPackage().getName(), CLASS_NAME);
+
+        Class<?> rootType = resolve(root.getTagName());
+        CodeBlock rootValue = create(root);
+        if (findMethod(this.controllerType, "initialize", 0) != null) {
+            this.code.addStatement("controller.initialize()");
+        }
+        this.code.addStatement("return $L", rootValue);
+
+        MethodSpec build = MethodSpec.methodBuilder("build")
+                .addJavadoc("Builds the scene graph, fills in the controller's"
+                        + " fields and initializes it.\n")
+                .addModifiers(PUBLIC, STATIC).returns(rootType)
+                .addParameter(this.controllerType, "controller")
+                .addCode(this.code.build()).build();
+        TypeSpec type = TypeSpec.classBuilder(CLASS_NAME)
+                .addModifiers(PUBLIC, FINAL)
+                .addJavadoc("What {@code FXMLLoader} would build from $L.\n",
+                        SOURCE.getFileName())
+                .addMethod(build)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE)
+                        .build())
+                .build();
+        return JavaFile.builder(this.sceneType.packageName(), type)
+                .indent("....".replace('.', ' ')).skipJavaLangImports(true)
+                .addFileComment(JAVADOC, SOURCE.getFileName()).build();
+    }
+
+    private void addImport(String name) throws ClassNotFoundException {
+        if (name.endsWith(".*")) {
+            this.packageImports.add(name.substring(0, name.length() - 2));
+        } else {
+            Class<?> type = Class.forName(name);
+            this.imports.put(type.getSimpleName(), type);
+        }
+    }
+
+    private Class<?> resolve(String name) {
+        Class<?> type = this.imports.get(name);
+        if (type != null) {
+            return type;
+        }
+        for (String pkg : this.packageImports) {
+            try {
+                type = Class.forName(pkg + "." + name);
+                this.imports.put(name, type);
+                return type;
+            } catch (ClassNotFoundException e) {
+                // try the next package
+            }
+        }
+        throw new IllegalStateException("Unknown class " + name);
+    }
+
+    /*
+     * Emits the statements building the element and returns an expression
+     * for it, either a local variable or a constant.
+     */
+    private CodeBlock create(Element element)
+            throws ReflectiveOperationException {
+        Class<?> type = resolve(element.getTagName());
+        String constant = fxAttribute(element, "constant");
+        if (constant != null) {
+            return code("$T.$L", type, constant);
+        }
+        List<Attr> attributes = attributes(element);
+        if (!hasNoArgConstructor(type)) {
+            checkState(childElements(element).isEmpty()
+                    && fxAttribute(element, "id") == null,
+                    "%s can only take attributes", type.getSimpleName());
+            return construct(type, attributes);
+        }
+        String fxId = fxAttribute(element, "id");
+        String name = fxId != null ? fxId : newName(type);
+        this.code.addStatement("$T $L = new $T()", type, name, type);
+        if (fxId != null) {
+            // FXMLLoader uses the fx:id as the id if there's no other
+            if (element.getAttribute("id").isEmpty()
+                    && findMethod(type, "setId", 1) != null) {
+                this.code.addStatement("$L.setId($S)", name, fxId);
+            }
+            if (isInjected(fxId)) {
+                this.code.addStatement("controller.$L = $L", fxId, name);
+            }
+        }
+        for (Attr attribute : attributes) {
+            setAttribute(type, name, attribute);
+        }
+        for (Element child : childElements(element)) {
+            String tag = child.getTagName();
+            if (Character.isUpperCase(tag.charAt(0)) && tag.indexOf('.') < 0) {
+                DefaultProperty property =
+                        type.getAnnotation(DefaultProperty.class);
+                checkState(property != null, "%s has no default property",
+                        type.getSimpleName());
+                setProperty(type, name, property.value(), child);
+            } else {
+                for (Element value : childElements(child)) {
+                    setProperty(type, name, tag, value);
+                }
+            }
+        }
+        return code("$L", name);
+    }
+
+    private void setAttribute(Class<?> type, String name, Attr attribute)
+            throws ReflectiveOperationException {
+        String property = attribute.getName();
+        String value = attribute.getValue();
+        int dot = property.indexOf('.');
+        if (dot >= 0) {
+            // a static property, like GridPane.columnIndex
+            Class<?> owner = resolve(property.substring(0, dot));
+            Method setter = staticSetter(owner, property.substring(dot + 1));
+            this.code.addStatement("$T.$L($L, $L)", owner, setter.getName(),
+                    name, coerce(value, setter.getParameterTypes()[1]));
+            return;
+        }
+        if (property.startsWith("on") && value.startsWith("#")) {
+            String handler = value.substring(1);
+            Method method = findMethod(this.controllerType, handler, 0);
+            if (method == null) {
+                method = findMethod(this.controllerType, handler, 1);
+            }
+            checkState(method != null, "No handler %s", handler);
+            this.code.addStatement("$L.$L(event -> controller.$L($L))", name,
+                    setterName(property), handler,
+                    method.getParameterCount() == 0 ? "" : "event");
+            return;
+        }
+        Method setter = findMethod(type, setterName(property), 1);
+        if (setter != null) {
+            this.code.addStatement("$L.$L($L)", name, setter.getName(),
+                    coerce(value, setter.getParameterTypes()[0]));
+            return;
+        }
+        Method getter = listGetter(type, property);
+        for (String item : value.split(",")) {
+            this.code.addStatement("$L.$L().add($L)", name, getter.getName(),
+                    listItem(item.trim()));
+        }
+    }
+
+    /*
+     * Emits the value of a property element, a setter call or, for a list, an
+     * add.
+     */
+    private void setProperty(Class<?> type, String name, String property,
+            Element value) throws ReflectiveOperationException {
+        int dot = property.indexOf('.');
+        if (dot >= 0) {
+            Class<?> owner = resolve(property.substring(0, dot));
+            Method setter = staticSetter(owner, property.substring(dot + 1));
+            CodeBlock created = create(value);
+            this.code.addStatement("$T.$L($L, $L)", owner, setter.getName(),
+                    name, created);
+            return;
+        }
+        Method setter = findMethod(type, setterName(property), 1);
+        CodeBlock created = create(value);
+        if (setter != null) {
+            this.code.addStatement("$L.$L($L)", name, setter.getName(),
+                    created);
+        } else {
+            this.code.addStatement("$L.$L().add($L)", name,
+                    listGetter(type, property).getName(), created);
+        }
+    }
+
+    /*
+     * Like FXMLLoader's builders, values without a no-arg constructor take
+     * their attributes as @NamedArg constructor arguments. The constructor
+     * with the fewest parameters that covers every attribute wins, the rest
+     * get their defaults.
+     */
+    private CodeBlock construct(Class<?> type, List<Attr> attributes) {
+        Map<String, String> given = new HashMap<>();
+        for (Attr attribute : attributes) {
+            given.put(attribute.getName(), attribute.getValue());
+        }
+        Constructor<?> best = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            List<String> names = new ArrayList<>();
+            for (Parameter parameter : constructor.getParameters()) {
+                NamedArg arg = parameter.getAnnotation(NamedArg.class);
+                if (arg == null) {
+                    names = null;
+                    break;
+                }
+                names.add(arg.value());
+            }
+            if (names != null && names.containsAll(given.keySet())
+                    && (best == null || constructor
+                            .getParameterCount() < best.getParameterCount())) {
+                best = constructor;
+            }
+        }
+        checkState(best != null, "No constructor of %s takes %s",
+                type.getSimpleName(), given.keySet());
+        CodeBlock.Builder arguments = CodeBlock.builder();
+        Parameter[] parameters = best.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            NamedArg arg = parameters[i].getAnnotation(NamedArg.class);
+            String value = given.getOrDefault(arg.value(), arg.defaultValue());
+            arguments.add(i == 0 ? "$L" : ", $L",
+                    coerce(value, parameters[i].getType()));
+        }
+        return code("new $T($L)", type, arguments.build());
+    }
+
+    private CodeBlock coerce(String value, Class<?> type) {
+        if (type == String.class) {
+            return code("$S", value);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return code("$L", Boolean.parseBoolean(value));
+        }
+        if (type == int.class || type == Integer.class) {
+            return code("$L", Integer.parseInt(value));
+        }
+        if (type == double.class || type == Double.class) {
+            double number = value.isEmpty() ? 0 : Double.parseDouble(value);
+            if (Double.isInfinite(number)) {
+                return code("$T.$L", Double.class, number > 0
+                        ? "POSITIVE_INFINITY" : "NEGATIVE_INFINITY");
+            }
+            return code("$L", Double.toString(number));
+        }
+        if (type.isEnum()) {
+            return code("$T.$L", type, value.toUpperCase(Locale.ROOT));
+        }
+        throw new IllegalStateException(
+                "Can't convert \"" + value + "\" to " + type.getName());
+    }
+
+    private CodeBlock listItem(String item) {
+        if (item.startsWith("@")) {
+            // a location relative to the FXML file
+            String path = "/" + RESOURCES_DIR.relativize(SOURCE.resolveSibling(
+                    item.substring(1))).toString().replace('\\', '/');
+            return code("$T.class.getResource($S).toExternalForm()",
+                    this.sceneType, path);
+        }
+        return code("$S", item);
+    }
+
+    private boolean isInjected(String fxId) {
+        Field field;
+        try {
+            field = this.controllerType.getDeclaredField(fxId);
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+        checkState(!Modifier.isPrivate(field.getModifiers()),
+                "%s.%s can't be private, %s assigns it",
+                this.controllerType.getSimpleName(), fxId, CLASS_NAME);
+        return true;
+    }
+
+    private String newName(Class<?> type) {
+        String simpleName = type.getSimpleName();
+        String base = Character.toLowerCase(simpleName.charAt(0))
+                + simpleName.substring(1);
+        return base + this.nameCounts.merge(base, 1, Integer::sum);
+    }
+
+    private static String setterName(String property) {
+        return "set" + Util.uppercaseFirstLetter(property);
+    }
+
+    private static Method staticSetter(Class<?> owner, String property) {
+        for (Method method : owner.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())
+                    && method.getName().equals(setterName(property))
+                    && method.getParameterCount() == 2) {
+                return method;
+            }
+        }
+        throw new IllegalStateException(
+                "No static property " + owner.getSimpleName() + "."
+                        + property);
+    }
+
+    private static Method listGetter(Class<?> type, String property) {
+        Method getter = findMethod(type,
+                "get" + Util.uppercaseFirstLetter(property), 0);
+        checkState(getter != null
+                && List.class.isAssignableFrom(getter.getReturnType()),
+                "No property %s on %s", property, type.getSimpleName());
+        return getter;
+    }
+
+    private static Method findMethod(Class<?> type, String name,
+            int parameters) {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name)
+                    && method.getParameterCount() == parameters
+                    && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasNoArgConstructor(Class<?> type) {
+        try {
+            type.getConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String fxAttribute(Element element, String name) {
+        Attr attribute = element.getAttributeNodeNS(FX_NAMESPACE, name);
+        return attribute == null ? null : attribute.getValue();
+    }
+
+    /*
+     * The plain attributes, sorted by name so the output doesn't depend on
+     * the parser.
+     */
+    private static List<Attr> attributes(Element element) {
+        List<Attr> attributes = new ArrayList<>();
+        NamedNodeMap map = element.getAttributes();
+        for (int i = 0; i < map.getLength(); i++) {
+            Attr attribute = (Attr) map.item(i);
+            String namespace = attribute.getNamespaceURI();
+            if (!FX_NAMESPACE.equals(namespace)
+                    && !XMLNS_NAMESPACE.equals(namespace)) {
+                attributes.add(attribute);
+            }
+        }
+        attributes.sort(Comparator.comparing(Attr::getName));
+        return attributes;
+    }
+
+    private static List<Element> childElements(Element element) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = element.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i) instanceof Element) {
+                children.add((Element) nodes.item(i));
+            }
+        }
+        return children;
+    }
+
+    private static CodeBlock code(String format, Object... args) {
+        return CodeBlock.builder().add(format, args).build();
+    }
+
+}
@@ -1,10 +1,83 @@
 package me.kenzierocks.ttt;
 
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import me.kenzierocks.ttt.metrics.Histogram;
+import me.kenzierocks.ttt.metrics.Metrics;
 
 public class Game {
 
+    /**
+     * A position to come back to with {@link Game#restore(Snapshot)}, two
+     * words that compare and hash by value.
+     */
+    public static final class Snapshot {
+
+        private final int moveCount;
+        private final long zobristHash;
+
+        private Snapshot(int moveCount, long zobristHash) {
+            this.moveCount = moveCount;
+            this.zobristHash = zobristHash;
+        }
+
+        public int getMoveCount() {
+            return moveCount;
+        }
+
+        public long getZobristHash() {
+            return zobristHash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Snapshot)) {
+                return false;
+            }
+            Snapshot other = (Snapshot) obj;
+            return this.moveCount == other.moveCount
+                    && this.zobristHash == other.zobristHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.zobristHash) * 31 + this.moveCount;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("moveCount", this.moveCount)
+                    .add("zobristHash", Long.toHexString(this.zobristHash))
+                    .toString();
+        }
+
+    }
+
+    /**
+     * Told about changes to the board, on the thread making them.
+     */
+    public interface Listener {
+
+        /**
+         * A mark was placed on or taken off the cell.
+         */
+        void cellChanged(int x, int y);
+
+        /**
+         * Every mark was taken off the board.
+         */
+        void boardCleared();
+
+    }
+
     private enum Player {
         X('X'), O('O');
 
@@ -16,77 +89,245 @@ public class Game {
 
     }
 
-    private enum Direction {
-        N(0, -1), S(0, 1), W(-1, 0), E(1, 0), NW(-1, -1), NE(1, -1), SW(-1, 1),
-        SE(1, 1);
+    public static final int CLASSIC_SIZE = 3;
 
-        public final int dx;
-        public final int dy;
+    private static final Histogram CLICK_AND_WIN_NANOS =
+            Metrics.histogram("game.clickAndWinNanos");
+    private static final Player[] PLAYERS = Player.values();
 
-        private Direction(int dx, int dy) {
-            this.dx = dx;
-            this.dy = dy;
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final Board board;
+    private Player currentPlayer = Player.X; // X goes first! ALWAYS.
+    private WinState winState = WinState.NEUTRAL;
+    private int moveCount;
+    private long zobristHash;
+    // cell * 2 + player of every move, for undo
+    private int[] moves = new int[16];
+    // the move count when the game was won or tied
+    private int endedAt;
+    // not carried over to copies, searches shouldn't reach the UI
+    @Nullable
+    private Listener listener;
+
+    public Game() {
+        this(CLASSIC_SIZE, CLASSIC_SIZE, CLASSIC_SIZE);
+    }
+
+    /**
+     * Creates a game on a {@code rows} by {@code columns} board, won by the
+     * first player to get {@code winLength} marks in a row, column or
+     * diagonal.
+     */
+    public Game(int rows, int columns, int winLength) {
+        checkArgument(rows > 0 && columns > 0, "Board must be at least 1x1");
+        checkArgument(winLength > 0, "winLength must be positive");
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.board = Board.create(rows, columns, winLength);
+    }
+
+    private Game(Game original) {
+        this.rows = original.rows;
+        this.columns = original.columns;
+        this.winLength = original.winLength;
+        this.board = original.board.copy();
+        this.currentPlayer = original.currentPlayer;
+        this.winState = original.winState;
+        this.moveCount = original.moveCount;
+        this.zobristHash = original.zobristHash;
+        this.moves = Arrays.copyOf(original.moves,
+                Math.max(16, original.moveCount));
+        this.endedAt = original.endedAt;
+    }
+
+    /**
+     * Returns an independent game in the same position.
+     */
+    public Game copy() {
+        return new Game(this);
+    }
+
+    /**
+     * Takes every mark off the board, starting the game over without
+     * allocating a new one.
+     */
+    public void reset() {
+        this.board.clear();
+        this.currentPlayer = Player.X;
+        this.winState = WinState.NEUTRAL;
+        this.moveCount = 0;
+        this.zobristHash = 0;
+        this.endedAt = 0;
+        if (this.listener != null) {
+            this.listener.boardCleared();
         }
     }
 
-    private final char[][] data = new char[3][3];
-    private Player currentPlayer = Player.X; // X goes first! ALWAYS.
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
 
-    public Game() {
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
     }
 
     public char getCurrentPlayer() {
         return currentPlayer.character;
     }
 
+    /**
+     * Returns {@link WinState#WIN} or {@link WinState#TIE} once either has
+     * been returned from {@link #clickAndWin(int, int)}. In the case of a win,
+     * {@link #getCurrentPlayer()} is the winner.
+     */
+    public WinState getWinState() {
+        return winState;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns the XOR of the {@link Zobrist} keys of every mark on the board,
+     * maintained as moves are made.
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
     public WinState clickAndWin(int x, int y) {
-        if (this.data[x][y] != '\0') {
+        if (!Metrics.ENABLED) {
+            return play(x, y);
+        }
+        long start = System.nanoTime();
+        WinState state = play(x, y);
+        CLICK_AND_WIN_NANOS.record(System.nanoTime() - start);
+        return state;
+    }
+
+    private WinState play(int x, int y) {
+        checkOnBoard(x, y);
+        if (this.board.owner(x, y) >= 0) {
             return WinState.NEUTRAL;
         }
-        this.data[x][y] = this.currentPlayer.character;
-        if (winning(getCurrentPlayer(), x, y)) {
-            return WinState.WIN;
+        int player = this.currentPlayer.ordinal();
+        int cell = x * this.columns + y;
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, 2 * this.moves.length);
+        }
+        this.moves[this.moveCount++] = cell << 1 | player;
+        this.zobristHash ^= Zobrist.key(cell, player);
+        boolean won = this.board.place(x, y, player);
+        if (this.listener != null) {
+            this.listener.cellChanged(x, y);
+        }
+        if (won) {
+            return end(WinState.WIN);
         }
-        if (allFilled()) {
-            return WinState.TIE;
+        if (this.board.isFull()) {
+            return end(WinState.TIE);
         }
         this.currentPlayer =
                 this.currentPlayer == Player.X ? Player.O : Player.X;
         return WinState.NEUTRAL;
     }
 
-    private boolean allFilled() {
-        boolean anyOff = false;
-        for (int i = 0; i < this.data.length; i++) {
-            char[] row = this.data[i];
-            for (int j = 0; j < row.length; j++) {
-                char mark = row[j];
-                anyOff |= mark != Player.X.character
-                        && mark != Player.O.character;
-            }
+    private WinState end(WinState state) {
+        if (this.winState == WinState.NEUTRAL) {
+            this.winState = state;
+            this.endedAt = this.moveCount;
+        }
+        return state;
+    }
+
+    /**
+     * Takes back the last move in constant time, restoring the board, the
+     * current player, the win state and the hash to exactly what they were
+     * before it.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undo() {
+        checkState(this.moveCount > 0, "No move to undo");
+        if (this.moveCount == this.endedAt) {
+            this.winState = WinState.NEUTRAL;
+            this.endedAt = 0;
+        }
+        int move = this.moves[--this.moveCount];
+        int cell = move >>> 1;
+        int player = move & 1;
+        int x = cell / this.columns;
+        int y = cell % this.columns;
+        this.board.remove(x, y, player);
+        this.zobristHash ^= Zobrist.key(cell, player);
+        this.currentPlayer = PLAYERS[player];
+        if (this.listener != null) {
+            this.listener.cellChanged(x, y);
+        }
+    }
+
+    /**
+     * Takes back moves until only {@code moveCount} are left.
+     */
+    public void undoTo(int moveCount) {
+        checkArgument(moveCount >= 0 && moveCount <= this.moveCount,
+                "Can't undo to move %s of %s", moveCount, this.moveCount);
+        while (this.moveCount > moveCount) {
+            undo();
         }
-        return !anyOff;
     }
 
-    private char getOr0(Direction dir, int times, int x, int y) {
-        x += dir.dx * times;
-        y += dir.dy * times;
-        if (x >= this.data.length || x < 0 || y >= this.data[0].length
-                || y < 0) {
-            return '\0';
+    public Snapshot snapshot() {
+        return new Snapshot(this.moveCount, this.zobristHash);
+    }
+
+    /**
+     * Takes back the moves made since the snapshot was taken.
+     *
+     * @throws IllegalArgumentException if the snapshot isn't of an earlier
+     *         position of this game, in which case nothing is undone
+     */
+    public void restore(Snapshot snapshot) {
+        checkArgument(snapshot.moveCount <= this.moveCount,
+                "%s is ahead of this game", snapshot);
+        long hash = this.zobristHash;
+        for (int i = snapshot.moveCount; i < this.moveCount; i++) {
+            hash ^= Zobrist.key(this.moves[i] >>> 1, this.moves[i] & 1);
         }
-        return get(x, y);
+        checkArgument(hash == snapshot.zobristHash,
+                "%s is not an earlier position of this game", snapshot);
+        undoTo(snapshot.moveCount);
     }
 
-    private boolean winning(char p, int x, int y) {
-        Stream<Direction> directions = Stream.of(Direction.values());
-        return directions.anyMatch(dir -> IntStream.rangeClosed(-2, 2)
-                .map(t -> getOr0(dir, t, x, y)).map(c -> c == p ? 1 : 0)
-                .sum() == 3);
+    private void checkOnBoard(int x, int y) {
+        if (!this.board.onBoard(x, y)) {
+            throw new IndexOutOfBoundsException(
+                    "(" + x + ", " + y + ") is not on the board");
+        }
     }
 
     public char get(int x, int y) {
-        return this.data[x][y];
+        checkOnBoard(x, y);
+        switch (this.board.owner(x, y)) {
+            case 0:
+                return Player.X.character;
+            case 1:
+                return Player.O.character;
+            default:
+                return '\0';
+        }
     }
 
 }
@@ -0,0 +1,157 @@
+package me.kenzierocks.ttt;
+
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.text.Font;
+
+/**
+ * A {@link Label} per cell in a {@link GridPane}, for boards small enough to
+ * afford a node per cell. Labels and their click handlers are made once per
+ * board size and reused for every game after that.
+ */
+final class GridBoardView implements BoardView {
+
+    static final String EMPTY_TEXT = "[  ]";
+    // the font size of the classic board's labels
+    private static final double CLASSIC_FONT_SIZE = 90;
+    private static final String HINT_STYLE_CLASS = "hint";
+
+    private final GridPane pane;
+    private final ClickHandler onClick;
+    private Label[] labels;
+    private int hintCell = -1;
+    private DirtyCells dirty;
+    private Game game;
+
+    /**
+     * Takes over the labels already laid out in {@code pane}.
+     */
+    GridBoardView(GridPane pane, ClickHandler onClick) {
+        this.pane = pane;
+        this.onClick = onClick;
+        int rows = pane.getRowConstraints().size();
+        int columns = pane.getColumnConstraints().size();
+        this.labels = new Label[rows * columns];
+        for (Node child : pane.getChildren()) {
+            Label label = (Label) child;
+            Integer x = GridPane.getRowIndex(label);
+            Integer y = GridPane.getColumnIndex(label);
+            x = x == null ? 0 : x;
+            y = y == null ? 0 : y;
+            this.labels[x * columns + y] = label;
+            install(label, x, y);
+        }
+        this.dirty = new DirtyCells(rows, columns);
+    }
+
+    @Override
+    public Node getNode() {
+        return this.pane;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        clearHint();
+        if (game.getRows() != this.dirty.getRows()
+                || game.getColumns() != this.dirty.getColumns()) {
+            layOut(game.getRows(), game.getColumns());
+            this.dirty = new DirtyCells(game.getRows(), game.getColumns());
+        }
+        if (this.game != null) {
+            this.game.setListener(null);
+        }
+        this.game = game;
+        this.dirty.markAll();
+        game.setListener(this.dirty);
+    }
+
+    private void layOut(int rows, int columns) {
+        this.hintCell = -1;
+        this.pane.getChildren().clear();
+        this.pane.getRowConstraints().clear();
+        this.pane.getColumnConstraints().clear();
+        for (int x = 0; x < rows; x++) {
+            RowConstraints row = new RowConstraints();
+            row.setPercentHeight(100.0 / rows);
+            row.setValignment(VPos.CENTER);
+            row.setVgrow(Priority.SOMETIMES);
+            this.pane.getRowConstraints().add(row);
+        }
+        for (int y = 0; y < columns; y++) {
+            ColumnConstraints column = new ColumnConstraints();
+            column.setPercentWidth(100.0 / columns);
+            column.setHalignment(HPos.CENTER);
+            column.setHgrow(Priority.SOMETIMES);
+            this.pane.getColumnConstraints().add(column);
+        }
+        Font font = Font.font(CLASSIC_FONT_SIZE * Game.CLASSIC_SIZE
+                / Math.max(rows, columns));
+        this.labels = new Label[rows * columns];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                Label label = new Label();
+                label.setFont(font);
+                this.labels[x * columns + y] = label;
+                install(label, x, y);
+                this.pane.add(label, y, x);
+            }
+        }
+    }
+
+    private void install(Label label, int x, int y) {
+        Util.attachColorChange(label);
+        label.setOnMouseClicked(event -> this.onClick.cellClicked(x, y));
+    }
+
+    @Override
+    public void refresh() {
+        this.dirty.drain(this::update, this::updateAll);
+    }
+
+    @Override
+    public void showHint(int x, int y) {
+        clearHint();
+        this.hintCell = x * this.dirty.getColumns() + y;
+        this.labels[this.hintCell].getStyleClass().add(HINT_STYLE_CLASS);
+    }
+
+    @Override
+    public void clearHint() {
+        if (this.hintCell >= 0) {
+            this.labels[this.hintCell].getStyleClass()
+                    .remove(HINT_STYLE_CLASS);
+            this.hintCell = -1;
+        }
+    }
+
+    private void update(int cell) {
+        int columns = this.dirty.getColumns();
+        int x = cell / columns;
+        int y = cell % columns;
+        this.labels[cell].setText(text(this.game.get(x, y)));
+    }
+
+    private void updateAll() {
+        for (int cell = 0; cell < this.labels.length; cell++) {
+            update(cell);
+        }
+    }
+
+    private static String text(char mark) {
+        switch (mark) {
+            case 'X':
+                return "X";
+            case 'O':
+                return "O";
+            default:
+                return EMPTY_TEXT;
+        }
+    }
+
+}
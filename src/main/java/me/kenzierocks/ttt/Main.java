@@ -1,5 +1,11 @@
 package me.kenzierocks.ttt;
 
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -9,7 +15,14 @@ import javafx.stage.Stage;
 
 public class Main extends Application {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+    // builds the scene from ttt.fxml at runtime instead of TttScene
+    private static final boolean USE_FXML_LOADER =
+            Boolean.getBoolean("ttt.fxmlLoader");
+    private static final StartupReport STARTUP = new StartupReport();
+
     public static void main(String[] args) {
+        STARTUP.mark("main");
         launch(args);
     }
 
@@ -17,9 +30,31 @@ public class Main extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ttt.fxml"));
-        root = loader.load();
-        Controller controller = loader.getController();
+        STARTUP.mark("FX started");
+        Controller controller;
+        if (USE_FXML_LOADER) {
+            FXMLLoader loader =
+                    new FXMLLoader(getClass().getResource("/ttt.fxml"));
+            root = loader.load();
+            controller = loader.getController();
+        } else {
+            controller = new Controller();
+            root = TttScene.build(controller);
+        }
+        STARTUP.mark("scene built");
+        List<String> args = getParameters().getRaw();
+        if (!args.isEmpty()) {
+            // rows x columns x winLength, like 1000x1000x5
+            String[] dimensions = args.get(0).split("x");
+            if (dimensions.length != 3) {
+                throw new IllegalArgumentException(
+                        "Board must be rows x columns x winLength: "
+                                + args.get(0));
+            }
+            controller.newGame(Integer.parseInt(dimensions[0]),
+                    Integer.parseInt(dimensions[1]),
+                    Integer.parseInt(dimensions[2]));
+        }
         root.autosize();
         Scene scene = new Scene(root);
 
@@ -30,6 +65,29 @@ public class Main extends Application {
             controller.quit(null, event::consume);
         });
         stage.show();
+        STARTUP.mark("stage shown");
+        if (StartupReport.ENABLED) {
+            reportAfterFirstFrame();
+        }
+    }
+
+    private static void reportAfterFirstFrame() {
+        new AnimationTimer() {
+
+            private int pulses;
+
+            @Override
+            public void handle(long now) {
+                // timers run before the pulse renders, so wait for a second
+                if (++this.pulses == 2) {
+                    stop();
+                    STARTUP.mark("first frame");
+                    LOGGER.info("Startup with {}:\n{}", USE_FXML_LOADER
+                            ? "FXMLLoader" : "TttScene", STARTUP);
+                }
+            }
+
+        }.start();
     }
 
 }
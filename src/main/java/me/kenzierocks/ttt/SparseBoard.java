@@ -0,0 +1,231 @@
+package me.kenzierocks.ttt;
+
+import java.util.Arrays;
+
+/**
+ * Board for anything too large for {@link BitBoard}. Only occupied cells are
+ * stored, in an open-addressing table keyed by cell index.
+ *
+ * <p>
+ * Each entry packs the owner and, for each of the four {@link Board#AXES},
+ * the length of the run of same-owner cells it belongs to. Run lengths are
+ * only kept accurate at the two ends of a run, which is all a new mark ever
+ * looks at: the neighbours of an empty cell are always run ends. Placing a
+ * mark therefore reads two neighbours and writes two run ends per axis,
+ * independent of both board size and {@code winLength}.
+ * </p>
+ */
+final class SparseBoard extends Board {
+
+    private static final int RUN_BITS = 15;
+    static final int MAX_DIMENSION = (1 << RUN_BITS) - 1;
+    private static final int OWNER_BITS = 2;
+    private static final long OWNER_MASK = (1L << OWNER_BITS) - 1;
+    private static final long RUN_MASK = MAX_DIMENSION;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static int runShift(int axis) {
+        return OWNER_BITS + axis * RUN_BITS;
+    }
+
+    private static int run(long entry, int axis) {
+        return (int) ((entry >>> runShift(axis)) & RUN_MASK);
+    }
+
+    private static long withRun(long entry, int axis, int run) {
+        int shift = runShift(axis);
+        return (entry & ~(RUN_MASK << shift)) | ((long) run << shift);
+    }
+
+    private static int hash(int key) {
+        // murmur3 fmix32, cells next to each other shouldn't cluster
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private final long cells;
+    // keys are cell index + 1 so that 0 marks an empty slot
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private long[] entries = new long[INITIAL_CAPACITY];
+    private int size;
+
+    SparseBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+        if (rows > MAX_DIMENSION || columns > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Boards are limited to "
+                    + MAX_DIMENSION + " cells per side");
+        }
+        this.cells = (long) rows * columns;
+    }
+
+    private SparseBoard(SparseBoard original) {
+        super(original.rows, original.columns, original.winLength);
+        this.cells = original.cells;
+        this.keys = original.keys.clone();
+        this.entries = original.entries.clone();
+        this.size = original.size;
+    }
+
+    private int key(int x, int y) {
+        return x * this.columns + y + 1;
+    }
+
+    private int slot(int key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != 0 && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private long entry(int x, int y) {
+        if (!onBoard(x, y)) {
+            return 0;
+        }
+        int slot = slot(key(x, y));
+        return this.keys[slot] == 0 ? 0 : this.entries[slot];
+    }
+
+    private void putRun(int x, int y, int axis, int run) {
+        int slot = slot(key(x, y));
+        this.entries[slot] = withRun(this.entries[slot], axis, run);
+    }
+
+    private void insert(int key, long entry) {
+        if ((this.size + 1) * 2 > this.keys.length) {
+            grow();
+        }
+        int slot = slot(key);
+        this.keys[slot] = key;
+        this.entries[slot] = entry;
+        this.size++;
+    }
+
+    /*
+     * Backward-shift deletion: entries after the hole that probed past it
+     * move back into it, so no tombstones are needed.
+     */
+    private void delete(int slot) {
+        int mask = this.keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.keys[next] != 0) {
+            int home = hash(this.keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.keys[hole] = this.keys[next];
+                this.entries[hole] = this.entries[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.keys[hole] = 0;
+        this.size--;
+    }
+
+    private void grow() {
+        int[] oldKeys = this.keys;
+        long[] oldEntries = this.entries;
+        this.keys = new int[oldKeys.length * 2];
+        this.entries = new long[oldEntries.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.entries[slot] = oldEntries[i];
+            }
+        }
+    }
+
+    @Override
+    int owner(int x, int y) {
+        return (int) (entry(x, y) & OWNER_MASK) - 1;
+    }
+
+    /*
+     * Length of the owner's run ending at (x, y) along the axis, or 0 if the
+     * cell is off the board or not the owner's.
+     */
+    private int runAt(int x, int y, long owner, int axis) {
+        long entry = entry(x, y);
+        return (entry & OWNER_MASK) == owner ? run(entry, axis) : 0;
+    }
+
+    @Override
+    boolean place(int x, int y, int player) {
+        long owner = player + 1;
+        long entry = owner;
+        boolean won = false;
+        for (int axis = 0; axis < AXES.length; axis++) {
+            int dx = AXES[axis][0];
+            int dy = AXES[axis][1];
+            int before = runAt(x - dx, y - dy, owner, axis);
+            int after = runAt(x + dx, y + dy, owner, axis);
+            int run = before + 1 + after;
+            entry = withRun(entry, axis, run);
+            if (before > 0) {
+                putRun(x - dx * before, y - dy * before, axis, run);
+            }
+            if (after > 0) {
+                putRun(x + dx * after, y + dy * after, axis, run);
+            }
+            won |= run >= this.winLength;
+        }
+        insert(key(x, y), entry);
+        return won;
+    }
+
+    /*
+     * Undoes place, which is all the more work it takes. The mark's entry
+     * still has each whole run, and the run ends beside it have their part
+     * of it: a neighbour that is interior still holds its old end's length,
+     * and one that is the far end too holds the whole run, meaning 1.
+     */
+    @Override
+    void remove(int x, int y, int player) {
+        long owner = player + 1;
+        int slot = slot(key(x, y));
+        long entry = this.entries[slot];
+        for (int axis = 0; axis < AXES.length; axis++) {
+            int dx = AXES[axis][0];
+            int dy = AXES[axis][1];
+            int run = run(entry, axis);
+            int before = runAt(x - dx, y - dy, owner, axis);
+            if (before == run) {
+                before = 1;
+            }
+            int after = run - 1 - before;
+            if (before > 0) {
+                putRun(x - dx * before, y - dy * before, axis, before);
+            }
+            if (after > 0) {
+                putRun(x + dx * after, y + dy * after, axis, after);
+            }
+        }
+        delete(slot);
+    }
+
+    @Override
+    boolean isFull() {
+        return this.size == this.cells;
+    }
+
+    @Override
+    void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, 0);
+            this.size = 0;
+        }
+    }
+
+    @Override
+    SparseBoard copy() {
+        return new SparseBoard(this);
+    }
+
+}
@@ -0,0 +1,46 @@
+package me.kenzierocks.ttt;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JVM uptime and the number of classes loaded at each step of startup,
+ * recorded only with {@code -Dttt.startupReport=true}.
+ */
+final class StartupReport {
+
+    static final boolean ENABLED = Boolean.getBoolean("ttt.startupReport");
+
+    private final List<String> steps = new ArrayList<>();
+    private final List<long[]> marks = new ArrayList<>();
+
+    void mark(String step) {
+        if (!ENABLED) {
+            return;
+        }
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        ClassLoadingMXBean classLoading =
+                ManagementFactory.getClassLoadingMXBean();
+        this.steps.add(step);
+        this.marks.add(new long[] { runtime.getUptime(),
+                classLoading.getTotalLoadedClassCount() });
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%-24s %8s %8s"
+                + " %8s %8s", "step", "ms", "+ms", "classes", "+classes"));
+        for (int i = 0; i < this.steps.size(); i++) {
+            long[] mark = this.marks.get(i);
+            long[] previous = i == 0 ? new long[2] : this.marks.get(i - 1);
+            table.append(String.format("%n%-24s %8d %8d %8d %8d",
+                    this.steps.get(i), mark[0], mark[0] - previous[0], mark[1],
+                    mark[1] - previous[1]));
+        }
+        return table.toString();
+    }
+
+}
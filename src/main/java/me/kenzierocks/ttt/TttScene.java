@@ -0,0 +1,221 @@
+// Generated from ttt.fxml
+// 	 on Sun, 18 Oct 2026 13:16:40 GMT
+package me.kenzierocks.ttt;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuBar;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Separator;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+/**
+ * What {@code FXMLLoader} would build from ttt.fxml.
+ */
+public final class TttScene {
+    private TttScene() {
+    }
+
+    /**
+     * Builds the scene graph, fills in the controller's fields and initializes it.
+     */
+    public static BorderPane build(Controller controller) {
+        BorderPane rootPane = new BorderPane();
+        rootPane.setId("rootPane");
+        controller.rootPane = rootPane;
+        rootPane.getStylesheets().add(TttScene.class.getResource("/ttt.css").toExternalForm());
+        GridPane gameplayPane = new GridPane();
+        gameplayPane.setId("gameplayPane");
+        controller.gameplayPane = gameplayPane;
+        gameplayPane.setMaxHeight(1.7976931348623157E308);
+        gameplayPane.setMaxWidth(1.7976931348623157E308);
+        gameplayPane.setMinHeight(Double.NEGATIVE_INFINITY);
+        gameplayPane.setMinWidth(Double.NEGATIVE_INFINITY);
+        gameplayPane.setPrefHeight(600.0);
+        gameplayPane.setPrefWidth(800.0);
+        gameplayPane.setStyle("-fx-border-color: black;");
+        ColumnConstraints columnConstraints1 = new ColumnConstraints();
+        columnConstraints1.setHalignment(HPos.CENTER);
+        columnConstraints1.setHgrow(Priority.SOMETIMES);
+        columnConstraints1.setMinWidth(10.0);
+        columnConstraints1.setPrefWidth(100.0);
+        gameplayPane.getColumnConstraints().add(columnConstraints1);
+        ColumnConstraints columnConstraints2 = new ColumnConstraints();
+        columnConstraints2.setHalignment(HPos.CENTER);
+        columnConstraints2.setHgrow(Priority.SOMETIMES);
+        columnConstraints2.setMinWidth(10.0);
+        columnConstraints2.setPrefWidth(100.0);
+        gameplayPane.getColumnConstraints().add(columnConstraints2);
+        ColumnConstraints columnConstraints3 = new ColumnConstraints();
+        columnConstraints3.setHalignment(HPos.CENTER);
+        columnConstraints3.setHgrow(Priority.SOMETIMES);
+        columnConstraints3.setMinWidth(10.0);
+        columnConstraints3.setPrefWidth(100.0);
+        gameplayPane.getColumnConstraints().add(columnConstraints3);
+        RowConstraints rowConstraints1 = new RowConstraints();
+        rowConstraints1.setMinHeight(10.0);
+        rowConstraints1.setPrefHeight(30.0);
+        rowConstraints1.setValignment(VPos.CENTER);
+        rowConstraints1.setVgrow(Priority.SOMETIMES);
+        gameplayPane.getRowConstraints().add(rowConstraints1);
+        RowConstraints rowConstraints2 = new RowConstraints();
+        rowConstraints2.setMinHeight(10.0);
+        rowConstraints2.setPrefHeight(30.0);
+        rowConstraints2.setValignment(VPos.CENTER);
+        rowConstraints2.setVgrow(Priority.SOMETIMES);
+        gameplayPane.getRowConstraints().add(rowConstraints2);
+        RowConstraints rowConstraints3 = new RowConstraints();
+        rowConstraints3.setMinHeight(10.0);
+        rowConstraints3.setPrefHeight(30.0);
+        rowConstraints3.setValignment(VPos.CENTER);
+        rowConstraints3.setVgrow(Priority.SOMETIMES);
+        gameplayPane.getRowConstraints().add(rowConstraints3);
+        Label label1 = new Label();
+        GridPane.setColumnIndex(label1, 2);
+        GridPane.setRowIndex(label1, 2);
+        label1.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label1);
+        Label label2 = new Label();
+        GridPane.setColumnIndex(label2, 1);
+        GridPane.setRowIndex(label2, 2);
+        label2.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label2);
+        Label label3 = new Label();
+        GridPane.setRowIndex(label3, 2);
+        label3.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label3);
+        Label label4 = new Label();
+        GridPane.setColumnIndex(label4, 2);
+        GridPane.setRowIndex(label4, 1);
+        label4.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label4);
+        Label label5 = new Label();
+        GridPane.setColumnIndex(label5, 2);
+        label5.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label5);
+        Label label6 = new Label();
+        GridPane.setColumnIndex(label6, 1);
+        GridPane.setRowIndex(label6, 1);
+        label6.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label6);
+        Label label7 = new Label();
+        GridPane.setRowIndex(label7, 1);
+        label7.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label7);
+        Label label8 = new Label();
+        GridPane.setColumnIndex(label8, 1);
+        label8.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label8);
+        Label label9 = new Label();
+        label9.setFont(new Font(90.0));
+        gameplayPane.getChildren().add(label9);
+        gameplayPane.setCursor(Cursor.HAND);
+        rootPane.setCenter(gameplayPane);
+        MenuBar menuBar1 = new MenuBar();
+        BorderPane.setAlignment(menuBar1, Pos.CENTER);
+        Menu menu1 = new Menu();
+        menu1.setMnemonicParsing(false);
+        menu1.setText("File");
+        MenuItem menuItem1 = new MenuItem();
+        menuItem1.setMnemonicParsing(false);
+        menuItem1.setOnAction(event -> controller.restart());
+        menuItem1.setText("Restart");
+        menu1.getItems().add(menuItem1);
+        MenuItem menuItem2 = new MenuItem();
+        menuItem2.setMnemonicParsing(false);
+        menuItem2.setOnAction(event -> controller.reset());
+        menuItem2.setText("Reset");
+        menu1.getItems().add(menuItem2);
+        SeparatorMenuItem separatorMenuItem1 = new SeparatorMenuItem();
+        separatorMenuItem1.setMnemonicParsing(false);
+        menu1.getItems().add(separatorMenuItem1);
+        MenuItem menuItem3 = new MenuItem();
+        menuItem3.setMnemonicParsing(false);
+        menuItem3.setOnAction(event -> controller.quit());
+        menuItem3.setText("Quit");
+        menu1.getItems().add(menuItem3);
+        menuBar1.getMenus().add(menu1);
+        Menu menu2 = new Menu();
+        menu2.setMnemonicParsing(false);
+        menu2.setText("Computer");
+        CheckMenuItem computerPlaysO = new CheckMenuItem();
+        computerPlaysO.setId("computerPlaysO");
+        controller.computerPlaysO = computerPlaysO;
+        computerPlaysO.setMnemonicParsing(false);
+        computerPlaysO.setOnAction(event -> controller.computerToggled());
+        computerPlaysO.setText("Plays O");
+        menu2.getItems().add(computerPlaysO);
+        MenuItem menuItem4 = new MenuItem();
+        menuItem4.setMnemonicParsing(false);
+        menuItem4.setOnAction(event -> controller.showHint());
+        menuItem4.setText("Show Hint");
+        menu2.getItems().add(menuItem4);
+        menuBar1.getMenus().add(menu2);
+        rootPane.setTop(menuBar1);
+        VBox vBox1 = new VBox();
+        BorderPane.setAlignment(vBox1, Pos.CENTER);
+        vBox1.setAlignment(Pos.TOP_CENTER);
+        vBox1.setPrefHeight(600.0);
+        vBox1.setPrefWidth(166.0);
+        vBox1.setStyle("-fx-border-color: black;");
+        Label label10 = new Label();
+        label10.setText("Current Turn: ");
+        VBox.setMargin(label10, new Insets(5.0, 5.0, 5.0, 5.0));
+        vBox1.getChildren().add(label10);
+        Label currentPlayerLabel = new Label();
+        controller.currentPlayerLabel = currentPlayerLabel;
+        currentPlayerLabel.setId("player-label");
+        currentPlayerLabel.setFont(new Font(32.0));
+        VBox.setMargin(currentPlayerLabel, new Insets(0.0));
+        vBox1.getChildren().add(currentPlayerLabel);
+        HBox hBox1 = new HBox();
+        VBox.setVgrow(hBox1, Priority.NEVER);
+        hBox1.setAlignment(Pos.CENTER);
+        Label xScore = new Label();
+        xScore.setId("xScore");
+        controller.xScore = xScore;
+        hBox1.getChildren().add(xScore);
+        Separator separator1 = new Separator();
+        HBox.setHgrow(separator1, Priority.ALWAYS);
+        separator1.setOpacity(0.0);
+        separator1.setOrientation(Orientation.VERTICAL);
+        hBox1.getChildren().add(separator1);
+        Label oScore = new Label();
+        oScore.setId("oScore");
+        controller.oScore = oScore;
+        hBox1.getChildren().add(oScore);
+        vBox1.getChildren().add(hBox1);
+        ProgressIndicator searchProgress = new ProgressIndicator();
+        searchProgress.setId("searchProgress");
+        controller.searchProgress = searchProgress;
+        searchProgress.setPrefHeight(32.0);
+        searchProgress.setPrefWidth(32.0);
+        searchProgress.setVisible(false);
+        VBox.setMargin(searchProgress, new Insets(10.0, 0.0, 0.0, 0.0));
+        vBox1.getChildren().add(searchProgress);
+        Label searchStatus = new Label();
+        searchStatus.setId("searchStatus");
+        controller.searchStatus = searchStatus;
+        searchStatus.setWrapText(true);
+        vBox1.getChildren().add(searchStatus);
+        rootPane.setLeft(vBox1);
+        controller.initialize();
+        return rootPane;
+    }
+}
@@ -4,8 +4,8 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -17,19 +17,22 @@ import javafx.scene.control.Labeled;
 
 public class Util {
 
-    private static final Map<String, String> COLORS = new HashMap<>();
-    static {
-        COLORS.put("X", "red");
-        COLORS.put("O", "green");
-        COLORS.put("[  ]", "blue");
-    }
+    // the ttt.css classes coloring each mark
+    private static final Map<String, String> STYLE_CLASSES =
+            ImmutableMap.of("X", "mark-x", "O", "mark-o",
+                    GridBoardView.EMPTY_TEXT, "mark-empty");
 
     public static void attachColorChange(Labeled label) {
         label.textProperty().addListener((ob, oldV, newV) -> {
-            String color = COLORS.get(newV);
-            String style = "-fx-text-inner-color: " + color
-                    + "; -fx-text-fill: " + color;
-            label.setStyle(style);
+            List<String> styleClass = label.getStyleClass();
+            String oldClass = STYLE_CLASSES.get(oldV);
+            if (oldClass != null) {
+                styleClass.remove(oldClass);
+            }
+            String newClass = STYLE_CLASSES.get(newV);
+            if (newClass != null) {
+                styleClass.add(newClass);
+            }
         });
     }
 
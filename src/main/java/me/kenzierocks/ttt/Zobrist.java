@@ -0,0 +1,20 @@
+package me.kenzierocks.ttt;
+
+/**
+ * Zobrist keys for (cell, player) pairs. Keys are derived from the cell index
+ * with the splitmix64 finalizer instead of a random table, so they cost no
+ * memory on large boards and are identical across runs.
+ */
+public final class Zobrist {
+
+    public static long key(long cell, int player) {
+        long z = (cell * 2 + player + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private Zobrist() {
+    }
+
+}
@@ -0,0 +1,452 @@
+package me.kenzierocks.ttt.ai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Deterministic, deadline-bounded bot for mid-size boards.
+ *
+ * <p>
+ * Runs iterative-deepening negamax with alpha-beta pruning. Moves are ordered
+ * by the transposition table move, then two killer moves per ply, then the
+ * history heuristic. The table is keyed by {@link Game#getZobristHash()}.
+ * Leaves are scored by counting the lines of {@code winLength} cells that
+ * only one player has marks in.
+ * </p>
+ *
+ * <p>
+ * The deadline is checked every {@value #CHECK_INTERVAL} nodes, or more
+ * often on boards of over {@value #CHECK_CELLS} / {@value #CHECK_INTERVAL}
+ * cells, since every node scores and sorts the whole board. When it passes,
+ * or the searching thread is interrupted, the unfinished iteration is
+ * abandoned and the best move of the deepest finished iteration is returned,
+ * unless a fully searched move of the unfinished one already beat it. The
+ * interrupt is left set. Not thread-safe.
+ * </p>
+ */
+public final class AlphaBetaBot {
+
+    public static final class Result {
+
+        private final int x;
+        private final int y;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+
+        Result(int x, int y, int score, int depth, long nodes) {
+            this.x = x;
+            this.y = y;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        /**
+         * The score for the player to move, {@link AlphaBetaBot#WIN_SCORE}
+         * minus the number of moves for a forced win, negated for a forced
+         * loss.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * The deepest fully searched depth, 0 if not even one was finished.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("x", this.x)
+                    .add("y", this.y).add("score", this.score)
+                    .add("depth", this.depth).add("nodes", this.nodes)
+                    .toString();
+        }
+
+    }
+
+    public static final int WIN_SCORE = 1 << 30;
+    /**
+     * The largest board, in cells, that the bot will search.
+     */
+    public static final int MAX_CELLS = 4096;
+
+    private static final int DEFAULT_TABLE_BITS = 20;
+    private static final int MAX_DEPTH = 64;
+    private static final int CHECK_INTERVAL = 16;
+    // cells a node may cost between deadline checks, on big boards
+    private static final int CHECK_CELLS = 1024;
+    // anything above this is a forced win rather than a heuristic score
+    private static final int WIN_BOUND = WIN_SCORE - MAX_CELLS - 1;
+    private static final int MAX_EVAL = WIN_BOUND - 1;
+
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    private final long[] tableKeys;
+    private final long[] tableEntries;
+    private final int tableMask;
+
+    private Game root;
+    private int rows;
+    private int columns;
+    private int winLength;
+    private long deadline;
+    private long nodes;
+    private int checkInterval;
+    private boolean aborted;
+    private int[][] killers;
+    private int[] history;
+    private int[][] moves;
+    private int[][] moveScores;
+
+    public AlphaBetaBot() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Creates a bot with a transposition table of {@code 2^tableBits}
+     * entries, kept across searches.
+     */
+    public AlphaBetaBot(int tableBits) {
+        checkArgument(tableBits > 0 && tableBits < Integer.SIZE - 1,
+                "tableBits out of range: %s", tableBits);
+        this.tableKeys = new long[1 << tableBits];
+        this.tableEntries = new long[1 << tableBits];
+        this.tableMask = (1 << tableBits) - 1;
+    }
+
+    public Result search(Game game, long timeMillis) {
+        return search(game, timeMillis, null);
+    }
+
+    /**
+     * Searches like {@link #search(Game, long)}, passing the best move so far
+     * to {@code progress} after every finished iteration.
+     */
+    public Result search(Game game, long timeMillis,
+            @Nullable Consumer<Result> progress) {
+        checkState(game.getWinState() == WinState.NEUTRAL,
+                "Game is already over");
+        int cells = game.getRows() * game.getColumns();
+        checkArgument(cells <= MAX_CELLS, "Board too large, at most %s cells",
+                MAX_CELLS);
+        this.deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeMillis);
+        if (game.getRows() != this.rows || game.getColumns() != this.columns
+                || game.getWinLength() != this.winLength) {
+            // the same hash means something else on another board
+            Arrays.fill(this.tableKeys, 0);
+            Arrays.fill(this.tableEntries, 0);
+            this.rows = game.getRows();
+            this.columns = game.getColumns();
+            this.winLength = game.getWinLength();
+        }
+        this.root = game.copy();
+        this.nodes = 0;
+        this.checkInterval =
+                Math.max(1, Math.min(CHECK_INTERVAL, CHECK_CELLS / cells));
+        this.aborted = false;
+        int maxDepth = Math.min(MAX_DEPTH, cells - game.getMoveCount());
+        this.killers = new int[maxDepth + 1][2];
+        for (int[] plyKillers : this.killers) {
+            Arrays.fill(plyKillers, -1);
+        }
+        this.history = new int[cells];
+        this.moves = new int[maxDepth + 1][cells];
+        this.moveScores = new int[maxDepth + 1][cells];
+
+        // something legal to fall back on if depth 1 doesn't finish
+        int moveCount = generateMoves(this.root, 0, -1);
+        int bestCell = this.moves[0][0];
+        int bestScore = evaluate(this.root);
+        int finishedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            moveCount = generateMoves(this.root, 0, bestCell);
+            int alpha = -WIN_SCORE;
+            int iterationCell = -1;
+            for (int i = 0; i < moveCount; i++) {
+                int cell = this.moves[0][i];
+                int score = scoreMove(this.root, cell, depth, 0, alpha,
+                        WIN_SCORE);
+                if (this.aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationCell = cell;
+                }
+            }
+            if (this.aborted) {
+                /*
+                 * The old best move is searched first, so anything finished
+                 * in this iteration is at least as good as it at this depth.
+                 */
+                if (iterationCell >= 0) {
+                    bestCell = iterationCell;
+                    bestScore = alpha;
+                }
+                break;
+            }
+            bestCell = iterationCell;
+            bestScore = alpha;
+            finishedDepth = depth;
+            store(this.root.getZobristHash(), depth, EXACT, alpha, 0,
+                    bestCell);
+            if (progress != null) {
+                progress.accept(new Result(bestCell / this.columns,
+                        bestCell % this.columns, bestScore, depth,
+                        this.nodes));
+            }
+            if (Math.abs(bestScore) > WIN_BOUND) {
+                // forced result, deeper searches can't change it
+                break;
+            }
+        }
+        Result result = new Result(bestCell / this.columns,
+                bestCell % this.columns, bestScore, finishedDepth, this.nodes);
+        this.root = null;
+        this.killers = null;
+        this.history = null;
+        this.moves = null;
+        this.moveScores = null;
+        return result;
+    }
+
+    /*
+     * Plays the cell, scores it for the player making the move and takes it
+     * back.
+     */
+    private int scoreMove(Game game, int cell, int depth, int ply, int alpha,
+            int beta) {
+        WinState state =
+                game.clickAndWin(cell / this.columns, cell % this.columns);
+        int score;
+        if (state == WinState.WIN) {
+            score = WIN_SCORE - (ply + 1);
+        } else if (state == WinState.TIE) {
+            score = 0;
+        } else {
+            score = -negamax(game, depth - 1, ply + 1, -beta, -alpha);
+        }
+        game.undo();
+        return score;
+    }
+
+    private int negamax(Game game, int depth, int ply, int alpha, int beta) {
+        if (++this.nodes % this.checkInterval == 0
+                && (System.nanoTime() > this.deadline
+                        || Thread.currentThread().isInterrupted())) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+        long key = game.getZobristHash();
+        int index = index(key);
+        int tableCell = -1;
+        if (this.tableKeys[index] == key && this.tableEntries[index] != 0) {
+            long entry = this.tableEntries[index];
+            tableCell = entryCell(entry);
+            if (entryDepth(entry) >= depth) {
+                int flag = entryFlag(entry);
+                int score = fromTable(entryScore(entry), ply);
+                if (flag == EXACT || (flag == LOWER && score >= beta)
+                        || (flag == UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        if (depth == 0) {
+            return evaluate(game);
+        }
+        int originalAlpha = alpha;
+        int moveCount = generateMoves(game, ply, tableCell);
+        int best = -WIN_SCORE;
+        int bestCell = -1;
+        for (int i = 0; i < moveCount; i++) {
+            int cell = this.moves[ply][i];
+            int score = scoreMove(game, cell, depth, ply, alpha, beta);
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestCell = cell;
+                if (best > alpha) {
+                    alpha = best;
+                    if (alpha >= beta) {
+                        recordCutoff(cell, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+        int flag = best <= originalAlpha ? UPPER
+                : best >= beta ? LOWER : EXACT;
+        store(key, depth, flag, best, ply, bestCell);
+        return best;
+    }
+
+    private void recordCutoff(int cell, int depth, int ply) {
+        int[] plyKillers = this.killers[ply];
+        if (plyKillers[0] != cell) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = cell;
+        }
+        this.history[cell] += depth * depth;
+    }
+
+    /*
+     * Fills moves[ply] with the empty cells, best first, and returns how many
+     * there are.
+     */
+    private int generateMoves(Game game, int ply, int tableCell) {
+        int[] plyMoves = this.moves[ply];
+        int[] scores = this.moveScores[ply];
+        int[] plyKillers = this.killers[ply];
+        int count = 0;
+        int cells = this.rows * this.columns;
+        for (int cell = 0; cell < cells; cell++) {
+            if (game.get(cell / this.columns, cell % this.columns) != '\0') {
+                continue;
+            }
+            int score;
+            if (cell == tableCell) {
+                score = Integer.MAX_VALUE;
+            } else if (cell == plyKillers[0]) {
+                score = Integer.MAX_VALUE - 1;
+            } else if (cell == plyKillers[1]) {
+                score = Integer.MAX_VALUE - 2;
+            } else {
+                score = this.history[cell];
+            }
+            // insertion sort, boards are small enough
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                plyMoves[i] = plyMoves[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            plyMoves[i] = cell;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    /*
+     * Sums, over every line of winLength cells, 4^marks for lines only the
+     * player to move has marks in, minus the same for the opponent.
+     */
+    private int evaluate(Game game) {
+        char me = game.getCurrentPlayer();
+        long score = 0;
+        for (int x = 0; x < this.rows; x++) {
+            for (int y = 0; y < this.columns; y++) {
+                score += evaluateLine(game, me, x, y, 0, 1);
+                score += evaluateLine(game, me, x, y, 1, 0);
+                score += evaluateLine(game, me, x, y, 1, 1);
+                score += evaluateLine(game, me, x, y, 1, -1);
+            }
+        }
+        return (int) Math.max(-MAX_EVAL, Math.min(MAX_EVAL, score));
+    }
+
+    private long evaluateLine(Game game, char me, int x, int y, int dx,
+            int dy) {
+        int endX = x + dx * (this.winLength - 1);
+        int endY = y + dy * (this.winLength - 1);
+        if (endX < 0 || endX >= this.rows || endY < 0
+                || endY >= this.columns) {
+            return 0;
+        }
+        int mine = 0;
+        int theirs = 0;
+        for (int i = 0; i < this.winLength; i++) {
+            char mark = game.get(x + dx * i, y + dy * i);
+            if (mark == me) {
+                mine++;
+            } else if (mark != '\0') {
+                theirs++;
+            }
+        }
+        if (mine > 0 && theirs > 0) {
+            return 0;
+        }
+        if (mine > 0) {
+            return 1L << (2 * mine);
+        }
+        return theirs > 0 ? -(1L << (2 * theirs)) : 0;
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & this.tableMask;
+    }
+
+    /*
+     * Entries pack the score (32 bits), the cell + 1 (22 bits), the depth (8
+     * bits) and the flag (2 bits). Win scores are stored relative to the
+     * node instead of the root.
+     */
+    private void store(long key, int depth, int flag, int score, int ply,
+            int cell) {
+        int index = index(key);
+        this.tableKeys[index] = key;
+        this.tableEntries[index] = ((long) toTable(score, ply) << 32)
+                | ((long) (cell + 1) << 10) | (depth << 2) | flag;
+    }
+
+    private static int entryScore(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int entryCell(long entry) {
+        return (int) ((entry >>> 10) & 0x3FFFFF) - 1;
+    }
+
+    private static int entryDepth(long entry) {
+        return (int) ((entry >>> 2) & 0xFF);
+    }
+
+    private static int entryFlag(long entry) {
+        return (int) (entry & 0b11);
+    }
+
+    private static int toTable(int score, int ply) {
+        return score > WIN_BOUND ? score + ply
+                : score < -WIN_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score > WIN_BOUND ? score - ply
+                : score < -WIN_BOUND ? score + ply : score;
+    }
+
+}
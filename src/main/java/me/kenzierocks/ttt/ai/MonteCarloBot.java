@@ -0,0 +1,461 @@
+package me.kenzierocks.ttt.ai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Monte Carlo Tree Search bot for boards too large to solve.
+ *
+ * <p>
+ * Every worker of the pool runs playouts against one shared tree. The tree is
+ * lock-free: node statistics are updated atomically, and children are
+ * published with a single compare-and-set. A worker counts its visit on every
+ * node of its path before the playout finishes (a virtual loss), which steers
+ * the other workers towards different branches in the meantime.
+ * </p>
+ *
+ * <p>
+ * On boards with more than {@value #DENSE_CELLS} cells, only empty cells
+ * within {@value #RADIUS} of an existing mark are considered, both for tree
+ * moves and for playouts, and playouts that run longer than the move limit
+ * count as draws.
+ * </p>
+ */
+public final class MonteCarloBot {
+
+    public static final class Result {
+
+        private final int x;
+        private final int y;
+        private final long playouts;
+        private final long elapsedNanos;
+
+        Result(int x, int y, long playouts, long elapsedNanos) {
+            this.x = x;
+            this.y = y;
+            this.playouts = playouts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public long getPlayouts() {
+            return playouts;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getPlayoutsPerSecond() {
+            return this.playouts * 1e9 / Math.max(1, this.elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("x", this.x)
+                    .add("y", this.y).add("playouts", this.playouts)
+                    .add("playoutsPerSecond",
+                            String.format("%.0f", getPlayoutsPerSecond()))
+                    .toString();
+        }
+
+    }
+
+    private static final int DENSE_CELLS = 64;
+    private static final int RADIUS = 2;
+    private static final int EXPAND_AFTER = 2;
+    private static final double EXPLORATION = Math.sqrt(2);
+    // rewards are in half points so that draws stay integral
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+    private static final byte NOT_TERMINAL = 0;
+    private static final byte TERMINAL_WIN = 1;
+    private static final byte TERMINAL_TIE = 2;
+
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicLongFieldUpdater<Node> SCORE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "score");
+        private static final AtomicReferenceFieldUpdater<Node,
+                Node[]> CHILDREN = AtomicReferenceFieldUpdater
+                        .newUpdater(Node.class, Node[].class, "children");
+
+        private final int cell;
+        // the player who moved into this node
+        private final int player;
+        private volatile int visits;
+        private volatile long score;
+        private volatile Node[] children;
+        private volatile byte terminal = NOT_TERMINAL;
+
+        Node(int cell, int player) {
+            this.cell = cell;
+            this.player = player;
+        }
+
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxPlayoutMoves;
+
+    public MonteCarloBot() {
+        this(ForkJoinPool.commonPool(), 1000);
+    }
+
+    /**
+     * Creates a bot that runs one search worker per thread of the pool. Each
+     * playout stops after {@code maxPlayoutMoves} moves.
+     */
+    public MonteCarloBot(ForkJoinPool pool, int maxPlayoutMoves) {
+        checkArgument(maxPlayoutMoves > 0, "maxPlayoutMoves must be positive");
+        this.pool = pool;
+        this.maxPlayoutMoves = maxPlayoutMoves;
+    }
+
+    /**
+     * Searches until either {@code timeMillis} have passed or
+     * {@code maxPlayouts} playouts have been run, and returns the most visited
+     * move.
+     */
+    public Result search(Game game, long timeMillis, long maxPlayouts) {
+        checkState(game.getWinState() == WinState.NEUTRAL,
+                "Game is already over");
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeMillis);
+        Search search = new Search(game.copy(), deadline, maxPlayouts);
+        int workers = this.pool.getParallelism();
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            SplittableRandom random = new SplittableRandom();
+            tasks[i] = this.pool.submit(() -> search.run(random));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        Node best = null;
+        for (Node child : search.rootChildren()) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        return new Result(best.cell / game.getColumns(),
+                best.cell % game.getColumns(), search.playouts.sum(), elapsed);
+    }
+
+    /*
+     * Per-thread search state, reused across iterations. The path and the
+     * marks on the board (only tracked for sparse candidate generation) grow
+     * as needed.
+     */
+    private static final class Worker {
+
+        private final SplittableRandom random;
+        // the root position, played forward and undone back each iteration
+        private final Game game;
+        private final boolean tracksMarks;
+        private Node[] path = new Node[64];
+        private int depth;
+        private int[] marks;
+        private int markCount;
+
+        Worker(SplittableRandom random, Game game, int[] rootMarks,
+                boolean tracksMarks) {
+            this.random = random;
+            this.game = game;
+            this.tracksMarks = tracksMarks;
+            this.marks = Arrays.copyOf(rootMarks, rootMarks.length + 64);
+            this.markCount = rootMarks.length;
+        }
+
+        void push(Node node) {
+            if (this.depth == this.path.length) {
+                this.path = Arrays.copyOf(this.path, this.depth * 2);
+            }
+            this.path[this.depth++] = node;
+            // virtual loss: counted as a visit before there is any reward
+            Node.VISITS.incrementAndGet(node);
+        }
+
+        void mark(int cell) {
+            if (!this.tracksMarks) {
+                return;
+            }
+            if (this.markCount == this.marks.length) {
+                this.marks = Arrays.copyOf(this.marks, this.markCount * 2);
+            }
+            this.marks[this.markCount++] = cell;
+        }
+
+    }
+
+    private final class Search {
+
+        private final Game root;
+        private final int rows;
+        private final int columns;
+        private final boolean dense;
+        private final int[] rootMarks;
+        private final Node rootNode;
+        private final long deadline;
+        private final long maxPlayouts;
+        private final LongAdder playouts = new LongAdder();
+
+        Search(Game root, long deadline, long maxPlayouts) {
+            this.root = root;
+            this.rows = root.getRows();
+            this.columns = root.getColumns();
+            this.dense = (long) this.rows * this.columns <= DENSE_CELLS;
+            this.rootMarks = this.dense ? new int[0] : marks(root);
+            // the root is "entered" by whoever moved last
+            this.rootNode = new Node(-1, 1 - player(root.getCurrentPlayer()));
+            this.deadline = deadline;
+            this.maxPlayouts = maxPlayouts;
+        }
+
+        Node[] rootChildren() {
+            Node[] children = this.rootNode.children;
+            if (children == null) {
+                // the budget ran out before the first expansion
+                children = expand(this.rootNode, this.root,
+                        new Worker(new SplittableRandom(), this.root,
+                                this.rootMarks, !this.dense));
+            }
+            return children;
+        }
+
+        void run(SplittableRandom random) {
+            Worker worker = new Worker(random, this.root.copy(),
+                    this.rootMarks, !this.dense);
+            // may overshoot maxPlayouts by up to one playout per worker
+            while (System.nanoTime() < this.deadline
+                    && this.playouts.sum() < this.maxPlayouts) {
+                iterate(worker);
+                this.playouts.increment();
+            }
+        }
+
+        private void iterate(Worker worker) {
+            Game game = worker.game;
+            worker.markCount = this.rootMarks.length;
+            worker.depth = 0;
+            Node node = this.rootNode;
+            worker.push(node);
+            int winner;
+            while (true) {
+                if (node.terminal != NOT_TERMINAL) {
+                    winner = node.terminal == TERMINAL_WIN ? node.player : -1;
+                    break;
+                }
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.visits < EXPAND_AFTER) {
+                        winner = playout(game, worker);
+                        break;
+                    }
+                    children = expand(node, game, worker);
+                }
+                node = select(children, node.visits);
+                worker.push(node);
+                WinState state = game.clickAndWin(node.cell / this.columns,
+                        node.cell % this.columns);
+                worker.mark(node.cell);
+                if (state == WinState.WIN) {
+                    node.terminal = TERMINAL_WIN;
+                } else if (state == WinState.TIE) {
+                    node.terminal = TERMINAL_TIE;
+                }
+            }
+            game.undoTo(this.root.getMoveCount());
+            for (int i = 0; i < worker.depth; i++) {
+                Node visited = worker.path[i];
+                int reward =
+                        winner < 0 ? DRAW : winner == visited.player ? WIN : 0;
+                if (reward != 0) {
+                    Node.SCORE.addAndGet(visited, reward);
+                }
+            }
+        }
+
+        private Node select(Node[] children, int parentVisits) {
+            double logParent = Math.log(Math.max(1, parentVisits));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double value = child.score / (2.0 * visits)
+                        + EXPLORATION * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private Node[] expand(Node node, Game game, Worker worker) {
+            int[] cells = candidates(game, worker.marks, worker.markCount);
+            int player = 1 - node.player;
+            Node[] children = new Node[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                children[i] = new Node(cells[i], player);
+            }
+            if (Node.CHILDREN.compareAndSet(node, null, children)) {
+                return children;
+            }
+            // someone else expanded it first
+            return node.children;
+        }
+
+        private int[] candidates(Game game, int[] marks, int markCount) {
+            if (this.dense) {
+                return candidatesDense(game);
+            }
+            if (markCount == 0) {
+                return new int[] { (this.rows / 2) * this.columns
+                        + this.columns / 2 };
+            }
+            int side = 2 * RADIUS + 1;
+            int[] cells = new int[markCount * side * side];
+            int count = 0;
+            for (int i = 0; i < markCount; i++) {
+                int mx = marks[i] / this.columns;
+                int my = marks[i] % this.columns;
+                for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                    for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+                        int x = mx + dx;
+                        int y = my + dy;
+                        if (x >= 0 && x < this.rows && y >= 0
+                                && y < this.columns
+                                && game.get(x, y) == '\0') {
+                            cells[count++] = x * this.columns + y;
+                        }
+                    }
+                }
+            }
+            if (count == 0) {
+                // everything near the marks is taken, fall back to the board
+                return candidatesDense(game);
+            }
+            return Arrays.stream(cells, 0, count).sorted().distinct()
+                    .toArray();
+        }
+
+        private int[] candidatesDense(Game game) {
+            int[] cells = new int[this.rows * this.columns];
+            int count = 0;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (isEmpty(game, cell)) {
+                    cells[count++] = cell;
+                }
+            }
+            return Arrays.copyOf(cells, count);
+        }
+
+        private boolean isEmpty(Game game, int cell) {
+            return game.get(cell / this.columns, cell % this.columns) == '\0';
+        }
+
+        /*
+         * Plays random moves until the game ends, returning the winning
+         * player or -1 for a draw.
+         */
+        private int playout(Game game, Worker worker) {
+            int cells = this.rows * this.columns;
+            for (int move = 0; move < MonteCarloBot.this.maxPlayoutMoves;
+                    move++) {
+                int cell = randomCell(game, worker, cells);
+                if (cell < 0) {
+                    return -1;
+                }
+                WinState state = game.clickAndWin(cell / this.columns,
+                        cell % this.columns);
+                if (state == WinState.WIN) {
+                    return player(game.getCurrentPlayer());
+                }
+                if (state == WinState.TIE) {
+                    return -1;
+                }
+                worker.mark(cell);
+            }
+            return -1;
+        }
+
+        private int randomCell(Game game, Worker worker, int cells) {
+            SplittableRandom random = worker.random;
+            int[] marks = worker.marks;
+            int markCount = worker.markCount;
+            if (!this.dense && markCount > 0) {
+                int side = 2 * RADIUS + 1;
+                for (int attempt = 0; attempt < side * side; attempt++) {
+                    int mark = marks[random.nextInt(markCount)];
+                    int x = mark / this.columns + random.nextInt(side)
+                            - RADIUS;
+                    int y = mark % this.columns + random.nextInt(side)
+                            - RADIUS;
+                    if (x >= 0 && x < this.rows && y >= 0 && y < this.columns
+                            && game.get(x, y) == '\0') {
+                        return x * this.columns + y;
+                    }
+                }
+            }
+            // uniform over the board, scanning if the guesses keep missing
+            int start = random.nextInt(cells);
+            for (int i = 0; i < cells; i++) {
+                int cell = (start + i) % cells;
+                if (isEmpty(game, cell)) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+    private static int[] marks(Game game) {
+        int rows = game.getRows();
+        int columns = game.getColumns();
+        int[] marks = new int[game.getMoveCount()];
+        int count = 0;
+        for (int x = 0; x < rows && count < marks.length; x++) {
+            for (int y = 0; y < columns && count < marks.length; y++) {
+                if (game.get(x, y) != '\0') {
+                    marks[count++] = x * columns + y;
+                }
+            }
+        }
+        return marks;
+    }
+
+    private static int player(char mark) {
+        return mark == 'X' ? 0 : 1;
+    }
+
+}
@@ -0,0 +1,8 @@
+package me.kenzierocks.ttt.ai;
+
+/**
+ * The game-theoretic value of a position for the player to move.
+ */
+public enum Outcome {
+    WIN, DRAW, LOSS;
+}
@@ -0,0 +1,51 @@
+package me.kenzierocks.ttt.ai;
+
+import com.google.common.base.MoreObjects;
+
+public final class Solution {
+
+    private final Outcome outcome;
+    private final int distance;
+    private final int x;
+    private final int y;
+
+    Solution(Outcome outcome, int distance, int x, int y) {
+        this.outcome = outcome;
+        this.distance = distance;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * The outcome for the player to move, assuming perfect play from both
+     * sides.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * The number of moves, including the best move, until the game ends under
+     * perfect play. The winner plays for the fastest win and the loser for
+     * the slowest loss.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("outcome", this.outcome)
+                .add("distance", this.distance).add("x", this.x)
+                .add("y", this.y).toString();
+    }
+
+}
@@ -0,0 +1,254 @@
+package me.kenzierocks.ttt.ai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+import me.kenzierocks.ttt.Zobrist;
+
+/**
+ * Perfect-play solver using negamax with alpha-beta pruning.
+ *
+ * <p>
+ * Positions are stored in a transposition table under a canonical hash, the
+ * smallest of the position's hashes under every symmetry of the board (8 for
+ * square boards, 4 otherwise). The hashes for all symmetries are carried down
+ * the search and updated with one XOR each per move. The table lives as long
+ * as the solver and is cleared whenever the win length changes, so repeated
+ * queries on the same board and win length are mostly lookups. Exhaustive
+ * search is only practical for small boards.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe; use one solver per thread.
+ * </p>
+ */
+public final class Solver {
+
+    private static final int DEFAULT_TABLE_BITS = 16;
+
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    // a win in d moves scores maxScore - d, which never reaches 0
+    private final int maxScore;
+    private final int[][] symmetries;
+    private final int[] moveOrder;
+    // one row of symmetry hashes per ply
+    private final long[][] hashes;
+    private final long[] tableKeys;
+    private final int[] tableValues;
+    private final int tableMask;
+    // what the table's entries were solved for
+    private int winLength;
+
+    public Solver(int rows, int columns) {
+        this(rows, columns, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Creates a solver for the given board size with a transposition table of
+     * {@code 2^tableBits} entries.
+     */
+    public Solver(int rows, int columns, int tableBits) {
+        checkArgument(rows > 0 && columns > 0, "Board must be at least 1x1");
+        checkArgument(tableBits > 0 && tableBits < Integer.SIZE - 1,
+                "tableBits out of range: %s", tableBits);
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.maxScore = this.cells + 2;
+        this.symmetries = symmetries(rows, columns);
+        this.moveOrder = centerFirst(rows, columns);
+        this.hashes = new long[this.cells + 1][this.symmetries.length];
+        this.tableKeys = new long[1 << tableBits];
+        this.tableValues = new int[1 << tableBits];
+        this.tableMask = (1 << tableBits) - 1;
+    }
+
+    /*
+     * Cell permutations for each symmetry. Rotations by 90 degrees only keep
+     * the board shape for square boards.
+     */
+    private static int[][] symmetries(int rows, int columns) {
+        boolean square = rows == columns;
+        int[][] syms = new int[square ? 8 : 4][rows * columns];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                int cell = x * columns + y;
+                int fx = rows - 1 - x;
+                int fy = columns - 1 - y;
+                syms[0][cell] = cell;
+                syms[1][cell] = fx * columns + y;
+                syms[2][cell] = x * columns + fy;
+                syms[3][cell] = fx * columns + fy;
+                if (square) {
+                    syms[4][cell] = y * columns + x;
+                    syms[5][cell] = fy * columns + x;
+                    syms[6][cell] = y * columns + fx;
+                    syms[7][cell] = fy * columns + fx;
+                }
+            }
+        }
+        return syms;
+    }
+
+    private static int[] centerFirst(int rows, int columns) {
+        // doubled coordinates keep the center exact on even sizes
+        return IntStream.range(0, rows * columns).boxed()
+                .sorted(Comparator.comparingInt(cell -> {
+                    int dx = 2 * (cell / columns) - (rows - 1);
+                    int dy = 2 * (cell % columns) - (columns - 1);
+                    return dx * dx + dy * dy;
+                })).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int player(char mark) {
+        return mark == 'X' ? 0 : 1;
+    }
+
+    public Solution solve(Game game) {
+        checkArgument(
+                game.getRows() == this.rows
+                        && game.getColumns() == this.columns,
+                "Solver is for %sx%s boards", this.rows, this.columns);
+        checkState(game.getWinState() == WinState.NEUTRAL,
+                "Game is already over");
+        if (game.getWinLength() != this.winLength) {
+            // the hashes only cover the marks, not the rules they score by
+            Arrays.fill(this.tableKeys, 0);
+            Arrays.fill(this.tableValues, 0);
+            this.winLength = game.getWinLength();
+        }
+        long[] rootHashes = this.hashes[0];
+        Arrays.fill(rootHashes, 0);
+        for (int cell = 0; cell < this.cells; cell++) {
+            char mark = game.get(cell / this.columns, cell % this.columns);
+            if (mark != '\0') {
+                hashMove(rootHashes, rootHashes, cell, player(mark));
+            }
+        }
+        int player = player(game.getCurrentPlayer());
+        int best = -this.maxScore;
+        int bestCell = -1;
+        // searched by making and unmaking moves, leave the caller's alone
+        Game root = game.copy();
+        for (int cell : this.moveOrder) {
+            int score = scoreMove(root, 0, player, cell, best, this.maxScore);
+            if (score == Integer.MIN_VALUE) {
+                continue;
+            }
+            if (score > best || bestCell < 0) {
+                best = score;
+                bestCell = cell;
+            }
+        }
+        Outcome outcome;
+        int distance;
+        if (best > 0) {
+            outcome = Outcome.WIN;
+            distance = this.maxScore - best;
+        } else if (best < 0) {
+            outcome = Outcome.LOSS;
+            distance = this.maxScore + best;
+        } else {
+            // draws only end on a full board
+            outcome = Outcome.DRAW;
+            distance = this.cells - game.getMoveCount();
+        }
+        return new Solution(outcome, distance, bestCell / this.columns,
+                bestCell % this.columns);
+    }
+
+    private void hashMove(long[] from, long[] to, int cell, int player) {
+        for (int s = 0; s < this.symmetries.length; s++) {
+            to[s] = from[s] ^ Zobrist.key(this.symmetries[s][cell], player);
+        }
+    }
+
+    /*
+     * Plays the cell, scores it for the player making the move and takes it
+     * back, or returns Integer.MIN_VALUE if the cell is taken.
+     */
+    private int scoreMove(Game game, int ply, int player, int cell, int alpha,
+            int beta) {
+        int x = cell / this.columns;
+        int y = cell % this.columns;
+        if (game.get(x, y) != '\0') {
+            return Integer.MIN_VALUE;
+        }
+        WinState state = game.clickAndWin(x, y);
+        if (state == WinState.WIN) {
+            game.undo();
+            return this.maxScore - 1;
+        }
+        if (state == WinState.TIE) {
+            game.undo();
+            return 0;
+        }
+        hashMove(this.hashes[ply], this.hashes[ply + 1], cell, player);
+        /*
+         * The child's score is one move further from the end than ours, which
+         * can move it by one across the window, so widen the window by one.
+         */
+        int childScore = negamax(game, ply + 1, 1 - player, -beta - 1,
+                -alpha + 1);
+        game.undo();
+        int score = -childScore;
+        return score > 0 ? score - 1 : score < 0 ? score + 1 : 0;
+    }
+
+    private int negamax(Game game, int ply, int player, int alpha, int beta) {
+        long key = canonicalKey(this.hashes[ply]);
+        int index = (int) (key ^ (key >>> 32)) & this.tableMask;
+        if (this.tableKeys[index] == key && this.tableValues[index] != 0) {
+            int entry = this.tableValues[index];
+            int flag = entry & 0b11;
+            int score = entry >> 2;
+            if (flag == EXACT || (flag == LOWER && score >= beta)
+                    || (flag == UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        int originalAlpha = alpha;
+        int best = -this.maxScore;
+        for (int cell : this.moveOrder) {
+            int score = scoreMove(game, ply, player, cell, alpha, beta);
+            if (score > best) {
+                best = score;
+                if (best > alpha) {
+                    alpha = best;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        int flag = best <= originalAlpha ? UPPER
+                : best >= beta ? LOWER : EXACT;
+        this.tableKeys[index] = key;
+        this.tableValues[index] = (best << 2) | flag;
+        return best;
+    }
+
+    private static long canonicalKey(long[] symmetryHashes) {
+        long min = symmetryHashes[0];
+        for (int s = 1; s < symmetryHashes.length; s++) {
+            // unsigned so the choice doesn't depend on the sign bit
+            if (Long.compareUnsigned(symmetryHashes[s], min) < 0) {
+                min = symmetryHashes[s];
+            }
+        }
+        return min;
+    }
+
+}
@@ -0,0 +1,157 @@
+package me.kenzierocks.ttt.ai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Precomputed perfect play for every reachable classic 3x3 position, read
+ * from a memory-mapped file generated by {@link TablebaseGenerator}.
+ *
+ * <p>
+ * Positions are indexed by their base-3 encoding (0 empty, 1 X, 2 O, cell
+ * {@code (x, y)} as digit {@code x * 3 + y}). After a 4 byte header, each
+ * entry is a {@code short}: a present bit, the {@link Outcome} ordinal, the
+ * distance and the best cell, from high to low bits. Entries for unreachable
+ * and finished positions are 0.
+ * </p>
+ */
+public final class Tablebase {
+
+    static final int MAGIC = 0x54_54_54_42; // TTTB
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int SIZE = Game.CLASSIC_SIZE;
+    static final int CELLS = SIZE * SIZE;
+    static final int POSITIONS = 19683; // 3^9
+    static final String RESOURCE = "classic.tablebase";
+
+    private static final int PRESENT = 1 << 15;
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private static final class Classic {
+
+        private static final Tablebase INSTANCE = loadClassic();
+
+    }
+
+    /**
+     * Returns the tablebase shipped with the game. It is mapped on first use.
+     */
+    public static Tablebase classic() {
+        return Classic.INSTANCE;
+    }
+
+    private static Tablebase loadClassic() {
+        URL resource = Tablebase.class.getResource(RESOURCE);
+        if (resource == null) {
+            throw new IllegalStateException("Missing tablebase " + RESOURCE);
+        }
+        try {
+            Path file;
+            if ("file".equals(resource.getProtocol())) {
+                file = Paths.get(resource.toURI());
+            } else {
+                // can't map inside a jar, so map a copy
+                file = Files.createTempFile("ttt", ".tablebase");
+                file.toFile().deleteOnExit();
+                try (InputStream stream = resource.openStream()) {
+                    Files.copy(stream, file,
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel =
+                FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            if (buffer.capacity() != HEADER_SIZE + POSITIONS * Short.BYTES
+                    || buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a tablebase");
+            }
+            return new Tablebase(buffer);
+        }
+    }
+
+    static int index(Game game) {
+        int index = 0;
+        for (int cell = CELLS - 1; cell >= 0; cell--) {
+            char mark = game.get(cell / SIZE, cell % SIZE);
+            index = index * 3 + (mark == 'X' ? 1 : mark == 'O' ? 2 : 0);
+        }
+        return index;
+    }
+
+    static short pack(Solution solution) {
+        return (short) (PRESENT | solution.getOutcome().ordinal() << 12
+                | solution.getDistance() << 4
+                | (solution.getX() * SIZE + solution.getY()));
+    }
+
+    private final ByteBuffer table;
+
+    private Tablebase(ByteBuffer table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the perfect-play solution for the position, or {@code null} if
+     * the game is already over.
+     */
+    @Nullable
+    public Solution lookup(Game game) {
+        int entry = entry(game);
+        if (entry == 0) {
+            return null;
+        }
+        int cell = entry & 0xF;
+        return new Solution(OUTCOMES[(entry >>> 12) & 0b11],
+                (entry >>> 4) & 0xFF, cell / SIZE, cell % SIZE);
+    }
+
+    /**
+     * Returns the best cell, as {@code x * 3 + y}, or -1 if the game is
+     * already over. Unlike {@link #lookup(Game)}, this doesn't allocate.
+     */
+    public int bestCell(Game game) {
+        int entry = entry(game);
+        return entry == 0 ? -1 : entry & 0xF;
+    }
+
+    private int entry(Game game) {
+        checkArgument(
+                game.getRows() == SIZE && game.getColumns() == SIZE
+                        && game.getWinLength() == SIZE,
+                "Tablebase only covers the classic game");
+        if (game.getWinState() != WinState.NEUTRAL) {
+            return 0;
+        }
+        int offset = HEADER_SIZE + index(game) * Short.BYTES;
+        int entry = this.table.getShort(offset) & 0xFFFF;
+        return (entry & PRESENT) == 0 ? 0 : entry;
+    }
+
+}
@@ -0,0 +1,59 @@
+package me.kenzierocks.ttt.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Writes the {@link Tablebase} resource by solving every position reachable
+ * from the empty classic board.
+ */
+public final class TablebaseGenerator {
+
+    private static final Path TARGET = Paths
+            .get("src/main/resources/me/kenzierocks/ttt/ai")
+            .resolve(Tablebase.RESOURCE);
+
+    public static void main(String[] args) throws IOException {
+        ByteBuffer table = ByteBuffer.allocate(
+                Tablebase.HEADER_SIZE + Tablebase.POSITIONS * Short.BYTES);
+        table.putInt(0, Tablebase.MAGIC);
+        BitSet visited = new BitSet(Tablebase.POSITIONS);
+        Solver solver = new Solver(Tablebase.SIZE, Tablebase.SIZE);
+        fill(new Game(), solver, visited, table);
+        Files.createDirectories(TARGET.getParent());
+        Files.write(TARGET, table.array());
+        System.err.println("Wrote " + visited.cardinality()
+                + " positions to " + TARGET);
+    }
+
+    private static void fill(Game game, Solver solver, BitSet visited,
+            ByteBuffer table) {
+        int index = Tablebase.index(game);
+        if (visited.get(index)) {
+            return;
+        }
+        visited.set(index);
+        if (game.getWinState() != WinState.NEUTRAL) {
+            return;
+        }
+        table.putShort(Tablebase.HEADER_SIZE + index * Short.BYTES,
+                Tablebase.pack(solver.solve(game)));
+        for (int x = 0; x < Tablebase.SIZE; x++) {
+            for (int y = 0; y < Tablebase.SIZE; y++) {
+                if (game.get(x, y) == '\0') {
+                    game.clickAndWin(x, y);
+                    fill(game, solver, visited, table);
+                    game.undo();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package me.kenzierocks.ttt.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Layout of journal segments. A segment is a header followed by fixed-size
+ * records, zero-filled past the last one. Records never straddle a page, and
+ * one that fails its checksum was torn by a crash and ends the segment.
+ *
+ * <pre>
+ * 0  long  game id
+ * 8  int   seq, the move number (0 for START)
+ * 12 int   x (START: rows)
+ * 16 int   y (START: columns)
+ * 20 byte  kind
+ * 21 byte  resulting WinState ordinal
+ * 24 int   START: win length
+ * 28 int   checksum of the above
+ * </pre>
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x54544A31; // TTJ1
+    static final int RECORD_SIZE = 32;
+    static final int HEADER_SIZE = RECORD_SIZE;
+
+    static final byte KIND_START = 1;
+    static final byte KIND_MOVE = 2;
+    static final byte KIND_ABANDON = 3;
+
+    static final int GAME_ID = 0;
+    static final int SEQ = 8;
+    static final int X = 12;
+    static final int Y = 16;
+    static final int KIND = 20;
+    static final int STATE = 21;
+    static final int AUX = 24;
+    static final int CHECKSUM = 28;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    static int checksum(long gameId, int seq, int x, int y, byte kind,
+            byte state, int aux) {
+        long hash = gameId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ ((long) seq << 32 | x & 0xFFFFFFFFL))
+                * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ ((long) y << 32 | (kind & 0xFF) << 8 | state & 0xFF))
+                * 0x165667B19E3779F9L;
+        hash = (hash ^ aux) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    /**
+     * Returns whether a complete record starts at the offset.
+     */
+    static boolean isRecord(ByteBuffer segment, int offset) {
+        if (offset + RECORD_SIZE > segment.limit()) {
+            return false;
+        }
+        byte kind = segment.get(offset + KIND);
+        if (kind < KIND_START || kind > KIND_ABANDON) {
+            return false;
+        }
+        return segment.getInt(offset + CHECKSUM) == checksum(
+                segment.getLong(offset + GAME_ID),
+                segment.getInt(offset + SEQ), segment.getInt(offset + X),
+                segment.getInt(offset + Y), kind,
+                segment.get(offset + STATE), segment.getInt(offset + AUX));
+    }
+
+    static void checkHeader(ByteBuffer segment, Path path) throws IOException {
+        if (segment.limit() < HEADER_SIZE || segment.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a journal segment");
+        }
+    }
+
+    static String segmentName(String stream, long index) {
+        return String.format(Locale.ROOT, "%s-%08d%s", stream, index,
+                SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the stream of a segment file name, or {@code null} if it isn't
+     * one.
+     */
+    static String streamOf(Path segment) {
+        String name = segment.getFileName().toString();
+        int dash = name.lastIndexOf('-');
+        int end = name.length() - SEGMENT_SUFFIX.length();
+        if (dash <= 0 || dash + 1 >= end || !name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        for (int i = dash + 1; i < end; i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return null;
+            }
+        }
+        return name.substring(0, dash);
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('-') + 1,
+                name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Lists the segments of one stream, or of every stream if it's
+     * {@code null}, in stream then index order.
+     */
+    static List<Path> segments(Path directory, String stream)
+            throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files =
+                Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String fileStream = streamOf(file);
+                if (fileStream != null
+                        && (stream == null || stream.equals(fileStream))) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparing(JournalFormat::streamOf)
+                .thenComparingLong(JournalFormat::indexOf));
+        return segments;
+    }
+
+    private JournalFormat() {
+    }
+
+}
@@ -0,0 +1,329 @@
+package me.kenzierocks.ttt.journal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Reads a journal directory back, rebuilding the games that never finished.
+ * Every segment is parsed in parallel, then each stream's games are stitched
+ * together in segment order and the unfinished ones replayed in parallel.
+ */
+public final class JournalReplay {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(JournalReplay.class);
+
+    /**
+     * A game that was still being played when its journal stopped.
+     */
+    public static final class ActiveGame {
+
+        private final String stream;
+        private final long gameId;
+        private final Game game;
+
+        private ActiveGame(String stream, long gameId, Game game) {
+            this.stream = stream;
+            this.gameId = gameId;
+            this.game = game;
+        }
+
+        public String getStream() {
+            return stream;
+        }
+
+        public long getGameId() {
+            return gameId;
+        }
+
+        public Game getGame() {
+            return game;
+        }
+
+    }
+
+    public static JournalReplay replay(Path directory, ForkJoinPool pool)
+            throws IOException {
+        List<Path> segments = JournalFormat.segments(directory, null);
+        List<ForkJoinTask<Map<Long, GameLog>>> parsing = new ArrayList<>();
+        for (Path segment : segments) {
+            parsing.add(pool.submit(() -> read(segment)));
+        }
+        Map<String, Map<Long, GameLog>> streams = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Map<Long, GameLog> games = streams.computeIfAbsent(
+                    JournalFormat.streamOf(segments.get(i)),
+                    k -> new HashMap<>());
+            for (GameLog part : get(parsing.get(i)).values()) {
+                GameLog game = games.putIfAbsent(part.gameId, part);
+                if (game != null) {
+                    game.append(part);
+                }
+            }
+        }
+        JournalReplay replay = new JournalReplay(segments.size());
+        List<ForkJoinTask<ActiveGame>> rebuilding = new ArrayList<>();
+        streams.forEach((stream, games) -> {
+            for (GameLog game : games.values()) {
+                replay.records += game.records;
+                if (game.broken || !game.started) {
+                    replay.brokenGames++;
+                } else if (game.ended) {
+                    replay.finishedGames++;
+                } else {
+                    rebuilding.add(pool.submit(() -> game.rebuild(stream)));
+                }
+            }
+        });
+        ImmutableList.Builder<ActiveGame> active = ImmutableList.builder();
+        for (ForkJoinTask<ActiveGame> task : rebuilding) {
+            ActiveGame game = get(task);
+            if (game == null) {
+                replay.brokenGames++;
+            } else {
+                active.add(game);
+            }
+        }
+        replay.activeGames = active.build();
+        return replay;
+    }
+
+    private static <T> T get(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during replay");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel =
+                FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            JournalFormat.checkHeader(mapped, segment);
+            return mapped;
+        }
+    }
+
+    private static Map<Long, GameLog> read(Path segment) throws IOException {
+        ByteBuffer mapped = map(segment);
+        Map<Long, GameLog> games = new HashMap<>();
+        int offset = JournalFormat.HEADER_SIZE;
+        while (JournalFormat.isRecord(mapped, offset)) {
+            long gameId = mapped.getLong(offset + JournalFormat.GAME_ID);
+            games.computeIfAbsent(gameId, GameLog::new).add(mapped, offset);
+            offset += JournalFormat.RECORD_SIZE;
+        }
+        return games;
+    }
+
+    /**
+     * Returns the id of the last game started in the segment, or -1 if none
+     * was.
+     */
+    static long lastStartedGame(Path segment) throws IOException {
+        ByteBuffer mapped = map(segment);
+        long last = -1;
+        int offset = JournalFormat.HEADER_SIZE;
+        while (JournalFormat.isRecord(mapped, offset)) {
+            if (mapped.get(offset + JournalFormat.KIND)
+                    == JournalFormat.KIND_START) {
+                last = mapped.getLong(offset + JournalFormat.GAME_ID);
+            }
+            offset += JournalFormat.RECORD_SIZE;
+        }
+        return last;
+    }
+
+    /*
+     * The records of one game, from one segment or stitched from several.
+     */
+    private static final class GameLog {
+
+        private final long gameId;
+        private boolean started;
+        private int rows;
+        private int columns;
+        private int winLength;
+        // seq of the first move here, and of the next one expected
+        private int firstSeq = -1;
+        private int nextSeq = -1;
+        // x, y of each move, and the state it was journaled with
+        private int[] moves = new int[16];
+        private byte[] results = new byte[8];
+        private int moveCount;
+        private boolean ended;
+        private boolean broken;
+        private long records;
+
+        private GameLog(long gameId) {
+            this.gameId = gameId;
+        }
+
+        private void add(ByteBuffer segment, int offset) {
+            this.records++;
+            int seq = segment.getInt(offset + JournalFormat.SEQ);
+            switch (segment.get(offset + JournalFormat.KIND)) {
+                case JournalFormat.KIND_START:
+                    if (this.started || this.records > 1) {
+                        this.broken = true;
+                    }
+                    this.started = true;
+                    this.rows = segment.getInt(offset + JournalFormat.X);
+                    this.columns = segment.getInt(offset + JournalFormat.Y);
+                    this.winLength =
+                            segment.getInt(offset + JournalFormat.AUX);
+                    this.firstSeq = 1;
+                    this.nextSeq = 1;
+                    break;
+                case JournalFormat.KIND_MOVE:
+                    checkSeq(seq);
+                    addMove(segment.getInt(offset + JournalFormat.X),
+                            segment.getInt(offset + JournalFormat.Y),
+                            segment.get(offset + JournalFormat.STATE));
+                    break;
+                case JournalFormat.KIND_ABANDON:
+                    checkSeq(seq);
+                    this.ended = true;
+                    break;
+                default:
+                    this.broken = true;
+            }
+        }
+
+        private void checkSeq(int seq) {
+            if (this.nextSeq < 0) {
+                // continued from an earlier segment
+                this.firstSeq = seq;
+            } else if (seq != this.nextSeq || this.ended) {
+                this.broken = true;
+            }
+            this.nextSeq = seq + 1;
+        }
+
+        private void addMove(int x, int y, byte result) {
+            if (2 * this.moveCount == this.moves.length) {
+                this.moves = Arrays.copyOf(this.moves, 2 * this.moves.length);
+                this.results =
+                        Arrays.copyOf(this.results, 2 * this.results.length);
+            }
+            this.moves[2 * this.moveCount] = x;
+            this.moves[2 * this.moveCount + 1] = y;
+            this.results[this.moveCount++] = result;
+            if (result != WinState.NEUTRAL.ordinal()) {
+                this.ended = true;
+            }
+        }
+
+        /*
+         * Adds the records of the same game from a later segment.
+         */
+        private void append(GameLog later) {
+            this.records += later.records;
+            if (later.started || later.firstSeq != this.nextSeq
+                    || this.ended) {
+                this.broken = true;
+                return;
+            }
+            for (int i = 0; i < later.moveCount; i++) {
+                addMove(later.moves[2 * i], later.moves[2 * i + 1],
+                        later.results[i]);
+            }
+            this.nextSeq = later.nextSeq;
+            this.ended |= later.ended;
+            this.broken |= later.broken;
+        }
+
+        /*
+         * Returns null if the moves don't replay to what was journaled.
+         */
+        private ActiveGame rebuild(String stream) {
+            Game game;
+            try {
+                game = new Game(this.rows, this.columns, this.winLength);
+                for (int i = 0; i < this.moveCount; i++) {
+                    WinState result = game.clickAndWin(this.moves[2 * i],
+                            this.moves[2 * i + 1]);
+                    if (result.ordinal() != this.results[i]
+                            || game.getMoveCount() != i + 1) {
+                        LOGGER.warn("Game {} of {} diverges at move {}",
+                                this.gameId, stream, i + 1);
+                        return null;
+                    }
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                LOGGER.warn("Game {} of {} can't be replayed", this.gameId,
+                        stream, e);
+                return null;
+            }
+            return new ActiveGame(stream, this.gameId, game);
+        }
+
+    }
+
+    private final int segments;
+    private long records;
+    private int finishedGames;
+    private int brokenGames;
+    private List<ActiveGame> activeGames;
+
+    private JournalReplay(int segments) {
+        this.segments = segments;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public int getFinishedGames() {
+        return finishedGames;
+    }
+
+    /**
+     * Returns the number of games whose records were missing or
+     * inconsistent, which are left out.
+     */
+    public int getBrokenGames() {
+        return brokenGames;
+    }
+
+    /**
+     * Returns the unfinished games, replayed to where they stopped.
+     */
+    public List<ActiveGame> getActiveGames() {
+        return activeGames;
+    }
+
+}
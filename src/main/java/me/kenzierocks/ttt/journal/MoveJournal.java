@@ -0,0 +1,200 @@
+package me.kenzierocks.ttt.journal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Appends the moves of hosted games to one stream of a journal directory, a
+ * series of memory-mapped segment files. Appending is a handful of puts into
+ * the mapping, with nothing allocated until a segment fills up, and the OS
+ * writes the pages back even if the process dies. Only a machine crash can
+ * lose records that weren't {@link #force() forced}.
+ *
+ * <p>
+ * A stream has a single writer and is not thread-safe, so each event loop or
+ * shard journals to a stream of its own. {@link JournalReplay} reads all of
+ * them back.
+ * </p>
+ */
+public final class MoveJournal implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /**
+     * Opens a stream for appending, continuing after its last intact record.
+     *
+     * @param segmentSize bytes per segment file, a multiple of 4096
+     * @param groupCommit records between each {@link #force()}, or 0 to leave
+     *        it to the OS
+     */
+    public static MoveJournal open(Path directory, String stream,
+            long segmentSize, int groupCommit) throws IOException {
+        checkArgument(segmentSize >= 4096 && segmentSize % 4096 == 0
+                && segmentSize <= Integer.MAX_VALUE,
+                "segmentSize must be a multiple of 4096: %s", segmentSize);
+        checkArgument(groupCommit >= 0, "groupCommit must not be negative");
+        checkArgument(stream.matches("[\\w.-]+"), "Bad stream name %s",
+                stream);
+        Files.createDirectories(directory);
+        MoveJournal journal =
+                new MoveJournal(directory, stream, segmentSize, groupCommit);
+        journal.recover(JournalFormat.segments(directory, stream));
+        return journal;
+    }
+
+    private final Path directory;
+    private final String stream;
+    private final long segmentSize;
+    private final int groupCommit;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int position;
+    private long nextGameId;
+    private int unforced;
+
+    private MoveJournal(Path directory, String stream, long segmentSize,
+            int groupCommit) {
+        this.directory = directory;
+        this.stream = stream;
+        this.segmentSize = segmentSize;
+        this.groupCommit = groupCommit;
+    }
+
+    private void recover(List<Path> segments) throws IOException {
+        if (segments.isEmpty()) {
+            mapSegment(0);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        this.segmentIndex = JournalFormat.indexOf(last);
+        this.segment = map(last, Math.max(this.segmentSize, Files.size(last)));
+        JournalFormat.checkHeader(this.segment, last);
+        int offset = JournalFormat.HEADER_SIZE;
+        while (JournalFormat.isRecord(this.segment, offset)) {
+            offset += JournalFormat.RECORD_SIZE;
+        }
+        this.position = offset;
+        // game ids only grow, so the newest START has the highest
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            long lastId = JournalReplay.lastStartedGame(segments.get(i));
+            if (lastId >= 0) {
+                this.nextGameId = lastId + 1;
+                break;
+            }
+        }
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    /**
+     * Journals the start of a game and returns its id, unique in the stream.
+     */
+    public long startGame(int rows, int columns, int winLength) {
+        long gameId = this.nextGameId++;
+        append(gameId, 0, rows, columns, JournalFormat.KIND_START,
+                (byte) WinState.NEUTRAL.ordinal(), winLength);
+        return gameId;
+    }
+
+    /**
+     * Journals the move {@code seq} of a game, counting from 1, and the
+     * {@link WinState} it resulted in.
+     */
+    public void move(long gameId, int seq, int x, int y, WinState result) {
+        append(gameId, seq, x, y, JournalFormat.KIND_MOVE,
+                (byte) result.ordinal(), 0);
+    }
+
+    /**
+     * Journals that a game ended without a result, after {@code seq - 1}
+     * moves.
+     */
+    public void abandon(long gameId, int seq) {
+        append(gameId, seq, 0, 0, JournalFormat.KIND_ABANDON,
+                (byte) WinState.NEUTRAL.ordinal(), 0);
+    }
+
+    private void append(long gameId, int seq, int x, int y, byte kind,
+            byte state, int aux) {
+        checkState(this.segment != null, "Journal closed");
+        if (this.position + JournalFormat.RECORD_SIZE > this.segment
+                .capacity()) {
+            nextSegment();
+        }
+        MappedByteBuffer segment = this.segment;
+        int offset = this.position;
+        segment.putLong(offset + JournalFormat.GAME_ID, gameId);
+        segment.putInt(offset + JournalFormat.SEQ, seq);
+        segment.putInt(offset + JournalFormat.X, x);
+        segment.putInt(offset + JournalFormat.Y, y);
+        segment.put(offset + JournalFormat.KIND, kind);
+        segment.put(offset + JournalFormat.STATE, state);
+        segment.putInt(offset + JournalFormat.AUX, aux);
+        segment.putInt(offset + JournalFormat.CHECKSUM, JournalFormat
+                .checksum(gameId, seq, x, y, kind, state, aux));
+        this.position = offset + JournalFormat.RECORD_SIZE;
+        if (this.groupCommit > 0 && ++this.unforced >= this.groupCommit) {
+            force();
+        }
+    }
+
+    private void nextSegment() {
+        this.segment.force();
+        try {
+            mapSegment(this.segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void mapSegment(long index) throws IOException {
+        Path path = this.directory
+                .resolve(JournalFormat.segmentName(this.stream, index));
+        MappedByteBuffer segment = map(path, this.segmentSize);
+        segment.putInt(0, JournalFormat.MAGIC);
+        this.segment = segment;
+        this.segmentIndex = index;
+        this.position = JournalFormat.HEADER_SIZE;
+    }
+
+    private static MappedByteBuffer map(Path path, long size)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Waits until every record so far is on disk.
+     */
+    public void force() {
+        this.segment.force();
+        this.unforced = 0;
+    }
+
+    @Override
+    public void close() {
+        if (this.segment != null) {
+            force();
+            // unmapped once collected
+            this.segment = null;
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package me.kenzierocks.ttt.leaderboard;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Scores of every player by UUID, safe to update from any number of threads.
+ * A win is worth {@link #WIN_POINTS} and a tie {@link #TIE_POINTS}.
+ *
+ * <p>
+ * Counters are {@link LongAdder}s, so results from different threads never
+ * contend on a cache line. Each update then moves the player in two indexes:
+ * a {@link PointIndex} counting players per total, for O(log n)
+ * {@link #getStanding(UUID) ranks}, and a skip list ordered by points, for
+ * O(log n + n) {@link #top(int) top n} queries. Only updates for the same
+ * player are serialized.
+ * </p>
+ */
+public final class Leaderboard {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Leaderboard.class);
+
+    public static final long WIN_POINTS = 2;
+    public static final long TIE_POINTS = 1;
+
+    private static final int SNAPSHOT_MAGIC = 0x5454_4C42; // TTLB
+
+    private static final Comparator<Entry> BY_POINTS = Comparator
+            .comparingLong((Entry entry) -> entry.indexedPoints).reversed()
+            .thenComparing(entry -> entry.player);
+
+    private static final class Entry {
+
+        private final UUID player;
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder losses = new LongAdder();
+        private final LongAdder ties = new LongAdder();
+        // where the indexes have it, only changed while out of the skip list
+        private long indexedPoints;
+
+        private Entry(UUID player) {
+            this.player = player;
+        }
+
+        private long points() {
+            return WIN_POINTS * this.wins.sum() + TIE_POINTS * this.ties.sum();
+        }
+
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(Path)}, or returns an empty
+     * leaderboard if there is none.
+     */
+    public static Leaderboard load(Path file) throws IOException {
+        Leaderboard leaderboard = new Leaderboard();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(file + " is not a leaderboard");
+            }
+            int players = input.readInt();
+            for (int i = 0; i < players; i++) {
+                Entry entry = leaderboard.entry(
+                        new UUID(input.readLong(), input.readLong()));
+                entry.wins.add(input.readLong());
+                entry.losses.add(input.readLong());
+                entry.ties.add(input.readLong());
+                leaderboard.reindex(entry);
+            }
+        } catch (NoSuchFileException e) {
+            // nothing saved yet
+        }
+        return leaderboard;
+    }
+
+    private final ConcurrentMap<UUID, Entry> entries =
+            new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> byPoints =
+            new ConcurrentSkipListSet<>(BY_POINTS);
+    private final PointIndex pointIndex = new PointIndex();
+
+    public void recordWin(UUID winner, UUID loser) {
+        Entry winning = entry(winner);
+        Entry losing = entry(loser);
+        winning.wins.increment();
+        losing.losses.increment();
+        reindex(winning);
+    }
+
+    public void recordTie(UUID player, UUID other) {
+        Entry first = entry(player);
+        Entry second = entry(other);
+        first.ties.increment();
+        second.ties.increment();
+        reindex(first);
+        reindex(second);
+    }
+
+    private Entry entry(UUID player) {
+        Entry entry = this.entries.get(player);
+        if (entry != null) {
+            return entry;
+        }
+        Entry created = new Entry(player);
+        // indexed before anyone else can reindex it
+        synchronized (created) {
+            entry = this.entries.putIfAbsent(player, created);
+            if (entry != null) {
+                return entry;
+            }
+            this.pointIndex.add(0);
+            this.byPoints.add(created);
+        }
+        return created;
+    }
+
+    private void reindex(Entry entry) {
+        synchronized (entry) {
+            long points = entry.points();
+            if (points == entry.indexedPoints) {
+                return;
+            }
+            this.pointIndex.move(entry.indexedPoints, points);
+            this.byPoints.remove(entry);
+            entry.indexedPoints = points;
+            this.byPoints.add(entry);
+        }
+    }
+
+    /**
+     * Returns the player's standing, or {@code null} if they never played.
+     */
+    @Nullable
+    public Standing getStanding(UUID player) {
+        Entry entry = this.entries.get(player);
+        return entry == null ? null : standing(entry);
+    }
+
+    private Standing standing(Entry entry) {
+        long points;
+        synchronized (entry) {
+            points = entry.indexedPoints;
+        }
+        return new Standing(entry.player,
+                1 + this.pointIndex.countAbove(points), points,
+                entry.wins.sum(), entry.losses.sum(), entry.ties.sum());
+    }
+
+    /**
+     * Returns up to {@code n} players with the most points, best first.
+     */
+    public List<Standing> top(int n) {
+        checkArgument(n >= 0, "n must not be negative");
+        List<Standing> top = new ArrayList<>(Math.min(n, 64));
+        Iterator<Entry> entries = this.byPoints.iterator();
+        while (top.size() < n && entries.hasNext()) {
+            top.add(standing(entries.next()));
+        }
+        return top;
+    }
+
+    public int getPlayers() {
+        return this.entries.size();
+    }
+
+    /**
+     * Writes every player's counters to the file, replacing it atomically so
+     * a crash mid-write leaves the previous snapshot.
+     */
+    public void save(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>(this.entries.values());
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent,
+                file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    output.writeLong(entry.player.getMostSignificantBits());
+                    output.writeLong(entry.player.getLeastSignificantBits());
+                    output.writeLong(entry.wins.sum());
+                    output.writeLong(entry.losses.sum());
+                    output.writeLong(entry.ties.sum());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Saves to the file every {@code period} on a thread of its own, and once
+     * more when the returned handle is closed.
+     */
+    public Closeable saveEvery(Path file, long period, TimeUnit unit) {
+        ScheduledExecutorService executor = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ttt-leaderboard-snapshot")
+                        .setDaemon(true).build());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                save(file);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to save the leaderboard to {}", file, e);
+            }
+        }, period, period, unit);
+        return () -> {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            save(file);
+        };
+    }
+
+}
@@ -0,0 +1,104 @@
+package me.kenzierocks.ttt.leaderboard;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * How many players have each point total, without locks. Totals fall into
+ * buckets that double in width every {@value #SUB_BUCKETS} buckets, like a
+ * {@link me.kenzierocks.ttt.metrics.Histogram}, and a Fenwick tree over the
+ * buckets counts the players above a bucket in O(log n). Totals below
+ * {@code 2 * SUB_BUCKETS} get a bucket each. Wider buckets also keep the
+ * totals their players have in a skip list, to count those above a total
+ * within the bucket. The tree is the same size however high the scores go,
+ * and the skip lists only grow with the players.
+ */
+final class PointIndex {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+    private static int bucket(long points) {
+        if (points < 2 * SUB_BUCKETS) {
+            return (int) points;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(points)
+                - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (points >>> shift);
+    }
+
+    // 1-based over buckets
+    private final AtomicLongArray tree = new AtomicLongArray(BUCKETS + 1);
+    // players per total, for buckets wider than one total
+    private final AtomicReferenceArray<ConcurrentNavigableMap<Long, Long>>
+            totals = new AtomicReferenceArray<>(BUCKETS);
+
+    /**
+     * Adds a player with the given total.
+     */
+    void add(long points) {
+        add(points, 1);
+    }
+
+    /**
+     * Moves a player from one total to another.
+     */
+    void move(long from, long to) {
+        add(to, 1);
+        add(from, -1);
+    }
+
+    /**
+     * Returns how many players have more than the given total.
+     */
+    long countAbove(long points) {
+        int bucket = bucket(points);
+        long count = sum(BUCKETS) - sum(bucket + 1);
+        ConcurrentNavigableMap<Long, Long> totals = this.totals.get(bucket);
+        if (totals != null) {
+            for (long players : totals.tailMap(points, false).values()) {
+                count += players;
+            }
+        }
+        return count;
+    }
+
+    private void add(long points, long delta) {
+        int bucket = bucket(points);
+        if (points >= 2 * SUB_BUCKETS) {
+            totals(bucket).merge(points, delta, (players, more) -> {
+                long sum = players + more;
+                // forget totals nobody has any more
+                return sum == 0 ? null : sum;
+            });
+        }
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            this.tree.addAndGet(i, delta);
+        }
+    }
+
+    private ConcurrentNavigableMap<Long, Long> totals(int bucket) {
+        ConcurrentNavigableMap<Long, Long> totals = this.totals.get(bucket);
+        if (totals == null) {
+            this.totals.compareAndSet(bucket, null,
+                    new ConcurrentSkipListMap<>());
+            totals = this.totals.get(bucket);
+        }
+        return totals;
+    }
+
+    /*
+     * Players in the first n buckets.
+     */
+    private long sum(int n) {
+        long count = 0;
+        for (int i = n; i > 0; i -= i & -i) {
+            count += this.tree.get(i);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,65 @@
+package me.kenzierocks.ttt.leaderboard;
+
+import java.util.UUID;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A player's record and place on a {@link Leaderboard} at one moment.
+ */
+public final class Standing {
+
+    private final UUID player;
+    private final long rank;
+    private final long points;
+    private final long wins;
+    private final long losses;
+    private final long ties;
+
+    Standing(UUID player, long rank, long points, long wins, long losses,
+            long ties) {
+        this.player = player;
+        this.rank = rank;
+        this.points = points;
+        this.wins = wins;
+        this.losses = losses;
+        this.ties = ties;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns 1 plus the number of players with more points, so tied players
+     * share a rank.
+     */
+    public long getRank() {
+        return rank;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("player", this.player)
+                .add("rank", this.rank).add("points", this.points)
+                .add("wins", this.wins).add("losses", this.losses)
+                .add("ties", this.ties).toString();
+    }
+
+}
@@ -0,0 +1,48 @@
+package me.kenzierocks.ttt.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that can go up and down, cheap to update from any number of
+ * threads at once. Get one from {@link Metrics#counter(String)}. While
+ * metrics are off, updates are constant-folded away and every counter is
+ * the same one, which stays at 0.
+ */
+public final class Counter implements CounterMXBean {
+
+    static final Counter DISABLED = new Counter();
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) {
+            this.count.increment();
+        }
+    }
+
+    public void decrement() {
+        if (Metrics.ENABLED) {
+            this.count.decrement();
+        }
+    }
+
+    public void add(long amount) {
+        if (Metrics.ENABLED) {
+            this.count.add(amount);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(getCount());
+    }
+
+}
@@ -0,0 +1,10 @@
+package me.kenzierocks.ttt.metrics;
+
+/**
+ * JMX view of a {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    long getCount();
+
+}
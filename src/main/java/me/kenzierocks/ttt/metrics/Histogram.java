@@ -0,0 +1,136 @@
+package me.kenzierocks.ttt.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values, such as latencies in nanoseconds,
+ * recorded without locks from any number of threads. Get one from
+ * {@link Metrics#histogram(String)}.
+ *
+ * <p>
+ * Like an HDR histogram, values fall into buckets that double in width every
+ * {@value #SUB_BUCKETS} buckets, so every value is counted to within
+ * {@link #PRECISION} of itself. Recording is an index computation and one
+ * atomic increment, and the whole range of {@code long} takes under 2000
+ * buckets.
+ * </p>
+ */
+public final class Histogram implements HistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+    /**
+     * The largest error of a reported value, relative to the value.
+     */
+    public static final double PRECISION = 1.0 / SUB_BUCKETS;
+
+    /*
+     * Values below 2 * SUB_BUCKETS get a bucket each. Above that, a value
+     * with its highest bit at b keeps its top SUB_BUCKET_BITS + 1 bits, and
+     * every shift doubles the width of the next SUB_BUCKETS buckets.
+     */
+    private static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value)
+                - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+    }
+
+    public void record(long value) {
+        checkArgument(value >= 0, "value must not be negative");
+        this.counts.incrementAndGet(bucket(value));
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.counts.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) this.total.sum() / count;
+    }
+
+    @Override
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the value that {@code percentile} percent of the recorded
+     * values are at or below, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100,
+                "percentile must be between 0 and 100");
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.counts.get(i);
+            count += counts[i];
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long getMedian() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentile() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long get999thPercentile() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p99=%d p999=%d max=%d",
+                getCount(), getMean(), getMedian(), get99thPercentile(),
+                get999thPercentile(), getMax());
+    }
+
+}
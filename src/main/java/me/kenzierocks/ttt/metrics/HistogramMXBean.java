@@ -0,0 +1,21 @@
+package me.kenzierocks.ttt.metrics;
+
+/**
+ * JMX view of a {@link Histogram}. Percentiles are accurate to within
+ * {@link Histogram#PRECISION}.
+ */
+public interface HistogramMXBean {
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getMedian();
+
+    long get99thPercentile();
+
+    long get999thPercentile();
+
+}
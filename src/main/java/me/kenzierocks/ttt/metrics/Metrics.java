@@ -0,0 +1,121 @@
+package me.kenzierocks.ttt.metrics;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Named {@link Histogram}s and {@link Counter}s for the whole process, also
+ * published over JMX under the {@code me.kenzierocks.ttt} domain.
+ *
+ * <p>
+ * Metrics are off unless the {@code ttt.metrics} system property is
+ * {@code true}. Hot paths check {@link #ENABLED} before timing anything.
+ * It is a constant, so the JIT removes the check and everything behind it
+ * when metrics are off. While they are off, metrics are still handed out
+ * so they can be kept in fields, but they aren't published anywhere, and
+ * counters check it themselves so they can be updated unguarded.
+ * </p>
+ */
+public final class Metrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Metrics.class);
+
+    public static final boolean ENABLED = Boolean.getBoolean("ttt.metrics");
+
+    private static final String DOMAIN = "me.kenzierocks.ttt";
+
+    private static final ConcurrentMap<String, Object> METRICS =
+            new ConcurrentSkipListMap<>();
+
+    public static Histogram histogram(String name) {
+        return get(name, Histogram.class);
+    }
+
+    public static Counter counter(String name) {
+        if (!ENABLED) {
+            return Counter.DISABLED;
+        }
+        return get(name, Counter.class);
+    }
+
+    private static <M> M get(String name, Class<M> type) {
+        Object metric = METRICS.get(name);
+        if (metric == null) {
+            Object created =
+                    type == Histogram.class ? new Histogram() : new Counter();
+            if (!ENABLED) {
+                return type.cast(created);
+            }
+            metric = METRICS.putIfAbsent(name, created);
+            if (metric == null) {
+                register(name, type, created);
+                return type.cast(created);
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(
+                    name + " is not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private static void register(String name, Class<?> type, Object metric) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metric,
+                    new ObjectName(DOMAIN + ":type=" + type.getSimpleName()
+                            + ",name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            LOGGER.warn("Failed to publish {} over JMX", name, e);
+        }
+    }
+
+    /**
+     * Returns every metric, one per line in order of name, leaving out
+     * histograms that have nothing recorded.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Object> metric : METRICS.entrySet()) {
+            if (metric.getValue() instanceof Histogram
+                    && ((Histogram) metric.getValue()).getCount() == 0) {
+                continue;
+            }
+            report.append(metric.getKey()).append(' ')
+                    .append(metric.getValue()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Logs the {@link #report()} every {@code period} on a thread of its own,
+     * until the returned handle is closed.
+     */
+    public static Closeable logEvery(long period, TimeUnit unit) {
+        ScheduledExecutorService executor = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ttt-metrics").setDaemon(true)
+                        .build());
+        executor.scheduleAtFixedRate(
+                () -> LOGGER.info("Metrics:\n{}", report()), period, period,
+                unit);
+        return executor::shutdownNow;
+    }
+
+    private Metrics() {
+    }
+
+}
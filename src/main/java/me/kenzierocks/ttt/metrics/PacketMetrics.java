@@ -0,0 +1,72 @@
+package me.kenzierocks.ttt.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Encode and decode times and sizes per packet id, named
+ * {@code packet.<id>.encodeNanos} and so on. Callers check
+ * {@link Metrics#ENABLED} first.
+ */
+public final class PacketMetrics {
+
+    // ids past this aren't tracked, the generator hands them out densely
+    private static final int MAX_IDS = 64;
+
+    private static final class PacketId {
+
+        private final Histogram encodeNanos;
+        private final Histogram encodeBytes;
+        private final Histogram decodeNanos;
+        private final Histogram decodeBytes;
+
+        private PacketId(int id) {
+            String prefix = "packet." + id + ".";
+            this.encodeNanos = Metrics.histogram(prefix + "encodeNanos");
+            this.encodeBytes = Metrics.histogram(prefix + "encodeBytes");
+            this.decodeNanos = Metrics.histogram(prefix + "decodeNanos");
+            this.decodeBytes = Metrics.histogram(prefix + "decodeBytes");
+        }
+
+    }
+
+    private static final AtomicReferenceArray<PacketId> IDS =
+            new AtomicReferenceArray<>(MAX_IDS);
+
+    private static PacketId get(int id) {
+        if (id < 0 || id >= MAX_IDS) {
+            return null;
+        }
+        PacketId metrics = IDS.get(id);
+        if (metrics == null) {
+            IDS.compareAndSet(id, null, new PacketId(id));
+            metrics = IDS.get(id);
+        }
+        return metrics;
+    }
+
+    /**
+     * Records a packet encoded to {@code bytes} bytes, frame included.
+     */
+    public static void encoded(int id, int bytes, long nanos) {
+        PacketId metrics = get(id);
+        if (metrics != null) {
+            metrics.encodeNanos.record(nanos);
+            metrics.encodeBytes.record(bytes);
+        }
+    }
+
+    /**
+     * Records a packet decoded from {@code bytes} bytes, frame included.
+     */
+    public static void decoded(int id, int bytes, long nanos) {
+        PacketId metrics = get(id);
+        if (metrics != null) {
+            metrics.decodeNanos.record(nanos);
+            metrics.decodeBytes.record(bytes);
+        }
+    }
+
+    private PacketMetrics() {
+    }
+
+}
@@ -0,0 +1,200 @@
+package me.kenzierocks.ttt.packets;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.metrics.PacketMetrics;
+
+/**
+ * Decodes length-prefixed frames out of bytes that arrive in arbitrary
+ * pieces. A frame is an {@code int} length followed by that many bytes: the
+ * {@code int} packet id and the packet's own encoding.
+ *
+ * <p>
+ * Read into {@link #buffer()}, then call {@link #next()} until it returns
+ * {@code null}. Packets are decoded in place, and the buffer only grows when
+ * a single frame doesn't fit. Hot packets can skip decoding altogether by
+ * using {@link #nextId()} and a generated view over the payload.
+ * </p>
+ */
+public final class FrameDecoder<P extends Packet> {
+
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    public static final int ID_BYTES = Integer.BYTES;
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    /**
+     * Creates a decoder for packets sent by clients.
+     */
+    public static FrameDecoder<Packet.Client>
+            forClientPackets(int maxFrameLength) {
+        return new FrameDecoder<>(PacketRegistry.CLIENT_TO_SERVER,
+                maxFrameLength);
+    }
+
+    /**
+     * Creates a decoder for packets sent by the server.
+     */
+    public static FrameDecoder<Packet.Server>
+            forServerPackets(int maxFrameLength) {
+        return new FrameDecoder<>(PacketRegistry.SERVER_TO_CLIENT,
+                maxFrameLength);
+    }
+
+    private final PacketReader<? extends P>[] readers;
+    private final int maxFrameLength;
+    // in write mode; the unread bytes are [readIndex, position)
+    private ByteBuffer buffer;
+    private int readIndex;
+    // the current frame, if any
+    private int frameEnd;
+    @Nullable
+    private PacketReader<? extends P> reader;
+
+    private FrameDecoder(PacketReader<? extends P>[] readers,
+            int maxFrameLength) {
+        checkArgument(maxFrameLength >= ID_BYTES,
+                "maxFrameLength too small: %s", maxFrameLength);
+        this.readers = readers;
+        this.maxFrameLength = maxFrameLength;
+        this.buffer = ByteBuffer.allocate(
+                Math.min(INITIAL_BUFFER_SIZE, LENGTH_BYTES + maxFrameLength));
+    }
+
+    /**
+     * Returns the buffer to read into. It always has room after
+     * {@link #next()} returns {@code null}.
+     */
+    public ByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Returns the next complete packet, or {@code null} if more bytes are
+     * needed.
+     *
+     * @throws IOException if the frame is malformed, after which the decoder
+     *         must not be used again
+     */
+    @Nullable
+    public P next() throws IOException {
+        return nextId() < 0 ? null : read();
+    }
+
+    /**
+     * Moves to the next complete frame and returns its packet id, or -1 if
+     * more bytes are needed. The frame's payload can then be viewed in place
+     * with {@link #buffer()}, {@link #payloadOffset()} and
+     * {@link #payloadLength()}, until it is consumed with {@link #read()} or
+     * {@link #skip()}.
+     *
+     * @throws IOException if the frame is malformed, after which the decoder
+     *         must not be used again
+     */
+    public int nextId() throws IOException {
+        ByteBuffer buffer = this.buffer;
+        int start = this.readIndex;
+        int available = buffer.position() - start;
+        if (available < LENGTH_BYTES) {
+            makeRoom(LENGTH_BYTES);
+            return -1;
+        }
+        int length = buffer.getInt(start);
+        if (length < ID_BYTES || length > this.maxFrameLength) {
+            throw new IOException("Bad frame length " + length);
+        }
+        int frameSize = LENGTH_BYTES + length;
+        if (available < frameSize) {
+            makeRoom(frameSize);
+            return -1;
+        }
+        int id = buffer.getInt(start + LENGTH_BYTES);
+        PacketReader<? extends P> reader =
+                id >= 0 && id < this.readers.length ? this.readers[id] : null;
+        if (reader == null) {
+            throw new IOException("Unknown packet id " + id);
+        }
+        this.frameEnd = start + frameSize;
+        this.reader = reader;
+        return id;
+    }
+
+    public int payloadOffset() {
+        checkState(this.reader != null, "No current frame");
+        return this.readIndex + LENGTH_BYTES + ID_BYTES;
+    }
+
+    public int payloadLength() {
+        checkState(this.reader != null, "No current frame");
+        return this.frameEnd - payloadOffset();
+    }
+
+    /**
+     * Decodes the current frame into a packet and moves past it.
+     */
+    public P read() throws IOException {
+        checkState(this.reader != null, "No current frame");
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        ByteBuffer buffer = this.buffer;
+        int written = buffer.position();
+        int limit = buffer.limit();
+        // the limit keeps the reader inside its frame
+        buffer.limit(this.frameEnd).position(payloadOffset());
+        P packet;
+        try {
+            packet = this.reader.read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated packet", e);
+        } finally {
+            buffer.limit(limit).position(written);
+        }
+        if (Metrics.ENABLED) {
+            PacketMetrics.decoded(
+                    buffer.getInt(this.readIndex + LENGTH_BYTES),
+                    this.frameEnd - this.readIndex, System.nanoTime() - start);
+        }
+        skip();
+        return packet;
+    }
+
+    /**
+     * Moves past the current frame, which must no longer be viewed.
+     */
+    public void skip() {
+        checkState(this.reader != null, "No current frame");
+        if (this.frameEnd == this.buffer.position()) {
+            this.buffer.clear();
+            this.readIndex = 0;
+        } else {
+            this.readIndex = this.frameEnd;
+        }
+        this.reader = null;
+    }
+
+    /*
+     * Makes sure a frame of the given size fits after readIndex, by moving
+     * the partial frame to the front and growing the buffer if needed.
+     */
+    private void makeRoom(int frameSize) {
+        if (this.readIndex + frameSize <= this.buffer.capacity()) {
+            return;
+        }
+        ByteBuffer partial = this.buffer;
+        partial.flip().position(this.readIndex);
+        if (frameSize > partial.capacity()) {
+            this.buffer = ByteBuffer.allocate(frameSize).put(partial);
+        } else {
+            partial.compact();
+        }
+        this.readIndex = 0;
+    }
+
+}
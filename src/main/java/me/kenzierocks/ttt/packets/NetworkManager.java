@@ -1,7 +1,26 @@
 package me.kenzierocks.ttt.packets;
 
-public interface NetworkManager {
-    
-    
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public interface NetworkManager extends Closeable {
+
+    /**
+     * Binds the server socket and starts serving connections in the
+     * background.
+     */
+    void start() throws IOException;
+
+    /**
+     * Returns the bound address. Only valid after {@link #start()}.
+     */
+    InetSocketAddress getAddress();
+
+    /**
+     * Stops accepting connections and closes every open one.
+     */
+    @Override
+    void close() throws IOException;
 
 }
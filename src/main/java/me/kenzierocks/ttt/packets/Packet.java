@@ -2,6 +2,7 @@ package me.kenzierocks.ttt.packets;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public interface Packet {
 
@@ -15,4 +16,15 @@ public interface Packet {
 
     void write(DataOutputStream stream) throws IOException;
 
+    /**
+     * Writes the packet at the buffer's position, which must have at least
+     * {@link #serializedSize()} bytes remaining.
+     */
+    void write(ByteBuffer buffer);
+
+    /**
+     * Returns the number of bytes either {@code write} method produces.
+     */
+    int serializedSize();
+
 }
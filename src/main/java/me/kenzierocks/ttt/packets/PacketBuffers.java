@@ -0,0 +1,389 @@
+package me.kenzierocks.ttt.packets;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * {@link ByteBuffer} encodings for the {@link PacketPart}s that aren't plain
+ * primitives. Strings use the same modified UTF-8 as
+ * {@link java.io.DataOutput#writeUTF(String)}, and everything matches
+ * {@link PacketStreams}, so both can be mixed on one connection.
+ *
+ * <p>
+ * Varints hold 7 bits per byte, low bits first, with the high bit set on all
+ * but the last byte. Signed values are zigzag encoded first, so small
+ * negative numbers stay short. Arrays are an unsigned varint length followed
+ * by the big-endian elements.
+ * </p>
+ */
+public final class PacketBuffers {
+
+    private static final int MAX_UTF_LENGTH = 0xFFFF;
+    static final int MAX_VARINT_BYTES = 5;
+    static final int MAX_VARLONG_BYTES = 10;
+
+    /**
+     * Returns the number of bytes {@link #putUTF} writes for the string,
+     * including the length prefix.
+     */
+    public static int utfSize(String string) {
+        int length = utfLength(string);
+        checkArgument(length <= MAX_UTF_LENGTH,
+                "String too long to encode: %s bytes", length);
+        return Short.BYTES + length;
+    }
+
+    private static int utfLength(String string) {
+        int length = string.length();
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                length += c > 0x7FF ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    public static void putUTF(ByteBuffer buffer, String string) {
+        int length = utfLength(string);
+        checkArgument(length <= MAX_UTF_LENGTH,
+                "String too long to encode: %s bytes", length);
+        buffer.putShort((short) length);
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c != 0 && c <= 0x7F) {
+                buffer.put((byte) c);
+            } else if (c <= 0x7FF) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    public static String getUTF(ByteBuffer buffer)
+            throws UTFDataFormatException {
+        if (buffer.remaining() < Short.BYTES) {
+            throw new BufferUnderflowException();
+        }
+        int index = buffer.position();
+        String string = getUTF(buffer, index);
+        buffer.position(skipUTF(buffer, index));
+        return string;
+    }
+
+    /**
+     * Reads the string at the index, leaving the buffer's position alone.
+     */
+    public static String getUTF(ByteBuffer buffer, int index)
+            throws UTFDataFormatException {
+        int length = buffer.getShort(index) & 0xFFFF;
+        index += Short.BYTES;
+        int end = index + length;
+        if (end > buffer.limit()) {
+            throw new BufferUnderflowException();
+        }
+        char[] chars = new char[length];
+        int count = 0;
+        while (index < end) {
+            int a = buffer.get(index++) & 0xFF;
+            if (a < 0x80) {
+                chars[count++] = (char) a;
+            } else if ((a & 0xE0) == 0xC0 && index < end) {
+                int b = buffer.get(index++);
+                checkContinuation(b, index);
+                chars[count++] = (char) ((a & 0x1F) << 6 | b & 0x3F);
+            } else if ((a & 0xF0) == 0xE0 && index + 1 < end) {
+                int b = buffer.get(index++);
+                checkContinuation(b, index);
+                int c = buffer.get(index++);
+                checkContinuation(c, index);
+                chars[count++] =
+                        (char) ((a & 0x0F) << 12 | (b & 0x3F) << 6 | c & 0x3F);
+            } else {
+                throw new UTFDataFormatException(
+                        "Malformed input around byte " + index);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Returns the index just past the string at the index.
+     */
+    public static int skipUTF(ByteBuffer buffer, int index) {
+        return index + Short.BYTES + (buffer.getShort(index) & 0xFFFF);
+    }
+
+    private static void checkContinuation(int b, int index)
+            throws UTFDataFormatException {
+        if ((b & 0xC0) != 0x80) {
+            throw new UTFDataFormatException(
+                    "Malformed input around byte " + index);
+        }
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int rawVarIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    public static int varIntSize(int value) {
+        return rawVarIntSize(zigZag(value));
+    }
+
+    public static int varLongSize(long value) {
+        return (63 - Long.numberOfLeadingZeros(zigZag(value) | 1)) / 7 + 1;
+    }
+
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        putRawVarInt(buffer, zigZag(value));
+    }
+
+    private static void putRawVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static void putVarLong(ByteBuffer buffer, long value) {
+        long raw = zigZag(value);
+        while ((raw & ~0x7FL) != 0) {
+            buffer.put((byte) (raw & 0x7F | 0x80));
+            raw >>>= 7;
+        }
+        buffer.put((byte) raw);
+    }
+
+    public static int getVarInt(ByteBuffer buffer) throws IOException {
+        return unZigZag(getRawVarInt(buffer));
+    }
+
+    private static int getRawVarInt(ByteBuffer buffer) throws IOException {
+        int index = buffer.position();
+        int value = getRawVarInt(buffer, index);
+        buffer.position(skipVarint(buffer, index, MAX_VARINT_BYTES));
+        return value;
+    }
+
+    public static long getVarLong(ByteBuffer buffer) throws IOException {
+        int index = buffer.position();
+        long value = getVarLong(buffer, index);
+        buffer.position(skipVarint(buffer, index, MAX_VARLONG_BYTES));
+        return value;
+    }
+
+    public static int getVarInt(ByteBuffer buffer, int index)
+            throws IOException {
+        return unZigZag(getRawVarInt(buffer, index));
+    }
+
+    private static int getRawVarInt(ByteBuffer buffer, int index)
+            throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+            byte b = getVarintByte(buffer, index++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    public static long getVarLong(ByteBuffer buffer, int index)
+            throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARLONG_BYTES; shift += 7) {
+            byte b = getVarintByte(buffer, index++);
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return unZigZag(value);
+            }
+        }
+        throw new IOException("VarLong too long");
+    }
+
+    private static byte getVarintByte(ByteBuffer buffer, int index) {
+        // same exception as the relative gets for a cut off varint
+        if (index >= buffer.limit()) {
+            throw new BufferUnderflowException();
+        }
+        return buffer.get(index);
+    }
+
+    public static int skipVarInt(ByteBuffer buffer, int index)
+            throws IOException {
+        return skipVarint(buffer, index, MAX_VARINT_BYTES);
+    }
+
+    public static int skipVarLong(ByteBuffer buffer, int index)
+            throws IOException {
+        return skipVarint(buffer, index, MAX_VARLONG_BYTES);
+    }
+
+    private static int skipVarint(ByteBuffer buffer, int index, int maxBytes)
+            throws IOException {
+        for (int i = 0; i < maxBytes; i++) {
+            if (getVarintByte(buffer, index++) >= 0) {
+                return index;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+
+    public static void putUUID(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+    }
+
+    public static UUID getUUID(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public static UUID getUUID(ByteBuffer buffer, int index) {
+        return new UUID(buffer.getLong(index),
+                buffer.getLong(index + Long.BYTES));
+    }
+
+    public static int byteArraySize(byte[] array) {
+        return rawVarIntSize(array.length) + array.length;
+    }
+
+    public static int intArraySize(int[] array) {
+        return rawVarIntSize(array.length) + array.length * Integer.BYTES;
+    }
+
+    public static int longArraySize(long[] array) {
+        return rawVarIntSize(array.length) + array.length * Long.BYTES;
+    }
+
+    public static void putByteArray(ByteBuffer buffer, byte[] array) {
+        putRawVarInt(buffer, array.length);
+        buffer.put(array);
+    }
+
+    public static void putIntArray(ByteBuffer buffer, int[] array) {
+        putRawVarInt(buffer, array.length);
+        buffer.asIntBuffer().put(array);
+        buffer.position(buffer.position() + array.length * Integer.BYTES);
+    }
+
+    public static void putLongArray(ByteBuffer buffer, long[] array) {
+        putRawVarInt(buffer, array.length);
+        buffer.asLongBuffer().put(array);
+        buffer.position(buffer.position() + array.length * Long.BYTES);
+    }
+
+    /*
+     * Reads an array length, checking the elements are actually there before
+     * anything gets allocated for them.
+     */
+    private static int getArrayLength(ByteBuffer buffer, int elementSize)
+            throws IOException {
+        int length = getRawVarInt(buffer);
+        if (length < 0) {
+            throw new IOException(
+                    "Bad array length " + Integer.toUnsignedString(length));
+        }
+        if (length > buffer.remaining() / elementSize) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    public static byte[] getByteArray(ByteBuffer buffer) throws IOException {
+        byte[] array = new byte[getArrayLength(buffer, Byte.BYTES)];
+        buffer.get(array);
+        return array;
+    }
+
+    public static int[] getIntArray(ByteBuffer buffer) throws IOException {
+        int[] array = new int[getArrayLength(buffer, Integer.BYTES)];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Integer.BYTES);
+        return array;
+    }
+
+    public static long[] getLongArray(ByteBuffer buffer) throws IOException {
+        long[] array = new long[getArrayLength(buffer, Long.BYTES)];
+        buffer.asLongBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Long.BYTES);
+        return array;
+    }
+
+    public static byte[] getByteArray(ByteBuffer buffer, int index)
+            throws IOException {
+        ByteBuffer view = buffer.duplicate();
+        view.position(index);
+        return getByteArray(view);
+    }
+
+    public static int[] getIntArray(ByteBuffer buffer, int index)
+            throws IOException {
+        ByteBuffer view = buffer.duplicate();
+        view.position(index);
+        return getIntArray(view);
+    }
+
+    public static long[] getLongArray(ByteBuffer buffer, int index)
+            throws IOException {
+        ByteBuffer view = buffer.duplicate();
+        view.position(index);
+        return getLongArray(view);
+    }
+
+    public static int skipByteArray(ByteBuffer buffer, int index)
+            throws IOException {
+        return skipArray(buffer, index, Byte.BYTES);
+    }
+
+    public static int skipIntArray(ByteBuffer buffer, int index)
+            throws IOException {
+        return skipArray(buffer, index, Integer.BYTES);
+    }
+
+    public static int skipLongArray(ByteBuffer buffer, int index)
+            throws IOException {
+        return skipArray(buffer, index, Long.BYTES);
+    }
+
+    private static int skipArray(ByteBuffer buffer, int index,
+            int elementSize) throws IOException {
+        int length = getRawVarInt(buffer, index);
+        int start = skipVarint(buffer, index, MAX_VARINT_BYTES);
+        if (length < 0 || length > (buffer.limit() - start) / elementSize) {
+            throw new BufferUnderflowException();
+        }
+        return start + length * elementSize;
+    }
+
+    private PacketBuffers() {
+    }
+
+}
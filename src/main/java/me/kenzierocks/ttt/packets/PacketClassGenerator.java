@@ -3,12 +3,14 @@ package me.kenzierocks.ttt.packets;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -16,6 +18,7 @@ import java.nio.file.Paths;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
@@ -26,8 +29,12 @@ import java.util.stream.Collectors;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.JavaFile.Builder;
 import com.squareup.javapoet.MethodSpec;
@@ -35,6 +42,7 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import me.kenzierocks.ttt.Util;
 import me.kenzierocks.ttt.packets.PacketData.Pipe;
@@ -62,6 +70,7 @@ public final class PacketClassGenerator {
             if (!Files.exists(ID_CACHE_FILE)) {
                 Files.createFile(ID_CACHE_FILE);
             }
+            List<PacketData> packets = new ArrayList<>();
             BitSet idSet = new BitSet();
             props.values().stream().mapToInt(Integer::parseInt)
                     .forEach(idSet::set);
@@ -85,8 +94,10 @@ public final class PacketClassGenerator {
                         return;
                     }
                     createPacketClass(parsed);
+                    packets.add(parsed);
                 });
             }
+            writeRegistry(packets);
         } finally {
             if (maybeNullProps != null) {
                 try (BufferedWriter writer =
@@ -110,13 +121,10 @@ public final class PacketClassGenerator {
     }
 
     public static void createPacketClass(PacketData parsed) {
-        String appendPackage =
-                parsed.getDirectionPipe() == Pipe.CLIENT_TO_SERVER ? "c2s"
-                        : "s2c";
-        String constructedPackage = PACKAGE + "." + appendPackage;
-        Map<String, TypeName> fields = parsed.getFields().entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey,
-                        e -> TypeName.get(e.getValue().getJavaType())));
+        String constructedPackage = getPackage(parsed.getDirectionPipe());
+        // in wire order, which is also the constructor's parameter order
+        Map<String, TypeName> fields = ImmutableMap.copyOf(Maps.transformValues(
+                parsed.getFields(), part -> TypeName.get(part.getJavaType())));
         String sourceFile =
                 SOURCE_DIR.relativize(parsed.getSource()).toString();
         String nameBase =
@@ -125,6 +133,83 @@ public final class PacketClassGenerator {
                 nameBase, fields, parsed.getFields(), constructedPackage);
         writePacketReader(sourceFile, nameBase, fields, parsed.getFields(),
                 constructedPackage);
+        writePacketView(sourceFile, nameBase, fields, parsed.getFields(),
+                constructedPackage);
+    }
+
+    private static String getPackage(Pipe pipe) {
+        return PACKAGE + "."
+                + (pipe == Pipe.CLIENT_TO_SERVER ? "c2s" : "s2c");
+    }
+
+    /*
+     * One reader array per pipe, indexed by packet id, so dispatching a frame
+     * is a bounds check and an array load.
+     */
+    private static void writeRegistry(List<PacketData> packets) {
+        TypeSpec.Builder type = TypeSpec.classBuilder("PacketRegistry")
+                .addModifiers(PUBLIC, FINAL)
+                .addJavadoc("Packet readers by id, one table per pipe.\n");
+
+        TypeName anyReaderArray = ArrayTypeName.of(ParameterizedTypeName.get(
+                ClassName.get(PacketReader.class),
+                WildcardTypeName.subtypeOf(Object.class)));
+        for (Pipe pipe : Pipe.values()) {
+            Class<?> bound = pipe == Pipe.CLIENT_TO_SERVER
+                    ? Packet.Client.class : Packet.Server.class;
+            TypeName readerType = ParameterizedTypeName.get(
+                    ClassName.get(PacketReader.class),
+                    WildcardTypeName.subtypeOf(bound));
+            TypeName arrayType = ArrayTypeName.of(readerType);
+
+            ClassName[] readers = new ClassName[packets.stream()
+                    .filter(p -> p.getDirectionPipe() == pipe)
+                    .mapToInt(p -> p.getId() + 1).max().orElse(0)];
+            packets.stream().filter(p -> p.getDirectionPipe() == pipe)
+                    .forEach(p -> readers[p.getId()] = ClassName.get(
+                            getPackage(pipe),
+                            noExtension(p.getSource().getFileName()
+                                    .toString()) + "PacketReader"));
+            CodeBlock.Builder init = CodeBlock.builder().add("($T) new $T {$>",
+                    arrayType, anyReaderArray);
+            for (int id = 0; id < readers.length; id++) {
+                init.add(id == 0 ? "\n" : ",\n");
+                if (readers[id] == null) {
+                    init.add("null");
+                } else {
+                    init.add("new $T()", readers[id]);
+                }
+            }
+            init.add("$<\n}");
+            type.addField(FieldSpec
+                    .builder(arrayType, pipe.name(), STATIC, FINAL)
+                    .addAnnotation(AnnotationSpec
+                            .builder(SuppressWarnings.class)
+                            .addMember("value", "$S", "unchecked").build())
+                    .initializer(init.build()).build());
+
+            String side = pipe == Pipe.CLIENT_TO_SERVER ? "Client" : "Server";
+            type.addMethod(MethodSpec.methodBuilder("get" + side + "Reader")
+                    .addJavadoc("Returns the reader for the id, or "
+                            + "{@code null} if there is none.\n")
+                    .addModifiers(PUBLIC, STATIC).returns(readerType)
+                    .addParameter(int.class, "id")
+                    .addStatement("return id >= 0 && id < $1L.length ? $1L[id]"
+                            + " : null", pipe.name())
+                    .build());
+        }
+
+        type.addMethod(
+                MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
+
+        JavaFile fileWriter = JavaFile.builder(PACKAGE, type.build())
+                .indent("....".replace('.', ' ')).skipJavaLangImports(true)
+                .addFileComment(JAVADOC, "*.packet").build();
+        try {
+            fileWriter.writeTo(TARGET_DIR);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private static void writePacketClass(int id, Pipe pipe, String sourceFile,
@@ -144,6 +229,21 @@ public final class PacketClassGenerator {
             type.addSuperinterface(Packet.Server.class);
         }
 
+        type.addField(FieldSpec.builder(int.class, "ID", PUBLIC, STATIC, FINAL)
+                .initializer("$L", id).build());
+
+        boolean fixedSize = fieldParts.values().stream()
+                .allMatch(PacketPart::isFixedSize);
+        int fixedBytes = fieldParts.values().stream()
+                .filter(PacketPart::isFixedSize)
+                .mapToInt(PacketPart::getSize).sum();
+        if (fixedSize) {
+            type.addField(FieldSpec
+                    .builder(int.class, "SERIALIZED_SIZE", PUBLIC, STATIC,
+                            FINAL)
+                    .initializer("$L", fixedBytes).build());
+        }
+
         fields.forEach((name, fType) -> {
             type.addField(fType, name, PRIVATE, FINAL);
         });
@@ -153,9 +253,12 @@ public final class PacketClassGenerator {
         }).collect(Collectors.toList());
 
         String dataStreamName = "dataStream";
+        String bufferName = "buffer";
 
         CodeBlock.Builder constrCode = CodeBlock.builder();
         CodeBlock.Builder writeCode = CodeBlock.builder();
+        CodeBlock.Builder bufferWriteCode = CodeBlock.builder();
+        CodeBlock.Builder sizeCode = CodeBlock.builder();
 
         fields.forEach((name, fType) -> {
             PacketPart packetPart = fieldParts.get(name);
@@ -165,16 +268,34 @@ public final class PacketClassGenerator {
                 constrCode.addStatement("this.$1L = checkNotNull($1L, $2S)",
                         name, name + " cannot be null");
             }
-            writeCode.addStatement("$L.write$L(this.$L)", dataStreamName,
-                    getDataStreamSuffix(packetPart), name);
+            addStreamWrite(writeCode, dataStreamName, name, packetPart);
+            addBufferWrite(bufferWriteCode, bufferName, name, packetPart);
         });
 
+        if (fixedSize) {
+            sizeCode.addStatement("return SERIALIZED_SIZE");
+        } else {
+            List<String> terms = new ArrayList<>();
+            if (fixedBytes > 0) {
+                terms.add(String.valueOf(fixedBytes));
+            }
+            fields.forEach((name, fType) -> {
+                PacketPart part = fieldParts.get(name);
+                if (!part.isFixedSize()) {
+                    terms.add("$1T." + getSizeMethod(part) + "(this." + name
+                            + ")");
+                }
+            });
+            sizeCode.addStatement("return " + String.join(" + ", terms),
+                    PacketBuffers.class);
+        }
+
         type.addMethod(MethodSpec.constructorBuilder().addModifiers(PUBLIC)
                 .addParameters(parameters).addCode(constrCode.build()).build());
 
         type.addMethod(MethodSpec.methodBuilder("getId")
                 .addAnnotation(Override.class).addModifiers(PUBLIC)
-                .returns(int.class).addCode("return $L;\n", id).build());
+                .returns(int.class).addCode("return ID;\n").build());
 
         type.addMethod(MethodSpec.methodBuilder("write")
                 .addAnnotation(Override.class).addModifiers(PUBLIC)
@@ -182,6 +303,15 @@ public final class PacketClassGenerator {
                 .addException(IOException.class).addCode(writeCode.build())
                 .build());
 
+        type.addMethod(MethodSpec.methodBuilder("write")
+                .addAnnotation(Override.class).addModifiers(PUBLIC)
+                .addParameter(ByteBuffer.class, bufferName)
+                .addCode(bufferWriteCode.build()).build());
+
+        type.addMethod(MethodSpec.methodBuilder("serializedSize")
+                .addAnnotation(Override.class).addModifiers(PUBLIC)
+                .returns(int.class).addCode(sizeCode.build()).build());
+
         fields.forEach((name, fType) -> {
             type.addMethod(MethodSpec
                     .methodBuilder("get" + Util.uppercaseFirstLetter(name))
@@ -217,16 +347,21 @@ public final class PacketClassGenerator {
                 .get(ClassName.get(PacketReader.class), packetClassName));
 
         String dataStreamName = "dataStream";
+        String bufferName = "buffer";
 
         CodeBlock.Builder writeCode = CodeBlock.builder();
+        CodeBlock.Builder bufferReadCode = CodeBlock.builder();
 
         fields.forEach((name, fType) -> {
-            writeCode.addStatement("$T $L = $L.$L()", fType, name,
-                    dataStreamName,
-                    "read" + getDataStreamSuffix(fieldParts.get(name)));
+            addStreamRead(writeCode, dataStreamName, name, fType,
+                    fieldParts.get(name));
+            addBufferRead(bufferReadCode, bufferName, name, fType,
+                    fieldParts.get(name));
         });
         writeCode.addStatement("return new $T($L)", packetClassName,
                 String.join(", ", fields.keySet()));
+        bufferReadCode.addStatement("return new $T($L)", packetClassName,
+                String.join(", ", fields.keySet()));
 
         type.addMethod(
                 MethodSpec.methodBuilder("read").addAnnotation(Override.class)
@@ -235,6 +370,13 @@ public final class PacketClassGenerator {
                         .addException(IOException.class)
                         .addCode(writeCode.build()).build());
 
+        type.addMethod(
+                MethodSpec.methodBuilder("read").addAnnotation(Override.class)
+                        .addModifiers(PUBLIC).returns(packetClassName)
+                        .addParameter(ByteBuffer.class, bufferName)
+                        .addException(IOException.class)
+                        .addCode(bufferReadCode.build()).build());
+
         JavaFile fileWriter = JavaFile.builder(fullPackage, type.build())
                 .indent("....".replace('.', ' ')).skipJavaLangImports(true)
                 .addFileComment(JAVADOC, sourceFile).build();
@@ -245,9 +387,203 @@ public final class PacketClassGenerator {
         }
     }
 
+    /*
+     * A reusable view reading each field straight out of a receive buffer.
+     * Fixed-width fields come first, so they sit at constant offsets; strings
+     * are found by skipping the ones before them.
+     */
+    private static void writePacketView(String sourceFile, String nameBase,
+            Map<String, TypeName> fields, Map<String, PacketPart> fieldParts,
+            String fullPackage) {
+        TypeSpec.Builder type = TypeSpec.classBuilder(nameBase + "PacketView")
+                .addModifiers(PUBLIC, FINAL)
+                .addField(ByteBuffer.class, "buffer", PRIVATE)
+                .addField(int.class, "offset", PRIVATE);
+
+        ClassName viewClassName =
+                ClassName.get(fullPackage, nameBase + "PacketView");
+        type.addMethod(MethodSpec.methodBuilder("wrap").addModifiers(PUBLIC)
+                .returns(viewClassName)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addParameter(int.class, "offset")
+                .addStatement("this.buffer = buffer")
+                .addStatement("this.offset = offset")
+                .addStatement("return this").build());
+
+        boolean variableSize = fieldParts.values().stream()
+                .anyMatch(part -> !part.isFixedSize());
+        int offset = 0;
+        List<PacketPart> variableBefore = new ArrayList<>();
+        for (Map.Entry<String, TypeName> field : fields.entrySet()) {
+            String name = field.getKey();
+            PacketPart part = fieldParts.get(name);
+            MethodSpec.Builder getter = MethodSpec
+                    .methodBuilder("get" + Util.uppercaseFirstLetter(name))
+                    .addModifiers(PUBLIC).returns(field.getValue());
+            String index = offset == 0 ? "this.offset"
+                    : "this.offset + " + offset;
+            switch (part) {
+                case BOOLEAN:
+                    getter.addStatement("return this.buffer.get($L) != 0",
+                            index);
+                    break;
+                case UUID:
+                    getter.addStatement("return $T.getUUID(this.buffer, $L)",
+                            PacketBuffers.class, index);
+                    break;
+                default:
+                    if (part.isFixedSize()) {
+                        getter.addStatement("return this.buffer.get$L($L)",
+                                getBufferSuffix(part), index);
+                        break;
+                    }
+                    // find it by skipping the variable fields before it
+                    if (!variableBefore.isEmpty()) {
+                        getter.addStatement("int index = $L", index);
+                        index = "index";
+                    }
+                    for (PacketPart before : variableBefore) {
+                        getter.addStatement(
+                                "index = $T.skip$L(this.buffer, index)",
+                                PacketBuffers.class, getCodecName(before));
+                    }
+                    getter.addStatement("return $T.get$L(this.buffer, $L)",
+                            PacketBuffers.class, getCodecName(part), index)
+                            .addException(IOException.class);
+                    variableBefore.add(part);
+            }
+            if (part.isFixedSize()) {
+                offset += part.getSize();
+            }
+            type.addMethod(getter.build());
+        }
+
+        ClassName packetClassName =
+                ClassName.get(fullPackage, nameBase + "Packet");
+        MethodSpec.Builder toPacket = MethodSpec.methodBuilder("toPacket")
+                .addJavadoc("Copies the fields out into a packet that "
+                        + "outlives the buffer.\n")
+                .addModifiers(PUBLIC).returns(packetClassName)
+                .addStatement("return new $T($L)", packetClassName,
+                        fields.keySet().stream()
+                                .map(name -> "get"
+                                        + Util.uppercaseFirstLetter(name)
+                                        + "()")
+                                .collect(Collectors.joining(", ")));
+        if (variableSize) {
+            toPacket.addException(IOException.class);
+        }
+        type.addMethod(toPacket.build());
+
+        JavaFile fileWriter = JavaFile.builder(fullPackage, type.build())
+                .indent("....".replace('.', ' ')).skipJavaLangImports(true)
+                .addFileComment(JAVADOC, sourceFile).build();
+        try {
+            fileWriter.writeTo(TARGET_DIR);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Stem of the PacketBuffers and PacketStreams methods for parts that
+     * aren't plain primitives, e.g. "VarInt" for putVarInt, or null for
+     * primitives.
+     */
+    private static String getCodecName(PacketPart part) {
+        switch (part) {
+            case STRING:
+                return "UTF";
+            case VARINT:
+                return "VarInt";
+            case VARLONG:
+                return "VarLong";
+            case UUID:
+                return "UUID";
+            case BYTE_ARRAY:
+                return "ByteArray";
+            case INT_ARRAY:
+                return "IntArray";
+            case LONG_ARRAY:
+                return "LongArray";
+            default:
+                return null;
+        }
+    }
+
+    private static String getSizeMethod(PacketPart part) {
+        String codec = getCodecName(part);
+        // utfSize, varIntSize, byteArraySize...
+        return (codec.equals("UTF") ? "utf"
+                : Character.toLowerCase(codec.charAt(0)) + codec.substring(1))
+                + "Size";
+    }
+
     private static String getDataStreamSuffix(PacketPart part) {
-        if (part == PacketPart.STRING) {
-            return "UTF";
+        return Util.uppercaseFirstLetter(part.name().toLowerCase());
+    }
+
+    private static void addStreamWrite(CodeBlock.Builder code,
+            String dataStreamName, String name, PacketPart part) {
+        String codec = getCodecName(part);
+        if (codec == null || part == PacketPart.STRING) {
+            // DataOutputStream has these built in
+            code.addStatement("$L.write$L(this.$L)", dataStreamName,
+                    codec == null ? getDataStreamSuffix(part) : codec, name);
+        } else {
+            code.addStatement("$T.write$L($L, this.$L)", PacketStreams.class,
+                    codec, dataStreamName, name);
+        }
+    }
+
+    private static void addStreamRead(CodeBlock.Builder code,
+            String dataStreamName, String name, TypeName fType,
+            PacketPart part) {
+        String codec = getCodecName(part);
+        if (codec == null || part == PacketPart.STRING) {
+            code.addStatement("$T $L = $L.read$L()", fType, name,
+                    dataStreamName,
+                    codec == null ? getDataStreamSuffix(part) : codec);
+        } else {
+            code.addStatement("$T $L = $T.read$L($L)", fType, name,
+                    PacketStreams.class, codec, dataStreamName);
+        }
+    }
+
+    private static void addBufferWrite(CodeBlock.Builder code,
+            String bufferName, String name, PacketPart part) {
+        String codec = getCodecName(part);
+        if (part == PacketPart.BOOLEAN) {
+            code.addStatement("$L.put((byte) (this.$L ? 1 : 0))", bufferName,
+                    name);
+        } else if (codec != null) {
+            code.addStatement("$T.put$L($L, this.$L)", PacketBuffers.class,
+                    codec, bufferName, name);
+        } else {
+            code.addStatement("$L.put$L(this.$L)", bufferName,
+                    getBufferSuffix(part), name);
+        }
+    }
+
+    private static void addBufferRead(CodeBlock.Builder code,
+            String bufferName, String name, TypeName fType, PacketPart part) {
+        String codec = getCodecName(part);
+        if (part == PacketPart.BOOLEAN) {
+            code.addStatement("$T $L = $L.get() != 0", fType, name,
+                    bufferName);
+        } else if (codec != null) {
+            code.addStatement("$T $L = $T.get$L($L)", fType, name,
+                    PacketBuffers.class, codec, bufferName);
+        } else {
+            code.addStatement("$T $L = $L.get$L()", fType, name, bufferName,
+                    getBufferSuffix(part));
+        }
+    }
+
+    private static String getBufferSuffix(PacketPart part) {
+        // ByteBuffer's byte accessors are the unsuffixed get/put
+        if (part == PacketPart.BYTE) {
+            return "";
         }
         return Util.uppercaseFirstLetter(part.name().toLowerCase());
     }
@@ -4,7 +4,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -22,8 +22,9 @@ public final class PacketData {
 
     public static PacketData read(Path source, int id) throws IOException {
         try (BufferedReader reader = Files.newBufferedReader(source)) {
+            // keep declaration order, it decides the layout below
             Map<String, String> props =
-                    new HashMap<>(Util.readProperties(reader));
+                    new LinkedHashMap<>(Util.readProperties(reader));
             String pipeText =
                     Optional.ofNullable(props.remove("pipe")).orElse("");
             Pipe pipe;
@@ -35,15 +36,14 @@ public final class PacketData {
                         "The pipe '" + pipeText + "' does not exist.",
                         noSuchEnum);
             }
-            ImmutableMap.Builder<String, PacketPart> fields =
-                    ImmutableMap.builder();
+            Map<String, PacketPart> fields = new LinkedHashMap<>();
             props.forEach((k, v) -> {
                 PacketPart part;
                 try {
                     part = PacketPart.getById(v);
                 } catch (IllegalArgumentException e) {
                     try {
-                        part = PacketPart.valueOf(v.toUpperCase());
+                        part = PacketPart.getByName(v);
                     } catch (IllegalArgumentException e2) {
                         e2.addSuppressed(e);
                         throw new IllegalArgumentException(
@@ -52,10 +52,31 @@ public final class PacketData {
                 }
                 fields.put(k, part);
             });
-            return new PacketData(source, fields.build(), pipe, id);
+            return new PacketData(source, layout(fields), pipe, id);
         }
     }
 
+    /*
+     * Fixed-width fields first, so each of them sits at a constant offset.
+     * Otherwise fields stay in declaration order.
+     */
+    private static Map<String, PacketPart> layout(
+            Map<String, PacketPart> fields) {
+        ImmutableMap.Builder<String, PacketPart> layout =
+                ImmutableMap.builder();
+        fields.forEach((name, part) -> {
+            if (part.isFixedSize()) {
+                layout.put(name, part);
+            }
+        });
+        fields.forEach((name, part) -> {
+            if (!part.isFixedSize()) {
+                layout.put(name, part);
+            }
+        });
+        return layout.build();
+    }
+
     private final Path source;
     private final Map<String, PacketPart> fields;
     private final Pipe directionPipe;
@@ -73,6 +94,9 @@ public final class PacketData {
         return source;
     }
 
+    /**
+     * Returns the fields in wire order.
+     */
     public Map<String, PacketPart> getFields() {
         return fields;
     }
@@ -2,14 +2,26 @@ package me.kenzierocks.ttt.packets;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 public enum PacketPart {
 
-    INT("I", int.class), SHORT("S", short.class), LONG("J", long.class),
-    BYTE("B", byte.class), FLOAT("F", float.class), DOUBLE("D", double.class),
-    CHAR("C", char.class), BOOLEAN("Z", boolean.class),
-    STRING("Ljava/lang/String;", String.class);
+    INT("I", int.class, Integer.BYTES), SHORT("S", short.class, Short.BYTES),
+    LONG("J", long.class, Long.BYTES), BYTE("B", byte.class, Byte.BYTES),
+    FLOAT("F", float.class, Float.BYTES),
+    DOUBLE("D", double.class, Double.BYTES),
+    CHAR("C", char.class, Character.BYTES), BOOLEAN("Z", boolean.class, 1),
+    STRING("Ljava/lang/String;", String.class, -1),
+    /*
+     * Zigzag varints, 1 to 5 (or 10) bytes. They have no descriptor of their
+     * own, so these ids are made up.
+     */
+    VARINT("VI", int.class, -1), VARLONG("VJ", long.class, -1),
+    UUID("Ljava/util/UUID;", java.util.UUID.class, 2 * Long.BYTES),
+    // varint length, then the elements
+    BYTE_ARRAY("[B", byte[].class, -1), INT_ARRAY("[I", int[].class, -1),
+    LONG_ARRAY("[J", long[].class, -1);
 
     private static final Map<String, PacketPart> PART_MAP;
     static {
@@ -20,6 +32,15 @@ public enum PacketPart {
         PART_MAP = Collections.unmodifiableMap(map);
     }
 
+    /**
+     * Looks up a part by name, with arrays written as {@code byte[]} and so
+     * on.
+     */
+    public static PacketPart getByName(String name) {
+        return valueOf(
+                name.toUpperCase(Locale.ENGLISH).replace("[]", "_ARRAY"));
+    }
+
     public static PacketPart getById(String id) {
         PacketPart part = PART_MAP.get(id);
         if (part == null) {
@@ -30,10 +51,12 @@ public enum PacketPart {
 
     private final Class<?> javaClass;
     private final String bytecodeId;
+    private final int size;
 
-    PacketPart(String id, Class<?> javaClass) {
+    PacketPart(String id, Class<?> javaClass, int size) {
         this.bytecodeId = id;
         this.javaClass = javaClass;
+        this.size = size;
     }
 
     public String getBytecodeId() {
@@ -44,6 +67,17 @@ public enum PacketPart {
         return javaClass;
     }
 
+    public boolean isFixedSize() {
+        return size >= 0;
+    }
+
+    /**
+     * Returns the encoded size in bytes, or -1 if it depends on the value.
+     */
+    public int getSize() {
+        return size;
+    }
+
     @Override
     public String toString() {
         return this.bytecodeId;
@@ -2,9 +2,16 @@ package me.kenzierocks.ttt.packets;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public interface PacketReader<R extends Packet> {
     
     R read(DataInputStream stream) throws IOException;
 
+    /**
+     * Reads a packet from the buffer's position, leaving the position after
+     * it.
+     */
+    R read(ByteBuffer buffer) throws IOException;
+
 }
@@ -0,0 +1,57 @@
+// Generated from *.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets;
+
+import me.kenzierocks.ttt.packets.c2s.ClientHandshakePacketReader;
+import me.kenzierocks.ttt.packets.c2s.MovePacketReader;
+import me.kenzierocks.ttt.packets.c2s.SpectatePacketReader;
+import me.kenzierocks.ttt.packets.s2c.BoardSnapshotPacketReader;
+import me.kenzierocks.ttt.packets.s2c.GameStartPacketReader;
+import me.kenzierocks.ttt.packets.s2c.MoveMadePacketReader;
+import me.kenzierocks.ttt.packets.s2c.PlayerStandingPacketReader;
+import me.kenzierocks.ttt.packets.s2c.ServerHandshakePacketReader;
+
+/**
+ * Packet readers by id, one table per pipe.
+ */
+public final class PacketRegistry {
+    @SuppressWarnings("unchecked")
+    static final PacketReader<? extends Packet.Server>[] SERVER_TO_CLIENT = (PacketReader<? extends Packet.Server>[]) new PacketReader<?>[] {
+        null,
+        new ServerHandshakePacketReader(),
+        null,
+        new GameStartPacketReader(),
+        new MoveMadePacketReader(),
+        new BoardSnapshotPacketReader(),
+        null,
+        new PlayerStandingPacketReader()
+    };
+
+    @SuppressWarnings("unchecked")
+    static final PacketReader<? extends Packet.Client>[] CLIENT_TO_SERVER = (PacketReader<? extends Packet.Client>[]) new PacketReader<?>[] {
+        new ClientHandshakePacketReader(),
+        null,
+        new MovePacketReader(),
+        null,
+        null,
+        null,
+        new SpectatePacketReader()
+    };
+
+    private PacketRegistry() {
+    }
+
+    /**
+     * Returns the reader for the id, or {@code null} if there is none.
+     */
+    public static PacketReader<? extends Packet.Server> getServerReader(int id) {
+        return id >= 0 && id < SERVER_TO_CLIENT.length ? SERVER_TO_CLIENT[id] : null;
+    }
+
+    /**
+     * Returns the reader for the id, or {@code null} if there is none.
+     */
+    public static PacketReader<? extends Packet.Client> getClientReader(int id) {
+        return id >= 0 && id < CLIENT_TO_SERVER.length ? CLIENT_TO_SERVER[id] : null;
+    }
+}
@@ -0,0 +1,167 @@
+package me.kenzierocks.ttt.packets;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * {@link DataInput}/{@link DataOutput} encodings for the {@link PacketPart}s
+ * that aren't plain primitives, byte for byte the same as
+ * {@link PacketBuffers}.
+ */
+public final class PacketStreams {
+
+    // arrays are copied through buffers of at most this size
+    private static final int CHUNK_SIZE = 8192;
+
+    public static void writeVarInt(DataOutput stream, int value)
+            throws IOException {
+        writeRawVarInt(stream, PacketBuffers.zigZag(value));
+    }
+
+    private static void writeRawVarInt(DataOutput stream, int value)
+            throws IOException {
+        while ((value & ~0x7F) != 0) {
+            stream.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        stream.writeByte(value);
+    }
+
+    public static void writeVarLong(DataOutput stream, long value)
+            throws IOException {
+        long raw = PacketBuffers.zigZag(value);
+        while ((raw & ~0x7FL) != 0) {
+            stream.writeByte((int) (raw & 0x7F | 0x80));
+            raw >>>= 7;
+        }
+        stream.writeByte((int) raw);
+    }
+
+    public static int readVarInt(DataInput stream) throws IOException {
+        return PacketBuffers.unZigZag(readRawVarInt(stream));
+    }
+
+    private static int readRawVarInt(DataInput stream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 7 * PacketBuffers.MAX_VARINT_BYTES;
+                shift += 7) {
+            byte b = stream.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    public static long readVarLong(DataInput stream) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 7 * PacketBuffers.MAX_VARLONG_BYTES;
+                shift += 7) {
+            byte b = stream.readByte();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return PacketBuffers.unZigZag(value);
+            }
+        }
+        throw new IOException("VarLong too long");
+    }
+
+    public static void writeUUID(DataOutput stream, UUID uuid)
+            throws IOException {
+        stream.writeLong(uuid.getMostSignificantBits());
+        stream.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    public static UUID readUUID(DataInput stream) throws IOException {
+        return new UUID(stream.readLong(), stream.readLong());
+    }
+
+    public static void writeByteArray(DataOutput stream, byte[] array)
+            throws IOException {
+        writeRawVarInt(stream, array.length);
+        stream.write(array);
+    }
+
+    public static void writeIntArray(DataOutput stream, int[] array)
+            throws IOException {
+        writeRawVarInt(stream, array.length);
+        ByteBuffer chunk = ByteBuffer.allocate(
+                Math.min(CHUNK_SIZE, array.length * Integer.BYTES));
+        int perChunk = chunk.capacity() / Integer.BYTES;
+        for (int i = 0; i < array.length; i += perChunk) {
+            int count = Math.min(perChunk, array.length - i);
+            chunk.asIntBuffer().put(array, i, count);
+            stream.write(chunk.array(), 0, count * Integer.BYTES);
+        }
+    }
+
+    public static void writeLongArray(DataOutput stream, long[] array)
+            throws IOException {
+        writeRawVarInt(stream, array.length);
+        ByteBuffer chunk = ByteBuffer
+                .allocate(Math.min(CHUNK_SIZE, array.length * Long.BYTES));
+        int perChunk = chunk.capacity() / Long.BYTES;
+        for (int i = 0; i < array.length; i += perChunk) {
+            int count = Math.min(perChunk, array.length - i);
+            chunk.asLongBuffer().put(array, i, count);
+            stream.write(chunk.array(), 0, count * Long.BYTES);
+        }
+    }
+
+    public static byte[] readByteArray(DataInput stream) throws IOException {
+        return readBytes(stream, readArrayLength(stream, Byte.BYTES));
+    }
+
+    public static int[] readIntArray(DataInput stream) throws IOException {
+        int length = readArrayLength(stream, Integer.BYTES);
+        int[] array = new int[length];
+        ByteBuffer.wrap(readBytes(stream, length * Integer.BYTES))
+                .asIntBuffer().get(array);
+        return array;
+    }
+
+    public static long[] readLongArray(DataInput stream) throws IOException {
+        int length = readArrayLength(stream, Long.BYTES);
+        long[] array = new long[length];
+        ByteBuffer.wrap(readBytes(stream, length * Long.BYTES))
+                .asLongBuffer().get(array);
+        return array;
+    }
+
+    private static int readArrayLength(DataInput stream, int elementSize)
+            throws IOException {
+        int length = readRawVarInt(stream);
+        if (length < 0 || length > Integer.MAX_VALUE / elementSize) {
+            throw new IOException(
+                    "Bad array length " + Integer.toUnsignedString(length));
+        }
+        return length;
+    }
+
+    /*
+     * A stream can't say how much is left, so grow the array as the bytes
+     * actually arrive instead of trusting the length up front.
+     */
+    private static byte[] readBytes(DataInput stream, int length)
+            throws IOException {
+        byte[] bytes = new byte[Math.min(length, CHUNK_SIZE)];
+        int read = 0;
+        while (true) {
+            stream.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+            if (read == length) {
+                return bytes;
+            }
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+        }
+    }
+
+    private PacketStreams() {
+    }
+
+}
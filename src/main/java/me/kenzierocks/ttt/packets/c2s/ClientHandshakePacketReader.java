@@ -0,0 +1,25 @@
+// Generated from ClientHandshake.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketReader;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class ClientHandshakePacketReader implements PacketReader<ClientHandshakePacket> {
+    @Override
+    public ClientHandshakePacket read(DataInputStream dataStream) throws IOException {
+        UUID uuid = PacketStreams.readUUID(dataStream);
+        return new ClientHandshakePacket(uuid);
+    }
+
+    @Override
+    public ClientHandshakePacket read(ByteBuffer buffer) throws IOException {
+        UUID uuid = PacketBuffers.getUUID(buffer);
+        return new ClientHandshakePacket(uuid);
+    }
+}
@@ -0,0 +1,30 @@
+// Generated from ClientHandshake.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+
+public final class ClientHandshakePacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public ClientHandshakePacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public UUID getUuid() {
+        return PacketBuffers.getUUID(this.buffer, this.offset);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public ClientHandshakePacket toPacket() {
+        return new ClientHandshakePacket(getUuid());
+    }
+}
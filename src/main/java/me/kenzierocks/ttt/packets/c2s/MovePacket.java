@@ -0,0 +1,53 @@
+// Generated from Move.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+
+public final class MovePacket implements Packet.Client {
+    public static final int ID = 2;
+
+    public static final int SERIALIZED_SIZE = 8;
+
+    private final int x;
+
+    private final int y;
+
+    public MovePacket(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        dataStream.writeInt(this.x);
+        dataStream.writeInt(this.y);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(this.x);
+        buffer.putInt(this.y);
+    }
+
+    @Override
+    public int serializedSize() {
+        return SERIALIZED_SIZE;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+}
@@ -0,0 +1,24 @@
+// Generated from Move.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketReader;
+
+public final class MovePacketReader implements PacketReader<MovePacket> {
+    @Override
+    public MovePacket read(DataInputStream dataStream) throws IOException {
+        int x = dataStream.readInt();
+        int y = dataStream.readInt();
+        return new MovePacket(x, y);
+    }
+
+    @Override
+    public MovePacket read(ByteBuffer buffer) throws IOException {
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        return new MovePacket(x, y);
+    }
+}
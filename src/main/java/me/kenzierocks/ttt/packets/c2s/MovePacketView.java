@@ -0,0 +1,32 @@
+// Generated from Move.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.nio.ByteBuffer;
+
+public final class MovePacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public MovePacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getX() {
+        return this.buffer.getInt(this.offset);
+    }
+
+    public int getY() {
+        return this.buffer.getInt(this.offset + 4);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public MovePacket toPacket() {
+        return new MovePacket(getX(), getY());
+    }
+}
@@ -0,0 +1,49 @@
+// Generated from Spectate.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class SpectatePacket implements Packet.Client {
+    public static final int ID = 6;
+
+    public static final int SERIALIZED_SIZE = 16;
+
+    private final UUID player;
+
+    public SpectatePacket(UUID player) {
+        this.player = checkNotNull(player, "player cannot be null");
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        PacketStreams.writeUUID(dataStream, this.player);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        PacketBuffers.putUUID(buffer, this.player);
+    }
+
+    @Override
+    public int serializedSize() {
+        return SERIALIZED_SIZE;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+}
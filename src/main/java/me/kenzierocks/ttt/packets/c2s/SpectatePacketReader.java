@@ -0,0 +1,25 @@
+// Generated from Spectate.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketReader;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class SpectatePacketReader implements PacketReader<SpectatePacket> {
+    @Override
+    public SpectatePacket read(DataInputStream dataStream) throws IOException {
+        UUID player = PacketStreams.readUUID(dataStream);
+        return new SpectatePacket(player);
+    }
+
+    @Override
+    public SpectatePacket read(ByteBuffer buffer) throws IOException {
+        UUID player = PacketBuffers.getUUID(buffer);
+        return new SpectatePacket(player);
+    }
+}
@@ -0,0 +1,30 @@
+// Generated from Spectate.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.c2s;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+
+public final class SpectatePacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public SpectatePacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public UUID getPlayer() {
+        return PacketBuffers.getUUID(this.buffer, this.offset);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public SpectatePacket toPacket() {
+        return new SpectatePacket(getPlayer());
+    }
+}
@@ -0,0 +1,82 @@
+// Generated from BoardSnapshot.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class BoardSnapshotPacket implements Packet.Server {
+    public static final int ID = 5;
+
+    private final boolean watching;
+
+    private final int rows;
+
+    private final int columns;
+
+    private final int winLength;
+
+    private final int[] moves;
+
+    public BoardSnapshotPacket(boolean watching, int rows, int columns, int winLength, int[] moves) {
+        this.watching = watching;
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.moves = checkNotNull(moves, "moves cannot be null");
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        dataStream.writeBoolean(this.watching);
+        dataStream.writeInt(this.rows);
+        dataStream.writeInt(this.columns);
+        dataStream.writeInt(this.winLength);
+        PacketStreams.writeIntArray(dataStream, this.moves);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        buffer.put((byte) (this.watching ? 1 : 0));
+        buffer.putInt(this.rows);
+        buffer.putInt(this.columns);
+        buffer.putInt(this.winLength);
+        PacketBuffers.putIntArray(buffer, this.moves);
+    }
+
+    @Override
+    public int serializedSize() {
+        return 13 + PacketBuffers.intArraySize(this.moves);
+    }
+
+    public boolean getWatching() {
+        return watching;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+}
@@ -0,0 +1,32 @@
+// Generated from BoardSnapshot.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketReader;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class BoardSnapshotPacketReader implements PacketReader<BoardSnapshotPacket> {
+    @Override
+    public BoardSnapshotPacket read(DataInputStream dataStream) throws IOException {
+        boolean watching = dataStream.readBoolean();
+        int rows = dataStream.readInt();
+        int columns = dataStream.readInt();
+        int winLength = dataStream.readInt();
+        int[] moves = PacketStreams.readIntArray(dataStream);
+        return new BoardSnapshotPacket(watching, rows, columns, winLength, moves);
+    }
+
+    @Override
+    public BoardSnapshotPacket read(ByteBuffer buffer) throws IOException {
+        boolean watching = buffer.get() != 0;
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        int winLength = buffer.getInt();
+        int[] moves = PacketBuffers.getIntArray(buffer);
+        return new BoardSnapshotPacket(watching, rows, columns, winLength, moves);
+    }
+}
@@ -0,0 +1,46 @@
+// Generated from BoardSnapshot.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+
+public final class BoardSnapshotPacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public BoardSnapshotPacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public boolean getWatching() {
+        return this.buffer.get(this.offset) != 0;
+    }
+
+    public int getRows() {
+        return this.buffer.getInt(this.offset + 1);
+    }
+
+    public int getColumns() {
+        return this.buffer.getInt(this.offset + 5);
+    }
+
+    public int getWinLength() {
+        return this.buffer.getInt(this.offset + 9);
+    }
+
+    public int[] getMoves() throws IOException {
+        return PacketBuffers.getIntArray(this.buffer, this.offset + 13);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public BoardSnapshotPacket toPacket() throws IOException {
+        return new BoardSnapshotPacket(getWatching(), getRows(), getColumns(), getWinLength(), getMoves());
+    }
+}
@@ -0,0 +1,71 @@
+// Generated from GameStart.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+
+public final class GameStartPacket implements Packet.Server {
+    public static final int ID = 3;
+
+    public static final int SERIALIZED_SIZE = 14;
+
+    private final int rows;
+
+    private final int columns;
+
+    private final int winLength;
+
+    private final char player;
+
+    public GameStartPacket(int rows, int columns, int winLength, char player) {
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.player = player;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        dataStream.writeInt(this.rows);
+        dataStream.writeInt(this.columns);
+        dataStream.writeInt(this.winLength);
+        dataStream.writeChar(this.player);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(this.rows);
+        buffer.putInt(this.columns);
+        buffer.putInt(this.winLength);
+        buffer.putChar(this.player);
+    }
+
+    @Override
+    public int serializedSize() {
+        return SERIALIZED_SIZE;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public char getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,28 @@
+// Generated from GameStart.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketReader;
+
+public final class GameStartPacketReader implements PacketReader<GameStartPacket> {
+    @Override
+    public GameStartPacket read(DataInputStream dataStream) throws IOException {
+        int rows = dataStream.readInt();
+        int columns = dataStream.readInt();
+        int winLength = dataStream.readInt();
+        char player = dataStream.readChar();
+        return new GameStartPacket(rows, columns, winLength, player);
+    }
+
+    @Override
+    public GameStartPacket read(ByteBuffer buffer) throws IOException {
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        int winLength = buffer.getInt();
+        char player = buffer.getChar();
+        return new GameStartPacket(rows, columns, winLength, player);
+    }
+}
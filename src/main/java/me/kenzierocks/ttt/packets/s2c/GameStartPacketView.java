@@ -0,0 +1,40 @@
+// Generated from GameStart.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.nio.ByteBuffer;
+
+public final class GameStartPacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public GameStartPacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getRows() {
+        return this.buffer.getInt(this.offset);
+    }
+
+    public int getColumns() {
+        return this.buffer.getInt(this.offset + 4);
+    }
+
+    public int getWinLength() {
+        return this.buffer.getInt(this.offset + 8);
+    }
+
+    public char getPlayer() {
+        return this.buffer.getChar(this.offset + 12);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public GameStartPacket toPacket() {
+        return new GameStartPacket(getRows(), getColumns(), getWinLength(), getPlayer());
+    }
+}
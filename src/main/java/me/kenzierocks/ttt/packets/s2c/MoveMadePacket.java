@@ -0,0 +1,71 @@
+// Generated from MoveMade.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+
+public final class MoveMadePacket implements Packet.Server {
+    public static final int ID = 4;
+
+    public static final int SERIALIZED_SIZE = 11;
+
+    private final int x;
+
+    private final int y;
+
+    private final char player;
+
+    private final byte state;
+
+    public MoveMadePacket(int x, int y, char player, byte state) {
+        this.x = x;
+        this.y = y;
+        this.player = player;
+        this.state = state;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        dataStream.writeInt(this.x);
+        dataStream.writeInt(this.y);
+        dataStream.writeChar(this.player);
+        dataStream.writeByte(this.state);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(this.x);
+        buffer.putInt(this.y);
+        buffer.putChar(this.player);
+        buffer.put(this.state);
+    }
+
+    @Override
+    public int serializedSize() {
+        return SERIALIZED_SIZE;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public char getPlayer() {
+        return player;
+    }
+
+    public byte getState() {
+        return state;
+    }
+}
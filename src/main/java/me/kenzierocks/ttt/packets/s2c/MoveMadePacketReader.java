@@ -0,0 +1,28 @@
+// Generated from MoveMade.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketReader;
+
+public final class MoveMadePacketReader implements PacketReader<MoveMadePacket> {
+    @Override
+    public MoveMadePacket read(DataInputStream dataStream) throws IOException {
+        int x = dataStream.readInt();
+        int y = dataStream.readInt();
+        char player = dataStream.readChar();
+        byte state = dataStream.readByte();
+        return new MoveMadePacket(x, y, player, state);
+    }
+
+    @Override
+    public MoveMadePacket read(ByteBuffer buffer) throws IOException {
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        char player = buffer.getChar();
+        byte state = buffer.get();
+        return new MoveMadePacket(x, y, player, state);
+    }
+}
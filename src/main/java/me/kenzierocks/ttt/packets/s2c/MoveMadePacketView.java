@@ -0,0 +1,40 @@
+// Generated from MoveMade.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.nio.ByteBuffer;
+
+public final class MoveMadePacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public MoveMadePacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getX() {
+        return this.buffer.getInt(this.offset);
+    }
+
+    public int getY() {
+        return this.buffer.getInt(this.offset + 4);
+    }
+
+    public char getPlayer() {
+        return this.buffer.getChar(this.offset + 8);
+    }
+
+    public byte getState() {
+        return this.buffer.get(this.offset + 10);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public MoveMadePacket toPacket() {
+        return new MoveMadePacket(getX(), getY(), getPlayer(), getState());
+    }
+}
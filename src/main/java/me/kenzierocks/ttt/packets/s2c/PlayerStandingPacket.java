@@ -0,0 +1,80 @@
+// Generated from PlayerStanding.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class PlayerStandingPacket implements Packet.Server {
+    public static final int ID = 7;
+
+    private final long rank;
+
+    private final long points;
+
+    private final long wins;
+
+    private final long losses;
+
+    private final long ties;
+
+    public PlayerStandingPacket(long rank, long points, long wins, long losses, long ties) {
+        this.rank = rank;
+        this.points = points;
+        this.wins = wins;
+        this.losses = losses;
+        this.ties = ties;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        PacketStreams.writeVarLong(dataStream, this.rank);
+        PacketStreams.writeVarLong(dataStream, this.points);
+        PacketStreams.writeVarLong(dataStream, this.wins);
+        PacketStreams.writeVarLong(dataStream, this.losses);
+        PacketStreams.writeVarLong(dataStream, this.ties);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        PacketBuffers.putVarLong(buffer, this.rank);
+        PacketBuffers.putVarLong(buffer, this.points);
+        PacketBuffers.putVarLong(buffer, this.wins);
+        PacketBuffers.putVarLong(buffer, this.losses);
+        PacketBuffers.putVarLong(buffer, this.ties);
+    }
+
+    @Override
+    public int serializedSize() {
+        return PacketBuffers.varLongSize(this.rank) + PacketBuffers.varLongSize(this.points) + PacketBuffers.varLongSize(this.wins) + PacketBuffers.varLongSize(this.losses) + PacketBuffers.varLongSize(this.ties);
+    }
+
+    public long getRank() {
+        return rank;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+}
@@ -0,0 +1,32 @@
+// Generated from PlayerStanding.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+import me.kenzierocks.ttt.packets.PacketReader;
+import me.kenzierocks.ttt.packets.PacketStreams;
+
+public final class PlayerStandingPacketReader implements PacketReader<PlayerStandingPacket> {
+    @Override
+    public PlayerStandingPacket read(DataInputStream dataStream) throws IOException {
+        long rank = PacketStreams.readVarLong(dataStream);
+        long points = PacketStreams.readVarLong(dataStream);
+        long wins = PacketStreams.readVarLong(dataStream);
+        long losses = PacketStreams.readVarLong(dataStream);
+        long ties = PacketStreams.readVarLong(dataStream);
+        return new PlayerStandingPacket(rank, points, wins, losses, ties);
+    }
+
+    @Override
+    public PlayerStandingPacket read(ByteBuffer buffer) throws IOException {
+        long rank = PacketBuffers.getVarLong(buffer);
+        long points = PacketBuffers.getVarLong(buffer);
+        long wins = PacketBuffers.getVarLong(buffer);
+        long losses = PacketBuffers.getVarLong(buffer);
+        long ties = PacketBuffers.getVarLong(buffer);
+        return new PlayerStandingPacket(rank, points, wins, losses, ties);
+    }
+}
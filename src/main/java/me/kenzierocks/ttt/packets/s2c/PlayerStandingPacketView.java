@@ -0,0 +1,60 @@
+// Generated from PlayerStanding.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketBuffers;
+
+public final class PlayerStandingPacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public PlayerStandingPacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public long getRank() throws IOException {
+        return PacketBuffers.getVarLong(this.buffer, this.offset);
+    }
+
+    public long getPoints() throws IOException {
+        int index = this.offset;
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        return PacketBuffers.getVarLong(this.buffer, index);
+    }
+
+    public long getWins() throws IOException {
+        int index = this.offset;
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        return PacketBuffers.getVarLong(this.buffer, index);
+    }
+
+    public long getLosses() throws IOException {
+        int index = this.offset;
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        return PacketBuffers.getVarLong(this.buffer, index);
+    }
+
+    public long getTies() throws IOException {
+        int index = this.offset;
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        index = PacketBuffers.skipVarLong(this.buffer, index);
+        return PacketBuffers.getVarLong(this.buffer, index);
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public PlayerStandingPacket toPacket() throws IOException {
+        return new PlayerStandingPacket(getRank(), getPoints(), getWins(), getLosses(), getTies());
+    }
+}
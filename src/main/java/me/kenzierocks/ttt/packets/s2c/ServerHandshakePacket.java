@@ -0,0 +1,44 @@
+// Generated from ServerHandshake.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.Packet;
+
+public final class ServerHandshakePacket implements Packet.Server {
+    public static final int ID = 1;
+
+    public static final int SERIALIZED_SIZE = 1;
+
+    private final boolean ok;
+
+    public ServerHandshakePacket(boolean ok) {
+        this.ok = ok;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void write(DataOutputStream dataStream) throws IOException {
+        dataStream.writeBoolean(this.ok);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) {
+        buffer.put((byte) (this.ok ? 1 : 0));
+    }
+
+    @Override
+    public int serializedSize() {
+        return SERIALIZED_SIZE;
+    }
+
+    public boolean getOk() {
+        return ok;
+    }
+}
@@ -0,0 +1,22 @@
+// Generated from ServerHandshake.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import me.kenzierocks.ttt.packets.PacketReader;
+
+public final class ServerHandshakePacketReader implements PacketReader<ServerHandshakePacket> {
+    @Override
+    public ServerHandshakePacket read(DataInputStream dataStream) throws IOException {
+        boolean ok = dataStream.readBoolean();
+        return new ServerHandshakePacket(ok);
+    }
+
+    @Override
+    public ServerHandshakePacket read(ByteBuffer buffer) throws IOException {
+        boolean ok = buffer.get() != 0;
+        return new ServerHandshakePacket(ok);
+    }
+}
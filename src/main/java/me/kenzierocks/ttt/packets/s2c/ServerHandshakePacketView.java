@@ -0,0 +1,28 @@
+// Generated from ServerHandshake.packet
+// 	 on Sun, 18 Oct 2026 12:47:21 GMT
+package me.kenzierocks.ttt.packets.s2c;
+
+import java.nio.ByteBuffer;
+
+public final class ServerHandshakePacketView {
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    public ServerHandshakePacketView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public boolean getOk() {
+        return this.buffer.get(this.offset) != 0;
+    }
+
+    /**
+     * Copies the fields out into a packet that outlives the buffer.
+     */
+    public ServerHandshakePacket toPacket() {
+        return new ServerHandshakePacket(getOk());
+    }
+}
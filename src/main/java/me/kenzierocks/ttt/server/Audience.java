@@ -0,0 +1,155 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.s2c.BoardSnapshotPacket;
+
+/**
+ * The spectators of one game, only used where the game is hosted. A broadcast
+ * is encoded once into a {@link SharedFrame} that every spectator's queue
+ * shares, however many are watching. Spectators of the game's own lobby are
+ * sent it directly, and any other is handed it through
+ * {@link Connection#execute(Runnable)}.
+ */
+final class Audience {
+
+    private static final Connection[] NO_SPECTATORS = new Connection[0];
+
+    @Nullable
+    private final Lobby lobby;
+    @Nullable
+    private final BufferPool framePool;
+    private final Set<Connection> spectators = new LinkedHashSet<>();
+    // what broadcasts walk, rebuilt after changes so that spectators dropped
+    // in the middle of one don't disturb it
+    @Nullable
+    private Connection[] local = NO_SPECTATORS;
+    private Connection[] remote = NO_SPECTATORS;
+
+    /**
+     * @param lobby the lobby hosting the game, if it is hosted by one
+     * @param framePool where broadcasts to the lobby's spectators are encoded
+     *        to, if the lobby is confined to the pool's thread
+     */
+    Audience(@Nullable Lobby lobby, @Nullable BufferPool framePool) {
+        this.lobby = lobby;
+        this.framePool = framePool;
+    }
+
+    void add(Connection spectator) {
+        if (this.spectators.add(spectator)) {
+            this.local = null;
+        }
+    }
+
+    void remove(Connection spectator) {
+        if (this.spectators.remove(spectator)) {
+            this.local = null;
+        }
+    }
+
+    /**
+     * Sends a packet to one spectator, whether it is in the audience yet or
+     * not.
+     */
+    void send(Connection spectator, Packet.Server packet) {
+        if (spectator.getLobby() == this.lobby) {
+            spectator.send(packet);
+        } else {
+            spectator.execute(() -> spectator.send(packet));
+        }
+    }
+
+    /**
+     * Sends away a spectator who came for a game that is already over.
+     */
+    void turnAway(Connection spectator) {
+        BoardSnapshotPacket none =
+                new BoardSnapshotPacket(false, 0, 0, 0, new int[0]);
+        if (spectator.getLobby() == this.lobby) {
+            spectator.send(none);
+            spectator.stopWatching();
+        } else {
+            spectator.execute(() -> {
+                spectator.send(none);
+                spectator.stopWatching();
+            });
+        }
+    }
+
+    void broadcast(Packet.Server packet) {
+        partition();
+        Connection[] local = this.local;
+        Connection[] remote = this.remote;
+        if (local.length > 0) {
+            SharedFrame frame = SharedFrame.encode(packet, this.framePool);
+            try {
+                for (Connection spectator : local) {
+                    spectator.sendShared(frame);
+                }
+            } finally {
+                frame.release();
+            }
+        }
+        if (remote.length > 0) {
+            // released on the spectators' threads, so never pooled
+            SharedFrame frame = SharedFrame.encode(packet, null);
+            try {
+                for (Connection spectator : remote) {
+                    frame.retain();
+                    spectator.execute(() -> {
+                        try {
+                            spectator.sendShared(frame);
+                        } finally {
+                            frame.release();
+                        }
+                    });
+                }
+            } finally {
+                frame.release();
+            }
+        }
+    }
+
+    /**
+     * Sends every spectator away, once the game is over.
+     */
+    void dismiss() {
+        partition();
+        Connection[] local = this.local;
+        Connection[] remote = this.remote;
+        this.spectators.clear();
+        this.local = NO_SPECTATORS;
+        this.remote = NO_SPECTATORS;
+        for (Connection spectator : local) {
+            spectator.stopWatching();
+        }
+        for (Connection spectator : remote) {
+            spectator.execute(spectator::stopWatching);
+        }
+    }
+
+    private void partition() {
+        if (this.local != null) {
+            return;
+        }
+        List<Connection> local = new ArrayList<>();
+        List<Connection> remote = new ArrayList<>();
+        for (Connection spectator : this.spectators) {
+            if (spectator.getLobby() == this.lobby) {
+                local.add(spectator);
+            } else {
+                remote.add(spectator);
+            }
+        }
+        this.local = local.toArray(NO_SPECTATORS);
+        this.remote = remote.toArray(NO_SPECTATORS);
+    }
+
+}
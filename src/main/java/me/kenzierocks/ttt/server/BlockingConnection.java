@@ -0,0 +1,404 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.ByteStreams;
+
+import me.kenzierocks.ttt.journal.MoveJournal;
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.metrics.PacketMetrics;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.PacketReader;
+import me.kenzierocks.ttt.packets.PacketRegistry;
+
+/**
+ * Blocking connection, read by a thread of its own.
+ *
+ * <p>
+ * Protocol handling for every connection in a {@link Shard} happens under the
+ * shard's lock. Packets sent meanwhile are only queued until the lock is
+ * released. The handling thread then writes its own connection's packets,
+ * and every other connection's are written by a flush task of that
+ * connection on the executor. A client that stops reading only ever stalls
+ * the threads writing to it, never the rest of its shard.
+ * </p>
+ *
+ * <p>
+ * Everything queued while the lock was held goes out in one flush, so every
+ * {@link FlushPolicy} is treated as immediate.
+ * </p>
+ *
+ * <p>
+ * Locks are {@link ReentrantLock}s rather than monitors, since a virtual
+ * thread blocked entering a monitor pins its carrier on older JVMs.
+ * </p>
+ */
+final class BlockingConnection extends Connection implements Runnable {
+
+    /**
+     * A lobby, the lock guarding it and the connections with packets queued
+     * under that lock.
+     */
+    static final class Shard {
+
+        private final Lobby lobby;
+        private final Lock lock = new ReentrantLock();
+        @Nullable
+        private final MoveJournal journal;
+        private final List<BlockingConnection> pendingFlush =
+                new ArrayList<>();
+
+        Shard(ServerConfig config, int index, Leaderboard leaderboard,
+                SessionIndex sessions, @Nullable ShardedHosting hosting)
+                throws IOException {
+            // hosted games are journaled by their shards
+            this.journal = hosting == null
+                    ? Journals.open(config, "shard-" + index) : null;
+            this.lobby = new Lobby(config, null, this.journal, leaderboard,
+                    sessions, hosting);
+        }
+
+        /**
+         * Closes the journal, once no connection is left.
+         */
+        void close() {
+            this.lock.lock();
+            try {
+                if (this.journal != null) {
+                    this.journal.close();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private BlockingConnection[] drainPendingFlush() {
+            BlockingConnection[] pending = this.pendingFlush
+                    .toArray(new BlockingConnection[this.pendingFlush.size()]);
+            this.pendingFlush.clear();
+            return pending;
+        }
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(BlockingConnection.class);
+
+    private final Shard shard;
+    private final Socket socket;
+    private final DataOutputStream output;
+    // held by whichever thread is flushing
+    private final Lock outputLock = new ReentrantLock();
+    // runs flushes asked for by other connections' threads
+    private final Executor executor;
+    // Packet.Servers and SharedFrames, in the order they were sent
+    private final Queue<Object> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedSharedBytes = new AtomicInteger();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    // handed over by other threads, run in order under the shard's lock
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean tasksQueued = new AtomicBoolean();
+    private volatile boolean closeWhenFlushed;
+
+    BlockingConnection(Shard shard, Socket socket, Executor executor)
+            throws IOException {
+        super(shard.lobby);
+        this.shard = shard;
+        this.socket = socket;
+        this.executor = executor;
+        this.output = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    @Override
+    public void run() {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(this.socket.getInputStream()))) {
+            while (this.open.get()) {
+                Packet.Client packet = readPacket(input);
+                if (packet == null) {
+                    break;
+                }
+                BlockingConnection[] pending;
+                this.shard.lock.lock();
+                try {
+                    handle(packet);
+                    pending = this.shard.drainPendingFlush();
+                } finally {
+                    this.shard.lock.unlock();
+                }
+                flushAll(pending);
+            }
+        } catch (IOException e) {
+            if (this.open.get()) {
+                LOGGER.debug("Read failed, closing {}", this.socket, e);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error handling {}, closing it", this.socket, e);
+        } finally {
+            closeAndFlush();
+        }
+    }
+
+    /*
+     * Returns null on a clean end of stream.
+     */
+    private static Packet.Client readPacket(DataInputStream input)
+            throws IOException {
+        int length;
+        try {
+            length = input.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < Frames.ID_BYTES || length > Frames.MAX_FRAME_LENGTH) {
+            throw new IOException("Bad frame length " + length);
+        }
+        int id = input.readInt();
+        PacketReader<? extends Packet.Client> reader =
+                PacketRegistry.getClientReader(id);
+        if (reader == null) {
+            throw new IOException("Unknown packet id " + id);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        // keep the reader inside its frame, and skip anything it leaves
+        InputStream payload =
+                ByteStreams.limit(input, length - Frames.ID_BYTES);
+        Packet.Client packet = reader.read(new DataInputStream(payload));
+        ByteStreams.exhaust(payload);
+        if (Metrics.ENABLED) {
+            PacketMetrics.decoded(id, Frames.LENGTH_BYTES + length,
+                    System.nanoTime() - start);
+        }
+        return packet;
+    }
+
+    private void closeAndFlush() {
+        BlockingConnection[] pending;
+        this.shard.lock.lock();
+        try {
+            close();
+            pending = this.shard.drainPendingFlush();
+        } finally {
+            this.shard.lock.unlock();
+        }
+        flushAll(pending);
+    }
+
+    private void flushAll(BlockingConnection[] connections) {
+        for (BlockingConnection connection : connections) {
+            if (connection == this) {
+                flush();
+            } else {
+                connection.flushLater();
+            }
+        }
+    }
+
+    /*
+     * Has a task of this connection flush it, so that a full socket blocks
+     * that task rather than the thread of whoever sent to it.
+     */
+    private void flushLater() {
+        if (!this.flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                // anything queued from here on needs another task
+                this.flushQueued.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            this.flushQueued.set(false);
+            closeSocket();
+            discardQueued();
+        }
+    }
+
+    @Override
+    void execute(Runnable task) {
+        this.tasks.add(task);
+        if (!this.tasksQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.executor.execute(this::runTasks);
+        } catch (RejectedExecutionException e) {
+            // shutting down, nobody is left to tell
+            this.tasksQueued.set(false);
+            this.tasks.clear();
+        }
+    }
+
+    private void runTasks() {
+        // anything handed over from here on needs another run
+        this.tasksQueued.set(false);
+        BlockingConnection[] pending;
+        this.shard.lock.lock();
+        try {
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error handling {}, closing it", this.socket,
+                            e);
+                    close();
+                }
+            }
+            pending = this.shard.drainPendingFlush();
+        } finally {
+            this.shard.lock.unlock();
+        }
+        flushAll(pending);
+    }
+
+    @Override
+    void send(Packet.Server packet, FlushPolicy policy) {
+        if (!this.open.get()) {
+            return;
+        }
+        this.writeQueue.add(packet);
+        this.shard.pendingFlush.add(this);
+    }
+
+    @Override
+    void sendShared(SharedFrame frame) {
+        if (!this.open.get()) {
+            return;
+        }
+        // only grows while a flush is stuck on a full socket
+        if (this.queuedSharedBytes.get() + frame.size() > this.shard.lobby
+                .getConfig().getSpectatorBacklog()) {
+            LOGGER.debug("{} fell behind, dropping it", this.socket);
+            close();
+            return;
+        }
+        this.queuedSharedBytes.addAndGet(frame.size());
+        this.writeQueue.add(frame.retain());
+        this.shard.pendingFlush.add(this);
+    }
+
+    private void flush() {
+        this.outputLock.lock();
+        try {
+            Object next;
+            while ((next = this.writeQueue.poll()) != null) {
+                if (next instanceof SharedFrame) {
+                    writeShared((SharedFrame) next);
+                    continue;
+                }
+                Packet.Server packet = (Packet.Server) next;
+                long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                int length = Frames.ID_BYTES + packet.serializedSize();
+                this.output.writeInt(length);
+                this.output.writeInt(packet.getId());
+                packet.write(this.output);
+                if (Metrics.ENABLED) {
+                    PacketMetrics.encoded(packet.getId(),
+                            Frames.LENGTH_BYTES + length,
+                            System.nanoTime() - start);
+                }
+            }
+            this.output.flush();
+        } catch (IOException e) {
+            LOGGER.debug("Write failed, closing {}", this.socket, e);
+            closeSocket();
+            discardQueued();
+            return;
+        } finally {
+            this.outputLock.unlock();
+        }
+        if (this.closeWhenFlushed) {
+            closeSocket();
+        }
+    }
+
+    private void writeShared(SharedFrame frame) throws IOException {
+        try {
+            frame.writeTo(this.output);
+        } finally {
+            this.queuedSharedBytes.addAndGet(-frame.size());
+            frame.release();
+        }
+    }
+
+    private void discardQueued() {
+        Object next;
+        while ((next = this.writeQueue.poll()) != null) {
+            if (next instanceof SharedFrame) {
+                SharedFrame frame = (SharedFrame) next;
+                this.queuedSharedBytes.addAndGet(-frame.size());
+                frame.release();
+            }
+        }
+    }
+
+    @Override
+    void closeWhenFlushed() {
+        this.closeWhenFlushed = true;
+        this.shard.pendingFlush.add(this);
+    }
+
+    /*
+     * Must hold the shard's lock, like every other protocol call. Flushes
+     * only close the socket, leaving the reading thread to notice and get
+     * here, so this may run more than once.
+     */
+    @Override
+    void close() {
+        closeSocket();
+        discardQueued();
+        closed();
+    }
+
+    /**
+     * Closes the connection from outside of protocol handling.
+     */
+    void shutdown() {
+        this.shard.lock.lock();
+        try {
+            close();
+        } finally {
+            this.shard.lock.unlock();
+        }
+    }
+
+    private void closeSocket() {
+        if (!this.open.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close {}", this.socket, e);
+        }
+    }
+
+}
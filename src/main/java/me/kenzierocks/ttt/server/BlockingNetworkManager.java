@@ -0,0 +1,187 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.packets.NetworkManager;
+
+/**
+ * Serves every client from a thread of its own, doing plain blocking reads
+ * and writes. Runs on virtual threads when the JVM has them, otherwise on a
+ * cached pool of platform threads.
+ *
+ * <p>
+ * Connections are dealt round-robin over as many {@link BlockingConnection.
+ * Shard shards} as the config has event loops, and only contend with the
+ * connections in their own shard.
+ * </p>
+ */
+public final class BlockingNetworkManager implements NetworkManager {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(BlockingNetworkManager.class);
+
+    // how long to wait after a failed accept, doubling while they keep failing
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private final ServerConfig config;
+    private final Set<BlockingConnection> connections =
+            ConcurrentHashMap.newKeySet();
+    private ServerSocket server;
+    private BlockingConnection.Shard[] shards;
+    private ExecutorService executor;
+    private Leaderboard leaderboard;
+    @Nullable
+    private ShardedHosting hosting;
+    @Nullable
+    private Closeable leaderboardSaves;
+    private Thread acceptor;
+
+    public BlockingNetworkManager(ServerConfig config) {
+        this.config = config;
+    }
+
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            // Java 21+, looked up reflectively since we target Java 8
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("ttt-connection-%d").setDaemon(true)
+                    .build());
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        checkState(this.server == null, "Already started");
+        Journals.recover(this.config);
+        this.leaderboard = Leaderboards.load(this.config);
+        this.server = new ServerSocket();
+        this.server.setReuseAddress(true);
+        this.server.bind(this.config.getAddress(), 1024);
+        SessionIndex sessions = new SessionIndex();
+        this.hosting =
+                ShardedHosting.start(this.config, this.leaderboard, sessions);
+        this.shards = new BlockingConnection.Shard[this.config.getEventLoops()];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new BlockingConnection.Shard(this.config, i,
+                    this.leaderboard, sessions, this.hosting);
+        }
+        this.leaderboardSaves =
+                Leaderboards.startSaving(this.config, this.leaderboard);
+        this.executor = newConnectionExecutor();
+        this.acceptor = new Thread(this::acceptLoop, "ttt-acceptor");
+        this.acceptor.start();
+        LOGGER.info("Listening on {} with a thread per connection",
+                getAddress());
+    }
+
+    private void acceptLoop() {
+        int nextShard = 0;
+        long backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+        while (!this.server.isClosed()) {
+            Socket socket;
+            try {
+                socket = this.server.accept();
+            } catch (IOException e) {
+                if (this.server.isClosed()) {
+                    // closed by close()
+                    return;
+                }
+                // such as running out of file descriptors, which takes
+                // connections closing rather than retrying at once
+                LOGGER.warn("Accept failed, retrying in {}ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    // woken by close()
+                }
+                backoff = Math.min(2 * backoff, MAX_ACCEPT_BACKOFF_MILLIS);
+                continue;
+            }
+            backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+            BlockingConnection.Shard shard = this.shards[nextShard];
+            nextShard = (nextShard + 1) % this.shards.length;
+            try {
+                socket.setTcpNoDelay(true);
+                BlockingConnection connection =
+                        new BlockingConnection(shard, socket, this.executor);
+                this.connections.add(connection);
+                this.executor.execute(() -> {
+                    try {
+                        connection.run();
+                    } finally {
+                        this.connections.remove(connection);
+                    }
+                });
+            } catch (IOException | RejectedExecutionException e) {
+                LOGGER.debug("Failed to set up {}", socket, e);
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        checkState(this.server != null, "Not started");
+        return (InetSocketAddress) this.server.getLocalSocketAddress();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.server == null) {
+            return;
+        }
+        this.server.close();
+        // in case it is waiting to retry a failed accept
+        this.acceptor.interrupt();
+        try {
+            this.acceptor.join();
+            for (BlockingConnection connection : this.connections) {
+                connection.shutdown();
+            }
+            this.executor.shutdown();
+            this.executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (BlockingConnection.Shard shard : this.shards) {
+            shard.close();
+        }
+        if (this.hosting != null) {
+            this.hosting.close();
+        }
+        if (this.leaderboardSaves != null) {
+            this.leaderboardSaves.close();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Free list of equally sized direct buffers, owned by a single thread.
+ * Direct buffers go straight to the socket, where heap buffers would be
+ * copied into a temporary direct one on every write.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    BufferPool(int bufferSize, int maxPooled) {
+        checkArgument(bufferSize > 0, "bufferSize must be positive");
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Returns a cleared buffer of {@link #getBufferSize()} bytes.
+     */
+    ByteBuffer acquire() {
+        // most recently released first, it's the likeliest to be cached
+        ByteBuffer buffer = this.free.pollFirst();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(this.bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Takes back a buffer. Ones that didn't come from the pool are dropped.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == this.bufferSize
+                && this.free.size() < this.maxPooled) {
+            this.free.addFirst(buffer);
+        }
+    }
+
+}
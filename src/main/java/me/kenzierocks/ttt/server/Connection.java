@@ -0,0 +1,196 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.UUID;
+
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.c2s.ClientHandshakePacket;
+import me.kenzierocks.ttt.packets.c2s.MovePacket;
+import me.kenzierocks.ttt.packets.c2s.SpectatePacket;
+import me.kenzierocks.ttt.packets.s2c.BoardSnapshotPacket;
+import me.kenzierocks.ttt.packets.s2c.ServerHandshakePacket;
+
+/**
+ * Protocol state of one client, independent of how its bytes are moved.
+ * Clients must handshake first, then wait in the {@link Lobby} until they are
+ * paired into a {@link Session}. Spectators send a {@link SpectatePacket}
+ * instead of the handshake, and are disconnected when their game ends.
+ *
+ * <p>
+ * None of this is locked. Calls for connections that share a lobby must never
+ * overlap, so transports either confine a lobby to one thread or guard it with
+ * a lock. Anything else, such as a game hosted on a {@link GameRegistry}
+ * shard, hands its calls over through {@link #execute(Runnable)}.
+ * </p>
+ */
+abstract class Connection {
+
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
+    private enum State {
+        HANDSHAKE, LOBBY, PLAYING, SPECTATING, CLOSED;
+    }
+
+    private final Lobby lobby;
+    private State state = State.HANDSHAKE;
+    private UUID uuid;
+    private Session session;
+    private char mark;
+
+    protected Connection(Lobby lobby) {
+        this.lobby = lobby;
+    }
+
+    Lobby getLobby() {
+        return lobby;
+    }
+
+    UUID getUuid() {
+        return uuid;
+    }
+
+    char getMark() {
+        return mark;
+    }
+
+    final void handle(Packet.Client packet) {
+        switch (this.state) {
+            case HANDSHAKE:
+                if (packet instanceof ClientHandshakePacket) {
+                    handshake((ClientHandshakePacket) packet);
+                } else if (packet instanceof SpectatePacket) {
+                    spectate((SpectatePacket) packet);
+                } else {
+                    close();
+                }
+                break;
+            case PLAYING:
+                if (packet instanceof MovePacket) {
+                    MovePacket move = (MovePacket) packet;
+                    handleMove(move.getX(), move.getY());
+                }
+                break;
+            case LOBBY:
+                // nothing to do until there's a game
+                break;
+            case SPECTATING:
+                // spectators only listen
+                break;
+            case CLOSED:
+                break;
+            default:
+                throw new IllegalStateException("Unknown state " + this.state);
+        }
+    }
+
+    /**
+     * Handles a move without a packet, for transports that read it in place.
+     */
+    final void handleMove(int x, int y) {
+        if (this.state == State.HANDSHAKE) {
+            close();
+        } else if (this.state == State.PLAYING) {
+            this.session.move(this, x, y);
+        }
+    }
+
+    private void handshake(ClientHandshakePacket packet) {
+        UUID id = packet.getUuid();
+        // the nil UUID is what a client that never set one sends
+        boolean accepted = !NIL_UUID.equals(id);
+        send(new ServerHandshakePacket(accepted));
+        if (!accepted) {
+            closeWhenFlushed();
+            return;
+        }
+        this.uuid = id;
+        this.state = State.LOBBY;
+        this.lobby.join(this);
+    }
+
+    private void spectate(SpectatePacket packet) {
+        Session session = this.lobby.findSession(packet.getPlayer());
+        if (session == null) {
+            send(new BoardSnapshotPacket(false, 0, 0, 0, new int[0]));
+            closeWhenFlushed();
+            return;
+        }
+        this.session = session;
+        this.state = State.SPECTATING;
+        session.watch(this);
+    }
+
+    /**
+     * Called by the audience when the watched game is over.
+     */
+    final void stopWatching() {
+        this.session = null;
+        closeWhenFlushed();
+    }
+
+    final void joinSession(Session session, char mark) {
+        this.mark = mark;
+        if (this.state == State.CLOSED) {
+            // gone before the game it was paired into got here
+            session.abandon(this);
+            return;
+        }
+        this.session = session;
+        this.state = State.PLAYING;
+    }
+
+    /**
+     * Goes back to the lobby, unless the connection has moved on from the
+     * session already.
+     */
+    final void leaveSession(Session session) {
+        if (this.session != session) {
+            return;
+        }
+        this.session = null;
+        if (this.state == State.PLAYING) {
+            this.state = State.LOBBY;
+            this.lobby.join(this);
+        }
+    }
+
+    /**
+     * Must be called by the transport once the connection is gone.
+     */
+    final void closed() {
+        State previous = this.state;
+        this.state = State.CLOSED;
+        if (previous == State.PLAYING) {
+            this.session.abandon(this);
+        } else if (previous == State.LOBBY) {
+            this.lobby.leave(this);
+        } else if (previous == State.SPECTATING && this.session != null) {
+            this.session.unwatch(this);
+        }
+    }
+
+    /**
+     * Runs the task where this connection may be called, after the tasks
+     * handed over before it. May be called from any thread.
+     */
+    abstract void execute(Runnable task);
+
+    /**
+     * Sends a packet with {@link FlushPolicy#IMMEDIATE}.
+     */
+    final void send(Packet.Server packet) {
+        send(packet, FlushPolicy.IMMEDIATE);
+    }
+
+    abstract void send(Packet.Server packet, FlushPolicy policy);
+
+    /**
+     * Queues a broadcast frame for a spectator, retaining it until written.
+     * Spectators too far behind to take it are dropped instead.
+     */
+    abstract void sendShared(SharedFrame frame);
+
+    abstract void closeWhenFlushed();
+
+    abstract void close();
+
+}
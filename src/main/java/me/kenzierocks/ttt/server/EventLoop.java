@@ -0,0 +1,271 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.journal.MoveJournal;
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.metrics.Counter;
+import me.kenzierocks.ttt.metrics.Histogram;
+import me.kenzierocks.ttt.metrics.Metrics;
+
+/**
+ * A single thread multiplexing many connections over one {@link Selector}.
+ * Every connection, lobby and game on the loop is only touched by its thread,
+ * so none of them need locking. Other threads hand work over through
+ * {@link #execute(Runnable)}.
+ *
+ * <p>
+ * Packets sent during a tick are only queued. Once the tick's keys and tasks
+ * are handled, every connection with output due is flushed, so each gets at
+ * most one write per tick however many packets it was sent.
+ * </p>
+ */
+final class EventLoop implements Runnable {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(EventLoop.class);
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_WRITE_BUFFERS = 256;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Lobby lobby;
+    private final ServerConfig config;
+    private final BufferPool writeBuffers =
+            new BufferPool(WRITE_BUFFER_SIZE, MAX_POOLED_WRITE_BUFFERS);
+    private final List<SelectorConnection> pendingFlush = new ArrayList<>();
+    private final OutboundQueue.Totals writeTotals;
+    @Nullable
+    private final MoveJournal journal;
+    private final Thread thread;
+    private final Counter wakeups;
+    // tasks and ready keys found on each wakeup
+    private final Histogram queueDepth;
+    private final Histogram readyKeys;
+    private volatile boolean running = true;
+
+    EventLoop(int index, ServerConfig config, Leaderboard leaderboard,
+            SessionIndex sessions, @Nullable ShardedHosting hosting)
+            throws IOException {
+        this.selector = Selector.open();
+        // hosted games are journaled by their shards
+        this.journal = hosting == null ? Journals.open(config, "loop-" + index)
+                : null;
+        this.lobby = new Lobby(config, this.writeBuffers, this.journal,
+                leaderboard, sessions, hosting);
+        this.config = config;
+        this.thread = new Thread(this, "ttt-event-loop-" + index);
+        this.writeTotals = new OutboundQueue.Totals("loop-" + index);
+        this.wakeups = Metrics.counter("loop-" + index + ".wakeups");
+        this.queueDepth = Metrics.histogram("loop-" + index + ".queueDepth");
+        this.readyKeys = Metrics.histogram("loop-" + index + ".readyKeys");
+    }
+
+    ServerConfig getConfig() {
+        return this.config;
+    }
+
+    BufferPool getWriteBuffers() {
+        return this.writeBuffers;
+    }
+
+    OutboundQueue.Totals getWriteTotals() {
+        return this.writeTotals;
+    }
+
+    void start() {
+        this.thread.start();
+    }
+
+    void execute(Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Registers a server channel on this loop, handing every accepted channel
+     * to {@code onAccept} on this loop's thread.
+     */
+    void registerAcceptor(ServerSocketChannel server,
+            Consumer<SocketChannel> onAccept) {
+        execute(() -> {
+            try {
+                server.register(this.selector, SelectionKey.OP_ACCEPT,
+                        onAccept);
+            } catch (IOException e) {
+                LOGGER.error("Failed to register acceptor", e);
+            }
+        });
+    }
+
+    /**
+     * Takes over an accepted channel. May be called from any thread.
+     */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                SelectionKey key =
+                        channel.register(this.selector, SelectionKey.OP_READ);
+                key.attach(new SelectorConnection(this, this.lobby, channel,
+                        key));
+            } catch (IOException e) {
+                LOGGER.debug("Failed to register {}", channel, e);
+                closeQuietly(channel);
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        try {
+            long flushDelay = -1;
+            while (this.running) {
+                if (flushDelay < 0) {
+                    this.selector.select();
+                } else {
+                    // round up, select(0) would wait forever
+                    this.selector.select(Math.max(1, TimeUnit.NANOSECONDS
+                            .toMillis(flushDelay + 999_999)));
+                }
+                int tasks = runTasks();
+                if (Metrics.ENABLED) {
+                    this.wakeups.increment();
+                    this.queueDepth.record(tasks);
+                    this.readyKeys.record(this.selector.selectedKeys().size());
+                }
+                Iterator<SelectionKey> keys =
+                        this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+                flushDelay = flushPending(System.nanoTime());
+            }
+        } catch (IOException e) {
+            LOGGER.error("Event loop failed", e);
+        } finally {
+            for (SelectionKey key : this.selector.keys()) {
+                if (key.attachment() instanceof SelectorConnection) {
+                    ((SelectorConnection) key.attachment()).close();
+                }
+            }
+            closeQuietly(this.selector);
+            if (this.journal != null) {
+                this.journal.close();
+            }
+        }
+    }
+
+    private int runTasks() {
+        int ran = 0;
+        Runnable task;
+        while ((task = this.tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Error running task {}", task, e);
+            }
+            ran++;
+        }
+        return ran;
+    }
+
+    /**
+     * Has the connection's output checked at the end of every tick until it
+     * is written.
+     */
+    void scheduleFlush(SelectorConnection connection) {
+        this.pendingFlush.add(connection);
+    }
+
+    /*
+     * Returns the nanoseconds until the next batch is due, or -1 if none is
+     * waiting. Flushing can close connections and so start games, which
+     * schedules more flushes, so the list may grow while it is walked.
+     */
+    private long flushPending(long now) {
+        List<SelectorConnection> pending = this.pendingFlush;
+        long next = -1;
+        int kept = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            SelectorConnection connection = pending.get(i);
+            long delay = connection.flushIfDue(now);
+            if (delay >= 0) {
+                pending.set(kept++, connection);
+                next = next < 0 ? delay : Math.min(next, delay);
+            }
+        }
+        pending.subList(kept, pending.size()).clear();
+        return next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(SelectionKey key) {
+        Object attachment = key.attachment();
+        if (attachment instanceof SelectorConnection) {
+            SelectorConnection connection = (SelectorConnection) attachment;
+            try {
+                if (key.isWritable()) {
+                    connection.onWritable();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable();
+                }
+            } catch (RuntimeException e) {
+                // one broken client must not take the loop down with it
+                LOGGER.error("Error handling {}, closing it", key.channel(),
+                        e);
+                connection.close();
+            }
+        } else if (key.isAcceptable()) {
+            ServerSocketChannel server = (ServerSocketChannel) key.channel();
+            SocketChannel channel;
+            try {
+                while ((channel = server.accept()) != null) {
+                    ((Consumer<SocketChannel>) attachment).accept(channel);
+                }
+            } catch (IOException e) {
+                // such as running out of file descriptors, try again later
+                LOGGER.error("Accept failed", e);
+            }
+        }
+    }
+
+    void shutdown() {
+        this.running = false;
+        this.selector.wakeup();
+    }
+
+    void join() throws InterruptedException {
+        this.thread.join();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.debug("Failed to close {}", closeable, e);
+        }
+    }
+
+}
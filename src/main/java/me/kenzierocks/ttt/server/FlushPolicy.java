@@ -0,0 +1,20 @@
+package me.kenzierocks.ttt.server;
+
+/**
+ * When a sent packet has to reach the socket. Either way it shares its
+ * write with everything else queued for the connection by then.
+ */
+enum FlushPolicy {
+
+    /**
+     * Written at the end of the current event loop tick, for packets a
+     * player is waiting on, like moves.
+     */
+    IMMEDIATE,
+    /**
+     * May wait for more output, up to the configured batch size or delay,
+     * for traffic nobody is blocked on.
+     */
+    BATCHED;
+
+}
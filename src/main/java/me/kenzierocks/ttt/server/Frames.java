@@ -0,0 +1,54 @@
+package me.kenzierocks.ttt.server;
+
+import java.nio.ByteBuffer;
+
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.metrics.PacketMetrics;
+import me.kenzierocks.ttt.packets.FrameDecoder;
+import me.kenzierocks.ttt.packets.Packet;
+
+/**
+ * Wire framing shared by every transport, the encoding side of
+ * {@link FrameDecoder}.
+ */
+final class Frames {
+
+    static final int LENGTH_BYTES = FrameDecoder.LENGTH_BYTES;
+    static final int ID_BYTES = FrameDecoder.ID_BYTES;
+    /**
+     * Frames longer than this are treated as a protocol violation.
+     */
+    static final int MAX_FRAME_LENGTH = 1 << 16;
+
+    /**
+     * Returns the size of the packet's frame, length prefix included.
+     */
+    static int frameSize(Packet packet) {
+        return LENGTH_BYTES + ID_BYTES + packet.serializedSize();
+    }
+
+    static ByteBuffer encode(Packet packet) {
+        int frameSize = frameSize(packet);
+        ByteBuffer frame = ByteBuffer.allocate(frameSize);
+        write(frame, packet, frameSize);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Puts the packet's frame, which must be {@code frameSize} bytes long.
+     */
+    static void write(ByteBuffer buffer, Packet packet, int frameSize) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        buffer.putInt(frameSize - LENGTH_BYTES).putInt(packet.getId());
+        packet.write(buffer);
+        if (Metrics.ENABLED) {
+            PacketMetrics.encoded(packet.getId(), frameSize,
+                    System.nanoTime() - start);
+        }
+    }
+
+    private Frames() {
+    }
+
+}
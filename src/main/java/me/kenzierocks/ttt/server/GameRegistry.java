@@ -0,0 +1,268 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+import me.kenzierocks.ttt.metrics.Counter;
+import me.kenzierocks.ttt.metrics.Histogram;
+import me.kenzierocks.ttt.metrics.Metrics;
+
+/**
+ * Hosts games on a fixed number of shards, each a thread of its own that is
+ * the only one to ever touch its games. Games are dealt to shards by id, and
+ * every call for a game is a message to its shard's {@link MpscQueue} inbox,
+ * so no lock is taken on the way to a move and shards never contend with each
+ * other.
+ *
+ * <p>
+ * Listeners are called on the shard's thread and must not block it. Work
+ * that involves another shard, or anything the shards share, has to be
+ * handed over as a message in turn, like {@link EventLoop#execute}.
+ * </p>
+ */
+final class GameRegistry implements Closeable {
+
+    /**
+     * Told what happens to a hosted game, on the thread of its shard.
+     */
+    interface Listener {
+
+        /**
+         * Called after every move with the state of the game after it. Once
+         * that isn't neutral the game is gone from the registry.
+         */
+        void moved(long id, char mark, int x, int y, WinState state);
+
+        /**
+         * Called when a player leaves before the game is over. The game is
+         * gone from the registry.
+         */
+        void abandoned(long id, char quitter);
+
+    }
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(GameRegistry.class);
+
+    // polls of an empty inbox before a shard parks
+    private static final int SPINS = 128;
+
+    private static final class Hosted {
+
+        private final Game game;
+        private final Listener listener;
+
+        private Hosted(Game game, Listener listener) {
+            this.game = game;
+            this.listener = listener;
+        }
+
+    }
+
+    private static final class Shard implements Runnable {
+
+        private final MpscQueue<Runnable> inbox = new MpscQueue<>();
+        private final Map<Long, Hosted> games = new HashMap<>();
+        private final Thread thread;
+        private final Counter hosted;
+        // tasks run between parks
+        private final Histogram batches;
+        private volatile boolean parked;
+        private volatile boolean running = true;
+
+        private Shard(String name) {
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+            this.hosted = Metrics.counter(name + ".games");
+            this.batches = Metrics.histogram(name + ".batches");
+        }
+
+        /**
+         * May be called from any thread.
+         */
+        private void post(Runnable task) {
+            this.inbox.offer(task);
+            // pairs with the park check, one of the two sees the other
+            if (this.parked) {
+                LockSupport.unpark(this.thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int spins = 0;
+            int ran = 0;
+            while (this.running) {
+                Runnable task = this.inbox.poll();
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // one broken game must not take the shard down
+                        LOGGER.error("Error in {}", this.thread.getName(), e);
+                    }
+                    ran++;
+                    spins = 0;
+                    continue;
+                }
+                // a producer between its swap and link is worth waiting for
+                if (!this.inbox.isEmpty() || ++spins < SPINS) {
+                    continue;
+                }
+                if (Metrics.ENABLED) {
+                    this.batches.record(ran);
+                }
+                ran = 0;
+                spins = 0;
+                this.parked = true;
+                if (this.inbox.isEmpty() && this.running) {
+                    LockSupport.park(this);
+                }
+                this.parked = false;
+            }
+        }
+
+        private void host(long id, Game game, Listener listener) {
+            this.games.put(id, new Hosted(game, listener));
+            this.hosted.increment();
+        }
+
+        private void move(long id, char mark, int x, int y) {
+            Hosted hosted = this.games.get(id);
+            if (hosted == null) {
+                // over already
+                return;
+            }
+            Game game = hosted.game;
+            if (mark != game.getCurrentPlayer() || x < 0
+                    || x >= game.getRows() || y < 0 || y >= game.getColumns()
+                    || game.get(x, y) != '\0') {
+                return;
+            }
+            WinState state = game.clickAndWin(x, y);
+            if (state != WinState.NEUTRAL) {
+                remove(id);
+            }
+            hosted.listener.moved(id, mark, x, y, state);
+        }
+
+        private void abandon(long id, char quitter) {
+            Hosted hosted = remove(id);
+            if (hosted != null) {
+                hosted.listener.abandoned(id, quitter);
+            }
+        }
+
+        private Hosted remove(long id) {
+            Hosted hosted = this.games.remove(id);
+            if (hosted != null) {
+                this.hosted.decrement();
+            }
+            return hosted;
+        }
+
+        private void shutdown() {
+            this.running = false;
+            LockSupport.unpark(this.thread);
+        }
+
+    }
+
+    private final Shard[] shards;
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Starts the shards, named {@code name-0} and up.
+     */
+    GameRegistry(String name, int shards) {
+        checkArgument(shards > 0, "shards must be positive");
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(name + "-" + i);
+            this.shards[i].thread.start();
+        }
+    }
+
+    int getShards() {
+        return this.shards.length;
+    }
+
+    /**
+     * Returns the shard a game lives on.
+     */
+    int shardOf(long id) {
+        return (int) (id % this.shards.length);
+    }
+
+    /**
+     * Hosts a game, which must not be touched by the caller from then on. May
+     * be called from any thread.
+     *
+     * @return the id of the game, which every other call for it takes
+     */
+    long create(Game game, Listener listener) {
+        long id = this.nextId.getAndIncrement();
+        Shard shard = this.shards[shardOf(id)];
+        shard.post(() -> shard.host(id, game, listener));
+        return id;
+    }
+
+    /**
+     * Plays {@code mark} at (x, y) in the game. Moves out of turn, off the
+     * board, onto a taken cell or into a game that is over are ignored. May
+     * be called from any thread, and calls from one thread are handled in
+     * order.
+     */
+    void move(long id, char mark, int x, int y) {
+        Shard shard = this.shards[shardOf(id)];
+        shard.post(() -> shard.move(id, mark, x, y));
+    }
+
+    /**
+     * Ends the game as abandoned by {@code quitter}, unless it is over
+     * already. May be called from any thread.
+     */
+    void abandon(long id, char quitter) {
+        Shard shard = this.shards[shardOf(id)];
+        shard.post(() -> shard.abandon(id, quitter));
+    }
+
+    /**
+     * Runs the task on the game's shard, after everything already sent to
+     * it, whether or not the game is still there. This is how other threads
+     * read or touch what a game's listener keeps. May be called from any
+     * thread.
+     */
+    void execute(long id, Runnable task) {
+        this.shards[shardOf(id)].post(task);
+    }
+
+    /**
+     * Stops every shard, dropping the games they still host and any message
+     * they haven't handled.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : this.shards) {
+            shard.shutdown();
+        }
+        try {
+            for (Shard shard : this.shards) {
+                shard.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
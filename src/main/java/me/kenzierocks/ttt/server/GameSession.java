@@ -0,0 +1,53 @@
+package me.kenzierocks.ttt.server;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * One game between two connections, hosted on the thread of the lobby that
+ * paired them and journaled to the lobby's journal, if it has one. Spectators
+ * may come from any lobby.
+ */
+final class GameSession extends Session {
+
+    private final Lobby lobby;
+    private final Game game;
+
+    GameSession(Lobby lobby, Game game, Connection x, Connection o) {
+        super(lobby, lobby.getFramePool(), lobby.getLeaderboard(),
+                lobby.getSessions(), game, x, o);
+        this.lobby = lobby;
+        this.game = game;
+    }
+
+    void start() {
+        begin(this.lobby.getJournal());
+        joinPlayers();
+    }
+
+    @Override
+    void execute(Runnable task) {
+        // X runs wherever the lobby does
+        player('X').execute(task);
+    }
+
+    @Override
+    void move(Connection from, int x, int y) {
+        if (from.getMark() != this.game.getCurrentPlayer()
+                || this.game.getWinState() != WinState.NEUTRAL) {
+            return;
+        }
+        if (x < 0 || x >= this.game.getRows() || y < 0
+                || y >= this.game.getColumns()
+                || this.game.get(x, y) != '\0') {
+            return;
+        }
+        played(from.getMark(), x, y, this.game.clickAndWin(x, y));
+    }
+
+    @Override
+    void abandon(Connection quitter) {
+        forfeited(quitter.getMark());
+    }
+
+}
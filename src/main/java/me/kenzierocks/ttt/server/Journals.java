@@ -0,0 +1,78 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.journal.JournalReplay;
+import me.kenzierocks.ttt.journal.MoveJournal;
+
+/**
+ * Opens the {@link MoveJournal}s of a server, one stream per lobby.
+ */
+final class Journals {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Journals.class);
+
+    /**
+     * Replays the journal, if there is one, and closes out the games the
+     * last run left unfinished. Their players are gone and can't get back
+     * into them.
+     */
+    static void recover(ServerConfig config) throws IOException {
+        Path directory = config.getJournalDirectory();
+        if (directory == null) {
+            return;
+        }
+        JournalReplay replay =
+                JournalReplay.replay(directory, ForkJoinPool.commonPool());
+        List<JournalReplay.ActiveGame> active = replay.getActiveGames();
+        LOGGER.info(
+                "Replayed {} records in {} segments: {} finished, {} unfinished"
+                        + " and {} broken games",
+                replay.getRecords(), replay.getSegments(),
+                replay.getFinishedGames(), active.size(),
+                replay.getBrokenGames());
+        Map<String, List<JournalReplay.ActiveGame>> byStream = active.stream()
+                .collect(Collectors.groupingBy(
+                        JournalReplay.ActiveGame::getStream));
+        for (Map.Entry<String, List<JournalReplay.ActiveGame>> stream : byStream
+                .entrySet()) {
+            try (MoveJournal journal = open(config, stream.getKey())) {
+                for (JournalReplay.ActiveGame game : stream.getValue()) {
+                    journal.abandon(game.getGameId(),
+                            game.getGame().getMoveCount() + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a stream of the journal, or returns {@code null} if there is no
+     * journal.
+     */
+    @Nullable
+    static MoveJournal open(ServerConfig config, String stream)
+            throws IOException {
+        Path directory = config.getJournalDirectory();
+        if (directory == null) {
+            return null;
+        }
+        return MoveJournal.open(directory, stream,
+                MoveJournal.DEFAULT_SEGMENT_SIZE,
+                config.getJournalGroupCommit());
+    }
+
+    private Journals() {
+    }
+
+}
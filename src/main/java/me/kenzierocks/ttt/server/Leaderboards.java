@@ -0,0 +1,55 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+
+/**
+ * Loads and saves the {@link Leaderboard} shared by every lobby of a server.
+ */
+final class Leaderboards {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Leaderboards.class);
+
+    /**
+     * Loads the leaderboard from its file, if there is one.
+     */
+    static Leaderboard load(ServerConfig config) throws IOException {
+        Path file = config.getLeaderboardFile();
+        if (file == null) {
+            return new Leaderboard();
+        }
+        Leaderboard leaderboard = Leaderboard.load(file);
+        LOGGER.info("Loaded {} players from {}", leaderboard.getPlayers(),
+                file);
+        return leaderboard;
+    }
+
+    /**
+     * Starts saving the leaderboard to its file, or returns {@code null} if
+     * there is no file.
+     */
+    @Nullable
+    static Closeable startSaving(ServerConfig config,
+            Leaderboard leaderboard) {
+        Path file = config.getLeaderboardFile();
+        if (file == null) {
+            return null;
+        }
+        return leaderboard.saveEvery(file, config.getLeaderboardSaveNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private Leaderboards() {
+    }
+
+}
@@ -0,0 +1,115 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.journal.MoveJournal;
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+
+/**
+ * Pairs waiting connections into games, first come first served, and finds
+ * games for spectators in the {@link SessionIndex} every lobby shares. With
+ * matchmaking, connections are queued on the hosting's {@link Matchmaker}
+ * instead.
+ */
+final class Lobby {
+
+    private final ServerConfig config;
+    @Nullable
+    private final BufferPool framePool;
+    @Nullable
+    private final MoveJournal journal;
+    private final Leaderboard leaderboard;
+    private final SessionIndex sessions;
+    @Nullable
+    private final ShardedHosting hosting;
+    private Connection waiting;
+
+    /**
+     * @param framePool where broadcasts are encoded to, if the lobby is
+     *        confined to the pool's thread
+     * @param journal where the lobby's games are journaled, if anywhere
+     * @param leaderboard where results are recorded, shared with the other
+     *        lobbies
+     * @param sessions where games are indexed, shared with the other lobbies
+     * @param hosting where pairs are hosted instead of on the lobby, if
+     *        anywhere
+     */
+    Lobby(ServerConfig config, @Nullable BufferPool framePool,
+            @Nullable MoveJournal journal, Leaderboard leaderboard,
+            SessionIndex sessions, @Nullable ShardedHosting hosting) {
+        this.config = config;
+        this.framePool = framePool;
+        this.journal = journal;
+        this.leaderboard = leaderboard;
+        this.sessions = sessions;
+        this.hosting = hosting;
+    }
+
+    ServerConfig getConfig() {
+        return config;
+    }
+
+    @Nullable
+    BufferPool getFramePool() {
+        return framePool;
+    }
+
+    @Nullable
+    MoveJournal getJournal() {
+        return journal;
+    }
+
+    Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    SessionIndex getSessions() {
+        return sessions;
+    }
+
+    void join(Connection connection) {
+        if (this.hosting != null && this.hosting.isMatchmaking()) {
+            if (!this.hosting.enqueue(connection)) {
+                // the same player is already waiting on another connection
+                connection.closeWhenFlushed();
+            }
+            return;
+        }
+        if (this.waiting == null || this.waiting == connection) {
+            this.waiting = connection;
+            return;
+        }
+        Connection first = this.waiting;
+        this.waiting = null;
+        if (this.hosting != null) {
+            this.hosting.host(first, connection);
+            return;
+        }
+        GameSession session = new GameSession(this, this.config.newGame(),
+                first, connection);
+        this.sessions.add(session, first, connection);
+        session.start();
+    }
+
+    void leave(Connection connection) {
+        if (this.hosting != null && this.hosting.isMatchmaking()) {
+            this.hosting.leave(connection);
+            return;
+        }
+        if (this.waiting == connection) {
+            this.waiting = null;
+        }
+    }
+
+    /**
+     * Returns the game the player is in, hosted by this lobby or any other,
+     * or {@code null} if there is none.
+     */
+    @Nullable
+    Session findSession(UUID player) {
+        return this.sessions.find(player);
+    }
+
+}
@@ -0,0 +1,283 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import me.kenzierocks.ttt.metrics.Counter;
+import me.kenzierocks.ttt.metrics.Histogram;
+import me.kenzierocks.ttt.metrics.Metrics;
+
+/**
+ * Pairs handshaken players from any number of threads, without locks, and
+ * hands every pair to a {@link Pairing}, such as {@link ShardedHosting} which
+ * starts a game for it. Each player may wait only once at a time, keyed by
+ * their UUID.
+ *
+ * <p>
+ * Players are paired with others of the same rating band as soon as one
+ * arrives, so a band never holds more than one waiting player and its queue
+ * is a single slot, taken and filled by CAS. Whoever waited is X. A player
+ * who has waited longer than the maximum is moved to an open slot that
+ * takes the next arrival of any band, which bounds the wait by the time
+ * until anyone else shows up. With a band width of 0 everyone shares one
+ * band and nobody is ever moved.
+ * </p>
+ */
+final class Matchmaker<P> implements Closeable {
+
+    /**
+     * Told about every pair, on whichever thread completed it.
+     */
+    interface Pairing<P> {
+
+        void paired(P x, P o);
+
+    }
+
+    private static final int WAITING = 0;
+    // held for a pairing attempt, becomes MATCHED or goes back to WAITING
+    private static final int CLAIMED = 1;
+    private static final int MATCHED = 2;
+    private static final int CANCELLED = 3;
+
+    private static final Counter QUEUE_DEPTH =
+            Metrics.counter("matchmaking.waiting");
+    private static final Counter MATCHES =
+            Metrics.counter("matchmaking.matches");
+    private static final Counter WIDENED =
+            Metrics.counter("matchmaking.widened");
+    private static final Histogram TIME_TO_MATCH =
+            Metrics.histogram("matchmaking.timeToMatchNanos");
+
+    private static final class Ticket<P> {
+
+        private final UUID uuid;
+        private final P player;
+        private final AtomicReference<Ticket<P>> band;
+        private final long enqueuedAt;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Ticket(UUID uuid, P player, AtomicReference<Ticket<P>> band) {
+            this.uuid = uuid;
+            this.player = player;
+            this.band = band;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        private boolean claim() {
+            return this.state.compareAndSet(WAITING, CLAIMED);
+        }
+
+        private void release() {
+            this.state.set(WAITING);
+        }
+
+    }
+
+    private final Pairing<P> pairing;
+    private final long bandWidth;
+    private final long maxWaitNanos;
+    private final ConcurrentMap<UUID, Ticket<P>> tickets =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicReference<Ticket<P>>> bands =
+            new ConcurrentHashMap<>();
+    private final AtomicReference<Ticket<P>> open = new AtomicReference<>();
+    @Nullable
+    private final ScheduledExecutorService widener;
+
+    /**
+     * @param pairing told about every pair, whoever waited first being X
+     * @param bandWidth how many rating points each band spans, or 0 for no
+     *        bands
+     * @param maxWait how long a player waits in their band before anyone
+     *        will do
+     */
+    Matchmaker(Pairing<P> pairing, long bandWidth, long maxWait,
+            TimeUnit unit) {
+        checkArgument(bandWidth >= 0, "bandWidth must not be negative");
+        checkArgument(maxWait > 0, "maxWait must be positive");
+        this.pairing = pairing;
+        this.bandWidth = bandWidth;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        if (bandWidth == 0) {
+            this.widener = null;
+            return;
+        }
+        this.widener = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("ttt-matchmaker")
+                        .setDaemon(true).build());
+        // a quarter of the wait, so nobody overstays by more than that
+        long period = Math.max(1, this.maxWaitNanos / 4);
+        this.widener.scheduleAtFixedRate(this::widen, period, period,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues the player, or pairs them right away if someone suitable is
+     * waiting. May be called from any thread.
+     *
+     * @param rating where the player stands, such as their leaderboard
+     *        points
+     * @return {@code false} if the player is already waiting
+     */
+    boolean enqueue(UUID uuid, long rating, P player) {
+        checkArgument(rating >= 0, "rating must not be negative");
+        Ticket<P> ticket = new Ticket<>(uuid, player, band(rating));
+        if (this.tickets.putIfAbsent(uuid, ticket) != null) {
+            return false;
+        }
+        if (this.widener != null) {
+            // those who waited too long come first
+            Ticket<P> waiting = take(this.open);
+            if (waiting != null) {
+                if (ticket.claim()) {
+                    match(waiting, ticket);
+                    return true;
+                }
+                // cancelled already
+                waiting.release();
+                offer(waiting, this.open);
+                return true;
+            }
+        }
+        offer(ticket, ticket.band);
+        return true;
+    }
+
+    private AtomicReference<Ticket<P>> band(long rating) {
+        Long band = this.bandWidth == 0 ? 0 : rating / this.bandWidth;
+        AtomicReference<Ticket<P>> slot = this.bands.get(band);
+        if (slot == null) {
+            slot = this.bands.computeIfAbsent(band,
+                    key -> new AtomicReference<>());
+        }
+        return slot;
+    }
+
+    /**
+     * Takes the player out of the queue, unless another player waits under
+     * their UUID. May be called from any thread.
+     *
+     * @return {@code false} if they weren't waiting, or were paired already
+     */
+    boolean cancel(UUID uuid, P player) {
+        Ticket<P> ticket = this.tickets.get(uuid);
+        if (ticket == null || ticket.player != player) {
+            return false;
+        }
+        while (true) {
+            int state = ticket.state.get();
+            if (state == MATCHED || state == CANCELLED) {
+                return false;
+            }
+            // a claim only lasts a few instructions, wait it out
+            if (state == WAITING
+                    && ticket.state.compareAndSet(WAITING, CANCELLED)) {
+                break;
+            }
+        }
+        this.tickets.remove(uuid, ticket);
+        // it may be on its way between slots, anyone who takes it skips it
+        if (ticket.band.compareAndSet(ticket, null)
+                || this.open.compareAndSet(ticket, null)) {
+            QUEUE_DEPTH.decrement();
+        }
+        return true;
+    }
+
+    /*
+     * Pairs the ticket with whoever waits in the slot, or leaves it there.
+     * The ticket must not be in any slot.
+     */
+    private void offer(Ticket<P> ticket, AtomicReference<Ticket<P>> slot) {
+        while (true) {
+            Ticket<P> waiting = take(slot);
+            if (waiting == null) {
+                if (ticket.state.get() == CANCELLED) {
+                    return;
+                }
+                if (slot.compareAndSet(null, ticket)) {
+                    QUEUE_DEPTH.increment();
+                    return;
+                }
+            } else if (ticket.claim()) {
+                match(waiting, ticket);
+                return;
+            } else {
+                // cancelled on the way here, the one waiting stays
+                waiting.release();
+                ticket = waiting;
+            }
+        }
+    }
+
+    /*
+     * Returns the claimed ticket of whoever waited in the slot, or null if
+     * nobody is left. Cancelled tickets found on the way are dropped.
+     */
+    @Nullable
+    private Ticket<P> take(AtomicReference<Ticket<P>> slot) {
+        Ticket<P> waiting;
+        while ((waiting = slot.get()) != null) {
+            if (slot.compareAndSet(waiting, null)) {
+                QUEUE_DEPTH.decrement();
+                if (waiting.claim()) {
+                    return waiting;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void match(Ticket<P> x, Ticket<P> o) {
+        x.state.set(MATCHED);
+        o.state.set(MATCHED);
+        this.tickets.remove(x.uuid, x);
+        this.tickets.remove(o.uuid, o);
+        MATCHES.increment();
+        if (Metrics.ENABLED) {
+            long now = System.nanoTime();
+            TIME_TO_MATCH.record(now - x.enqueuedAt);
+            TIME_TO_MATCH.record(now - o.enqueuedAt);
+        }
+        this.pairing.paired(x.player, o.player);
+    }
+
+    /*
+     * Moves everyone who waited too long in their band to the open slot.
+     */
+    private void widen() {
+        long now = System.nanoTime();
+        for (AtomicReference<Ticket<P>> slot : this.bands.values()) {
+            Ticket<P> waiting = slot.get();
+            if (waiting != null
+                    && now - waiting.enqueuedAt > this.maxWaitNanos
+                    && slot.compareAndSet(waiting, null)) {
+                QUEUE_DEPTH.decrement();
+                WIDENED.increment();
+                offer(waiting, this.open);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.widener != null) {
+            this.widener.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Unbounded queue for any number of producers and a single consumer, without
+ * locks or CAS loops. Offering is one atomic swap of the tail and a store,
+ * and polling only touches the consumer's own head.
+ *
+ * <p>
+ * Between a producer's swap and its store, later elements are not yet
+ * reachable, so {@link #poll()} can return {@code null} while
+ * {@link #isEmpty()} is {@code false}. The consumer should retry shortly.
+ * </p>
+ */
+final class MpscQueue<E> {
+
+    private static final class Node<E> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class,
+                        "next");
+
+        private E value;
+        private volatile Node<E> next;
+
+        private Node(E value) {
+            this.value = value;
+        }
+
+    }
+
+    private final AtomicReference<Node<E>> tail;
+    // the last node taken, only touched by the consumer
+    private Node<E> head;
+
+    MpscQueue() {
+        this.head = new Node<>(null);
+        this.tail = new AtomicReference<>(this.head);
+    }
+
+    /**
+     * May be called from any thread.
+     */
+    void offer(E value) {
+        Node<E> node = new Node<>(value);
+        Node<E> previous = this.tail.getAndSet(node);
+        // ordering the link after the value is enough, no full fence needed
+        Node.NEXT.lazySet(previous, node);
+    }
+
+    /**
+     * Returns the oldest reachable element, or {@code null} if there is none.
+     * Only the consumer may call this.
+     */
+    E poll() {
+        Node<E> next = this.head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        this.head = next;
+        return value;
+    }
+
+    /**
+     * Returns whether nothing has been offered that hasn't been polled. Only
+     * the consumer may call this.
+     */
+    boolean isEmpty() {
+        return this.tail.get() == this.head;
+    }
+
+}
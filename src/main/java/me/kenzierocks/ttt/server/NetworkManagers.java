@@ -0,0 +1,26 @@
+package me.kenzierocks.ttt.server;
+
+import me.kenzierocks.ttt.packets.NetworkManager;
+
+public final class NetworkManagers {
+
+    /**
+     * Creates the network manager for the config's
+     * {@link ServerConfig.Transport transport}.
+     */
+    public static NetworkManager create(ServerConfig config) {
+        switch (config.getTransport()) {
+            case SELECTOR:
+                return new SelectorNetworkManager(config);
+            case THREAD_PER_CONNECTION:
+                return new BlockingNetworkManager(config);
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown transport " + config.getTransport());
+        }
+    }
+
+    private NetworkManagers() {
+    }
+
+}
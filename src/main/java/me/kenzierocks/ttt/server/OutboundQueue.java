@@ -0,0 +1,202 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import me.kenzierocks.ttt.metrics.Counter;
+import me.kenzierocks.ttt.metrics.Histogram;
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.packets.Packet;
+
+/**
+ * Frames waiting to be written to one channel. They are encoded back to back
+ * into pooled buffers, so a flush hands everything queued to a single
+ * gathering write no matter how many packets it holds. {@link SharedFrame}s
+ * are queued as views of their own, without a copy.
+ *
+ * <p>
+ * What a queue wrote is added to the {@link Totals} of its event loop, and
+ * also kept for the queue's {@link #toString()}.
+ * </p>
+ */
+final class OutboundQueue {
+
+    /**
+     * Writes of every queue on one event loop, published as metrics named
+     * after the loop. Packets per write is {@code packets / writes}.
+     */
+    static final class Totals {
+
+        // each one syscall
+        private final Counter writes;
+        private final Counter packets;
+        private final Counter bytes;
+        // packets per flush, so the max is the largest batch
+        private final Histogram batchPackets;
+
+        Totals(String prefix) {
+            this.writes = Metrics.counter(prefix + ".writes");
+            this.packets = Metrics.counter(prefix + ".packetsWritten");
+            this.bytes = Metrics.counter(prefix + ".bytesWritten");
+            this.batchPackets = Metrics.histogram(prefix + ".batchPackets");
+        }
+
+    }
+
+    private final BufferPool pool;
+    private final Totals totals;
+    // chunks[head, tail) are in read mode, [position, limit) is unwritten
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    // the frame a chunk is a view of, null for chunks the queue owns
+    private SharedFrame[] shared = new SharedFrame[4];
+    private int head;
+    private int tail;
+    private int pendingBytes;
+    private int pendingPackets;
+    private long writes;
+    private long packetsWritten;
+    private long bytesWritten;
+    private int largestBatch;
+
+    OutboundQueue(BufferPool pool, Totals totals) {
+        this.pool = pool;
+        this.totals = totals;
+    }
+
+    void add(Packet packet) {
+        int frameSize = Frames.frameSize(packet);
+        ByteBuffer last =
+                this.tail > this.head ? this.chunks[this.tail - 1] : null;
+        if (last != null && this.shared[this.tail - 1] == null
+                && last.capacity() - last.limit() >= frameSize) {
+            // append after the unwritten bytes, keeping the read position
+            int position = last.position();
+            last.position(last.limit()).limit(last.capacity());
+            Frames.write(last, packet, frameSize);
+            last.limit(last.position()).position(position);
+        } else if (frameSize > this.pool.getBufferSize()) {
+            append(Frames.encode(packet), null);
+        } else {
+            ByteBuffer chunk = this.pool.acquire();
+            Frames.write(chunk, packet, frameSize);
+            chunk.flip();
+            append(chunk, null);
+        }
+        this.pendingBytes += frameSize;
+        this.pendingPackets++;
+    }
+
+    /**
+     * Queues a shared frame, holding a reference to it until it is written.
+     */
+    void add(SharedFrame frame) {
+        append(frame.view(), frame.retain());
+        this.pendingBytes += frame.size();
+        this.pendingPackets++;
+    }
+
+    private void append(ByteBuffer chunk, @Nullable SharedFrame frame) {
+        if (this.tail == this.chunks.length) {
+            int count = this.tail - this.head;
+            if (this.head > 0) {
+                System.arraycopy(this.chunks, this.head, this.chunks, 0, count);
+                System.arraycopy(this.shared, this.head, this.shared, 0, count);
+                Arrays.fill(this.chunks, count, this.tail, null);
+                Arrays.fill(this.shared, count, this.tail, null);
+            } else {
+                this.chunks = Arrays.copyOf(this.chunks, 2 * count);
+                this.shared = Arrays.copyOf(this.shared, 2 * count);
+            }
+            this.head = 0;
+            this.tail = count;
+        }
+        this.shared[this.tail] = frame;
+        this.chunks[this.tail++] = chunk;
+    }
+
+    private void release(int index) {
+        SharedFrame frame = this.shared[index];
+        if (frame == null) {
+            this.pool.release(this.chunks[index]);
+        } else {
+            frame.release();
+            this.shared[index] = null;
+        }
+        this.chunks[index] = null;
+    }
+
+    boolean isEmpty() {
+        return this.head == this.tail;
+    }
+
+    int getPendingBytes() {
+        return this.pendingBytes;
+    }
+
+    /**
+     * Writes as much as the channel takes in one call.
+     *
+     * @return {@code true} if nothing is left
+     */
+    boolean writeTo(GatheringByteChannel channel) throws IOException {
+        if (isEmpty()) {
+            return true;
+        }
+        long written =
+                channel.write(this.chunks, this.head, this.tail - this.head);
+        this.writes++;
+        this.bytesWritten += written;
+        this.totals.writes.increment();
+        this.totals.bytes.add(written);
+        this.pendingBytes -= (int) written;
+        while (this.head < this.tail
+                && !this.chunks[this.head].hasRemaining()) {
+            release(this.head++);
+        }
+        if (!isEmpty()) {
+            return false;
+        }
+        this.head = 0;
+        this.tail = 0;
+        // a batch counts once all of it is out
+        this.packetsWritten += this.pendingPackets;
+        this.largestBatch = Math.max(this.largestBatch, this.pendingPackets);
+        this.totals.packets.add(this.pendingPackets);
+        if (Metrics.ENABLED) {
+            this.totals.batchPackets.record(this.pendingPackets);
+        }
+        this.pendingPackets = 0;
+        return true;
+    }
+
+    /**
+     * Drops everything queued, returning the buffers to the pool.
+     */
+    void clear() {
+        for (int i = this.head; i < this.tail; i++) {
+            release(i);
+        }
+        this.head = 0;
+        this.tail = 0;
+        this.pendingBytes = 0;
+        this.pendingPackets = 0;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("writes", this.writes)
+                .add("packets", this.packetsWritten)
+                .add("bytes", this.bytesWritten)
+                .add("largestBatch", this.largestBatch)
+                .add("packetsPerWrite", this.writes == 0 ? 0
+                        : (double) this.packetsWritten / this.writes)
+                .add("pendingPackets", this.pendingPackets).toString();
+    }
+
+}
@@ -0,0 +1,238 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.metrics.PacketMetrics;
+import me.kenzierocks.ttt.packets.FrameDecoder;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.c2s.MovePacket;
+import me.kenzierocks.ttt.packets.c2s.MovePacketView;
+
+/**
+ * Non-blocking connection, only ever touched by the thread of its
+ * {@link EventLoop}.
+ *
+ * <p>
+ * Sent packets wait in an {@link OutboundQueue} until the loop flushes them
+ * according to their {@link FlushPolicy}. While the socket is full, the
+ * queue keeps growing and goes out as the selector reports it writable.
+ * </p>
+ */
+final class SelectorConnection extends Connection {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(SelectorConnection.class);
+
+    private final EventLoop loop;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final OutboundQueue outbound;
+    private final FrameDecoder<Packet.Client> decoder =
+            FrameDecoder.forClientPackets(Frames.MAX_FRAME_LENGTH);
+    private final MovePacketView moveView = new MovePacketView();
+    // in the loop's pending flushes
+    private boolean flushScheduled;
+    // OP_WRITE is set, the selector drives writing
+    private boolean waitingForWritable;
+    private boolean flushNow;
+    // when the oldest batched packet is due, if there is one
+    private boolean batchWaiting;
+    private long batchDeadline;
+    private boolean closeWhenFlushed;
+
+    SelectorConnection(EventLoop loop, Lobby lobby, SocketChannel channel,
+            SelectionKey key) {
+        super(lobby);
+        this.loop = loop;
+        this.channel = channel;
+        this.key = key;
+        this.outbound = new OutboundQueue(loop.getWriteBuffers(),
+                loop.getWriteTotals());
+    }
+
+    void onReadable() {
+        try {
+            int read;
+            while ((read = this.channel.read(this.decoder.buffer())) > 0) {
+                if (!this.decoder.buffer().hasRemaining()) {
+                    decodeFrames();
+                    if (!this.channel.isOpen()) {
+                        return;
+                    }
+                }
+            }
+            decodeFrames();
+            if (read < 0) {
+                close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Read failed, closing {}", this.channel, e);
+            close();
+        }
+    }
+
+    private void decodeFrames() throws IOException {
+        FrameDecoder<Packet.Client> decoder = this.decoder;
+        int id;
+        while ((id = decoder.nextId()) >= 0) {
+            if (id == MovePacket.ID) {
+                // the hot path, read in place without a packet
+                long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                int length = decoder.payloadLength();
+                if (length < MovePacket.SERIALIZED_SIZE) {
+                    throw new IOException("Truncated packet " + id);
+                }
+                this.moveView.wrap(decoder.buffer(), decoder.payloadOffset());
+                int x = this.moveView.getX();
+                int y = this.moveView.getY();
+                decoder.skip();
+                if (Metrics.ENABLED) {
+                    PacketMetrics.decoded(id, Frames.LENGTH_BYTES
+                            + Frames.ID_BYTES + length,
+                            System.nanoTime() - start);
+                }
+                handleMove(x, y);
+            } else {
+                handle(decoder.read());
+            }
+            if (!this.channel.isOpen()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    void execute(Runnable task) {
+        this.loop.execute(task);
+    }
+
+    @Override
+    void send(Packet.Server packet, FlushPolicy policy) {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        this.outbound.add(packet);
+        queued(policy);
+    }
+
+    @Override
+    void sendShared(SharedFrame frame) {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        if (this.outbound.getPendingBytes() + frame.size() > this.loop
+                .getConfig().getSpectatorBacklog()) {
+            LOGGER.debug("{} fell behind, dropping it", this.channel);
+            close();
+            return;
+        }
+        this.outbound.add(frame);
+        queued(FlushPolicy.BATCHED);
+    }
+
+    private void queued(FlushPolicy policy) {
+        if (this.waitingForWritable) {
+            return;
+        }
+        ServerConfig config = this.loop.getConfig();
+        if (policy == FlushPolicy.IMMEDIATE
+                || this.outbound.getPendingBytes() >= config.getBatchBytes()) {
+            this.flushNow = true;
+        } else if (!this.batchWaiting) {
+            this.batchWaiting = true;
+            this.batchDeadline =
+                    System.nanoTime() + config.getBatchDelayNanos();
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            this.loop.scheduleFlush(this);
+        }
+    }
+
+    /**
+     * Called by the loop at the end of a tick. Flushes if anything is due.
+     *
+     * @return the nanoseconds until the queued batch is due, or -1 once
+     *         there is nothing left to schedule
+     */
+    long flushIfDue(long now) {
+        if (!this.channel.isOpen() || this.waitingForWritable
+                || this.outbound.isEmpty()) {
+            this.flushScheduled = false;
+            return -1;
+        }
+        if (!this.flushNow) {
+            long delay = this.batchDeadline - now;
+            if (delay > 0) {
+                return delay;
+            }
+        }
+        this.flushScheduled = false;
+        onWritable();
+        return -1;
+    }
+
+    void onWritable() {
+        try {
+            if (!this.outbound.writeTo(this.channel)) {
+                // socket buffer is full, wait for the selector
+                if (!this.waitingForWritable) {
+                    this.waitingForWritable = true;
+                    this.key.interestOps(
+                            SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+                return;
+            }
+            this.flushNow = false;
+            this.batchWaiting = false;
+            if (this.waitingForWritable) {
+                this.waitingForWritable = false;
+                this.key.interestOps(SelectionKey.OP_READ);
+            }
+            if (this.closeWhenFlushed) {
+                close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Write failed, closing {}", this.channel, e);
+            close();
+        }
+    }
+
+    @Override
+    void closeWhenFlushed() {
+        this.closeWhenFlushed = true;
+        if (this.outbound.isEmpty()) {
+            close();
+        } else if (!this.waitingForWritable) {
+            this.flushNow = true;
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    void close() {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        this.key.cancel();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close {}", this.channel, e);
+        }
+        this.outbound.clear();
+        LOGGER.debug("Closed {}, {}", this.channel, this.outbound);
+        closed();
+    }
+
+}
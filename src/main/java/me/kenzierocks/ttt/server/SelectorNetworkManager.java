@@ -0,0 +1,121 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.packets.NetworkManager;
+
+/**
+ * Serves clients from a fixed number of {@link EventLoop}s, by default one
+ * per core. The first loop also accepts connections and deals them out to the
+ * loops round-robin, so no socket ever gets a thread of its own.
+ */
+public final class SelectorNetworkManager implements NetworkManager {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(SelectorNetworkManager.class);
+
+    private final ServerConfig config;
+    private ServerSocketChannel server;
+    private EventLoop[] loops;
+    private Leaderboard leaderboard;
+    @Nullable
+    private ShardedHosting hosting;
+    @Nullable
+    private Closeable leaderboardSaves;
+    // only used from the accepting loop
+    private int nextLoop;
+
+    public SelectorNetworkManager(ServerConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void start() throws IOException {
+        checkState(this.server == null, "Already started");
+        Journals.recover(this.config);
+        this.leaderboard = Leaderboards.load(this.config);
+        this.server = ServerSocketChannel.open();
+        this.server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.server.bind(this.config.getAddress(), 1024);
+        this.server.configureBlocking(false);
+        SessionIndex sessions = new SessionIndex();
+        this.hosting =
+                ShardedHosting.start(this.config, this.leaderboard, sessions);
+        this.loops = new EventLoop[this.config.getEventLoops()];
+        for (int i = 0; i < this.loops.length; i++) {
+            this.loops[i] = new EventLoop(i, this.config, this.leaderboard,
+                    sessions, this.hosting);
+            this.loops[i].start();
+        }
+        this.leaderboardSaves =
+                Leaderboards.startSaving(this.config, this.leaderboard);
+        this.loops[0].registerAcceptor(this.server, this::accept);
+        LOGGER.info("Listening on {} with {} event loops", getAddress(),
+                this.loops.length);
+    }
+
+    private void accept(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to configure {}", channel, e);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+        EventLoop loop = this.loops[this.nextLoop];
+        this.nextLoop = (this.nextLoop + 1) % this.loops.length;
+        loop.register(channel);
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        checkState(this.server != null, "Not started");
+        try {
+            return (InetSocketAddress) this.server.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.server == null) {
+            return;
+        }
+        this.server.close();
+        for (EventLoop loop : this.loops) {
+            loop.shutdown();
+        }
+        try {
+            for (EventLoop loop : this.loops) {
+                loop.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.hosting != null) {
+            this.hosting.close();
+        }
+        if (this.leaderboardSaves != null) {
+            this.leaderboardSaves.close();
+        }
+    }
+
+}
@@ -0,0 +1,327 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import me.kenzierocks.ttt.Game;
+
+public final class ServerConfig {
+
+    public static final int DEFAULT_PORT = 7373;
+
+    /**
+     * How connections are served, see {@link NetworkManagers#create}.
+     */
+    public enum Transport {
+        /**
+         * Non-blocking sockets multiplexed over a few event loops.
+         */
+        SELECTOR,
+        /**
+         * Blocking sockets, each read by its own (virtual, if available)
+         * thread.
+         */
+        THREAD_PER_CONNECTION;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private InetSocketAddress address =
+                new InetSocketAddress(DEFAULT_PORT);
+        private Transport transport = Transport.SELECTOR;
+        private int eventLoops = Runtime.getRuntime().availableProcessors();
+        private int rows = Game.CLASSIC_SIZE;
+        private int columns = Game.CLASSIC_SIZE;
+        private int winLength = Game.CLASSIC_SIZE;
+        private int batchBytes = 8192;
+        private long batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private int spectatorBacklog = 64 * 1024;
+        private Path journalDirectory;
+        private int journalGroupCommit;
+        private Path leaderboardFile;
+        private long leaderboardSaveNanos = TimeUnit.MINUTES.toNanos(1);
+        private int gameShards;
+        private boolean matchmaking;
+        private long matchmakingBandWidth;
+        private long matchmakingMaxWaitNanos = TimeUnit.SECONDS.toNanos(10);
+
+        private Builder() {
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = checkNotNull(address, "address");
+            return this;
+        }
+
+        public Builder transport(Transport transport) {
+            this.transport = checkNotNull(transport, "transport");
+            return this;
+        }
+
+        /**
+         * Sets the number of event loops. Thread-per-connection uses it as the
+         * number of lobbies instead, each with its own lock.
+         */
+        public Builder eventLoops(int eventLoops) {
+            checkArgument(eventLoops > 0, "eventLoops must be positive");
+            this.eventLoops = eventLoops;
+            return this;
+        }
+
+        /**
+         * Sets the board every hosted game is played on.
+         */
+        public Builder board(int rows, int columns, int winLength) {
+            checkArgument(rows > 0 && columns > 0 && winLength > 0,
+                    "Invalid board %sx%s, k=%s", rows, columns, winLength);
+            this.rows = rows;
+            this.columns = columns;
+            this.winLength = winLength;
+            return this;
+        }
+
+        /**
+         * Sets how much {@link FlushPolicy#BATCHED} output a connection may
+         * hold, and for how long, before writing it anyway.
+         */
+        public Builder batching(int maxBytes, long maxDelay, TimeUnit unit) {
+            checkArgument(maxBytes > 0, "maxBytes must be positive");
+            checkArgument(maxDelay >= 0, "maxDelay must not be negative");
+            this.batchBytes = maxBytes;
+            this.batchDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets how many bytes may queue up for a spectator that isn't
+         * reading before it is dropped.
+         */
+        public Builder spectatorBacklog(int maxBytes) {
+            checkArgument(maxBytes > 0, "maxBytes must be positive");
+            this.spectatorBacklog = maxBytes;
+            return this;
+        }
+
+        /**
+         * Journals every hosted move to the directory, forcing it to disk
+         * every {@code groupCommit} moves, or never if 0. Unfinished games
+         * found there on start are replayed and closed as abandoned.
+         */
+        public Builder journal(@Nullable Path directory, int groupCommit) {
+            checkArgument(groupCommit >= 0, "groupCommit must not be negative");
+            this.journalDirectory = directory;
+            this.journalGroupCommit = groupCommit;
+            return this;
+        }
+
+        /**
+         * Keeps the leaderboard in the file, loading it on start and saving
+         * it every {@code period} and on close. Without a file, it only
+         * lasts as long as the server.
+         */
+        public Builder leaderboard(@Nullable Path file, long period,
+                TimeUnit unit) {
+            checkArgument(period > 0, "period must be positive");
+            this.leaderboardFile = file;
+            this.leaderboardSaveNanos = unit.toNanos(period);
+            return this;
+        }
+
+        /**
+         * Hosts every game on a {@link GameRegistry} with that many shards,
+         * instead of on the thread of the lobby that paired its players, or
+         * not if 0.
+         */
+        public Builder gameShards(int gameShards) {
+            checkArgument(gameShards >= 0, "gameShards must not be negative");
+            this.gameShards = gameShards;
+            return this;
+        }
+
+        /**
+         * Pairs players through a {@link Matchmaker} shared by every lobby,
+         * by their leaderboard points, instead of first come first served
+         * within each lobby. Needs {@link #gameShards(int) game shards} to
+         * host the games.
+         *
+         * @param bandWidth how many points each band spans, or 0 for no
+         *        bands
+         * @param maxWait how long a player waits in their band before anyone
+         *        will do
+         */
+        public Builder matchmaking(long bandWidth, long maxWait,
+                TimeUnit unit) {
+            checkArgument(bandWidth >= 0, "bandWidth must not be negative");
+            checkArgument(maxWait > 0, "maxWait must be positive");
+            this.matchmaking = true;
+            this.matchmakingBandWidth = bandWidth;
+            this.matchmakingMaxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        public ServerConfig build() {
+            checkState(!this.matchmaking || this.gameShards > 0,
+                    "Matchmaking needs game shards");
+            return new ServerConfig(this);
+        }
+
+    }
+
+    private final InetSocketAddress address;
+    private final Transport transport;
+    private final int eventLoops;
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final int batchBytes;
+    private final long batchDelayNanos;
+    private final int spectatorBacklog;
+    @Nullable
+    private final Path journalDirectory;
+    private final int journalGroupCommit;
+    @Nullable
+    private final Path leaderboardFile;
+    private final long leaderboardSaveNanos;
+    private final int gameShards;
+    private final boolean matchmaking;
+    private final long matchmakingBandWidth;
+    private final long matchmakingMaxWaitNanos;
+
+    private ServerConfig(Builder builder) {
+        this.address = builder.address;
+        this.transport = builder.transport;
+        this.eventLoops = builder.eventLoops;
+        this.rows = builder.rows;
+        this.columns = builder.columns;
+        this.winLength = builder.winLength;
+        this.batchBytes = builder.batchBytes;
+        this.batchDelayNanos = builder.batchDelayNanos;
+        this.spectatorBacklog = builder.spectatorBacklog;
+        this.journalDirectory = builder.journalDirectory;
+        this.journalGroupCommit = builder.journalGroupCommit;
+        this.leaderboardFile = builder.leaderboardFile;
+        this.leaderboardSaveNanos = builder.leaderboardSaveNanos;
+        this.gameShards = builder.gameShards;
+        this.matchmaking = builder.matchmaking;
+        this.matchmakingBandWidth = builder.matchmakingBandWidth;
+        this.matchmakingMaxWaitNanos = builder.matchmakingMaxWaitNanos;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public int getEventLoops() {
+        return eventLoops;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getBatchBytes() {
+        return batchBytes;
+    }
+
+    public long getBatchDelayNanos() {
+        return batchDelayNanos;
+    }
+
+    public int getSpectatorBacklog() {
+        return spectatorBacklog;
+    }
+
+    /**
+     * Returns where moves are journaled, or {@code null} if they aren't.
+     */
+    @Nullable
+    public Path getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public int getJournalGroupCommit() {
+        return journalGroupCommit;
+    }
+
+    /**
+     * Returns where the leaderboard is kept, or {@code null} if it isn't.
+     */
+    @Nullable
+    public Path getLeaderboardFile() {
+        return leaderboardFile;
+    }
+
+    public long getLeaderboardSaveNanos() {
+        return leaderboardSaveNanos;
+    }
+
+    /**
+     * Returns how many shards games are hosted on, or 0 if they are hosted
+     * by the lobbies.
+     */
+    public int getGameShards() {
+        return gameShards;
+    }
+
+    public boolean isMatchmaking() {
+        return matchmaking;
+    }
+
+    public long getMatchmakingBandWidth() {
+        return matchmakingBandWidth;
+    }
+
+    public long getMatchmakingMaxWaitNanos() {
+        return matchmakingMaxWaitNanos;
+    }
+
+    public Game newGame() {
+        return new Game(this.rows, this.columns, this.winLength);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("address", this.address)
+                .add("transport", this.transport)
+                .add("eventLoops", this.eventLoops).add("rows", this.rows)
+                .add("columns", this.columns).add("winLength", this.winLength)
+                .add("batchBytes", this.batchBytes)
+                .add("batchDelayNanos", this.batchDelayNanos)
+                .add("spectatorBacklog", this.spectatorBacklog)
+                .add("journalDirectory", this.journalDirectory)
+                .add("journalGroupCommit", this.journalGroupCommit)
+                .add("leaderboardFile", this.leaderboardFile)
+                .add("leaderboardSaveNanos", this.leaderboardSaveNanos)
+                .add("gameShards", this.gameShards)
+                .add("matchmaking", this.matchmaking)
+                .add("matchmakingBandWidth", this.matchmakingBandWidth)
+                .add("matchmakingMaxWaitNanos", this.matchmakingMaxWaitNanos)
+                .toString();
+    }
+
+}
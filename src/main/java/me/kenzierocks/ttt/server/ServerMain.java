@@ -0,0 +1,90 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.packets.NetworkManager;
+
+/**
+ * Headless entry point: {@code [port] [event loops] [transport]}, where the
+ * transport is {@code selector} or {@code thread_per_connection}. With
+ * {@code -Dttt.metrics=true}, metrics are logged every
+ * {@code ttt.metrics.logSeconds} (60 by default) and published over JMX.
+ * With {@code -Dttt.journal=<directory>}, hosted moves are journaled there,
+ * forced to disk every {@code ttt.journal.groupCommit} moves (never by
+ * default), and unfinished games found on start are replayed. With
+ * {@code -Dttt.leaderboard=<file>}, the leaderboard is loaded from the file
+ * and saved to it every {@code ttt.leaderboard.saveSeconds} (60 by default)
+ * and on shutdown. With {@code -Dttt.gameShards=<n>}, games are hosted on
+ * that many shard threads instead of on the threads that paired them. With
+ * {@code -Dttt.matchmaking=true}, players are paired by leaderboard points in
+ * bands of {@code ttt.matchmaking.bandWidth} (100 by default), waiting at
+ * most {@code ttt.matchmaking.maxWaitSeconds} (10 by default) for their
+ * band, on one game shard per core unless set otherwise.
+ */
+public final class ServerMain {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ServerMain.class);
+
+    public static void main(String[] args) throws IOException {
+        ServerConfig.Builder config = ServerConfig.builder();
+        if (args.length > 0) {
+            config.address(new InetSocketAddress(Integer.parseInt(args[0])));
+        }
+        if (args.length > 1) {
+            config.eventLoops(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            config.transport(ServerConfig.Transport
+                    .valueOf(args[2].toUpperCase(Locale.ROOT)));
+        }
+        String journal = System.getProperty("ttt.journal");
+        if (journal != null) {
+            config.journal(Paths.get(journal),
+                    Integer.getInteger("ttt.journal.groupCommit", 0));
+        }
+        String leaderboard = System.getProperty("ttt.leaderboard");
+        if (leaderboard != null) {
+            config.leaderboard(Paths.get(leaderboard),
+                    Long.getLong("ttt.leaderboard.saveSeconds", 60),
+                    TimeUnit.SECONDS);
+        }
+        boolean matchmaking = Boolean.getBoolean("ttt.matchmaking");
+        config.gameShards(Integer.getInteger("ttt.gameShards", matchmaking
+                ? Runtime.getRuntime().availableProcessors() : 0));
+        if (matchmaking) {
+            config.matchmaking(Long.getLong("ttt.matchmaking.bandWidth", 100),
+                    Long.getLong("ttt.matchmaking.maxWaitSeconds", 10),
+                    TimeUnit.SECONDS);
+        }
+        NetworkManager manager = NetworkManagers.create(config.build());
+        Closeable metricsLog = Metrics.ENABLED
+                ? Metrics.logEvery(Long.getLong("ttt.metrics.logSeconds", 60),
+                        TimeUnit.SECONDS)
+                : null;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (metricsLog != null) {
+                    metricsLog.close();
+                }
+                manager.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to shut down", e);
+            }
+        }, "ttt-shutdown"));
+        manager.start();
+    }
+
+    private ServerMain() {
+    }
+
+}
@@ -0,0 +1,232 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+import me.kenzierocks.ttt.journal.MoveJournal;
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.leaderboard.Standing;
+import me.kenzierocks.ttt.metrics.Counter;
+import me.kenzierocks.ttt.metrics.Metrics;
+import me.kenzierocks.ttt.packets.Packet;
+import me.kenzierocks.ttt.packets.s2c.BoardSnapshotPacket;
+import me.kenzierocks.ttt.packets.s2c.GameStartPacket;
+import me.kenzierocks.ttt.packets.s2c.MoveMadePacket;
+import me.kenzierocks.ttt.packets.s2c.PlayerStandingPacket;
+
+/**
+ * A hosted game as its players and spectators see it. Subclasses decide
+ * where the game runs, and report what happens there to
+ * {@link #played(char, int, int, WinState)} and {@link #forfeited(char)}.
+ * Moves are journaled, if there is a journal, and sent to both players and
+ * the {@link Audience}. The result goes on the leaderboard, a disconnect
+ * counting as a loss, and the players still connected are sent their new
+ * standing and go back to their lobbies.
+ *
+ * <p>
+ * The calls that aren't final come from the thread of the calling
+ * connection. Connections of the lobby hosting the game are called directly,
+ * and any other through {@link Connection#execute(Runnable)}.
+ * </p>
+ */
+abstract class Session {
+
+    private static final Counter ACTIVE_GAMES =
+            Metrics.counter("games.active");
+
+    @Nullable
+    private final Lobby lobby;
+    private final Leaderboard leaderboard;
+    private final SessionIndex sessions;
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final Connection x;
+    private final Connection o;
+    private final Audience audience;
+    @Nullable
+    private MoveJournal journal;
+    private long journalId = -1;
+    // x, y of every move so far
+    private int[] moves = new int[16];
+    private int moveInts;
+    // read by players joining late, see join
+    private volatile boolean over;
+
+    /**
+     * @param lobby the lobby hosting the game, if it is hosted by one
+     * @param framePool where broadcasts are encoded to, if the lobby is
+     *        confined to the pool's thread
+     * @param sessions where the game is indexed, to be removed once it ends
+     */
+    Session(@Nullable Lobby lobby, @Nullable BufferPool framePool,
+            Leaderboard leaderboard, SessionIndex sessions, Game game,
+            Connection x, Connection o) {
+        this.lobby = lobby;
+        this.leaderboard = leaderboard;
+        this.sessions = sessions;
+        this.rows = game.getRows();
+        this.columns = game.getColumns();
+        this.winLength = game.getWinLength();
+        this.x = x;
+        this.o = o;
+        this.audience = new Audience(lobby, framePool);
+    }
+
+    abstract void move(Connection from, int x, int y);
+
+    /**
+     * Ends the game as lost by a player who left.
+     */
+    abstract void abandon(Connection quitter);
+
+    /**
+     * Runs the task where the game is hosted. May be called from any thread.
+     */
+    abstract void execute(Runnable task);
+
+    final Connection player(char mark) {
+        return mark == 'X' ? this.x : this.o;
+    }
+
+    private Connection opponent(Connection player) {
+        return player == this.x ? this.o : this.x;
+    }
+
+    /**
+     * Counts the game as active and starts journaling it, if there is a
+     * journal. Must run where the game is hosted, before any move.
+     */
+    final void begin(@Nullable MoveJournal journal) {
+        ACTIVE_GAMES.increment();
+        this.journal = journal;
+        if (journal != null) {
+            this.journalId =
+                    journal.startGame(this.rows, this.columns, this.winLength);
+        }
+    }
+
+    /**
+     * Puts both players in the game and tells them their marks.
+     */
+    final void joinPlayers() {
+        onThreadOf(this.x, () -> join(this.x, 'X'));
+        onThreadOf(this.o, () -> join(this.o, 'O'));
+    }
+
+    private void join(Connection player, char mark) {
+        player.joinSession(this, mark);
+        if (this.over) {
+            // the other player left before this one got here, and the leave
+            // sent to it may have been ignored
+            player.leaveSession(this);
+            return;
+        }
+        player.send(new GameStartPacket(this.rows, this.columns,
+                this.winLength, mark));
+    }
+
+    /**
+     * Reports a move made where the game is hosted.
+     */
+    final void played(char mark, int x, int y, WinState state) {
+        if (this.moveInts == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, 2 * this.moves.length);
+        }
+        this.moves[this.moveInts++] = x;
+        this.moves[this.moveInts++] = y;
+        if (this.journal != null) {
+            this.journal.move(this.journalId, this.moveInts / 2, x, y, state);
+        }
+        MoveMadePacket packet =
+                new MoveMadePacket(x, y, mark, (byte) state.ordinal());
+        send(this.x, packet, FlushPolicy.IMMEDIATE);
+        send(this.o, packet, FlushPolicy.IMMEDIATE);
+        this.audience.broadcast(packet);
+        if (state != WinState.NEUTRAL) {
+            if (state == WinState.TIE) {
+                this.leaderboard.recordTie(this.x.getUuid(), this.o.getUuid());
+            } else {
+                Connection from = player(mark);
+                this.leaderboard.recordWin(from.getUuid(),
+                        opponent(from).getUuid());
+            }
+            sendStanding(this.x);
+            sendStanding(this.o);
+            end();
+            leave(this.x);
+            leave(this.o);
+        }
+    }
+
+    /**
+     * Reports a player who left, where the game is hosted.
+     */
+    final void forfeited(char quitter) {
+        if (this.journal != null) {
+            this.journal.abandon(this.journalId, this.moveInts / 2 + 1);
+        }
+        Connection loser = player(quitter);
+        Connection remaining = opponent(loser);
+        this.leaderboard.recordWin(remaining.getUuid(), loser.getUuid());
+        sendStanding(remaining);
+        end();
+        leave(remaining);
+    }
+
+    private void sendStanding(Connection player) {
+        Standing standing = this.leaderboard.getStanding(player.getUuid());
+        send(player, new PlayerStandingPacket(standing.getRank(),
+                standing.getPoints(), standing.getWins(),
+                standing.getLosses(), standing.getTies()),
+                FlushPolicy.BATCHED);
+    }
+
+    private void end() {
+        this.over = true;
+        ACTIVE_GAMES.decrement();
+        this.sessions.remove(this, this.x, this.o);
+        this.audience.dismiss();
+    }
+
+    private void send(Connection player, Packet.Server packet,
+            FlushPolicy policy) {
+        onThreadOf(player, () -> player.send(packet, policy));
+    }
+
+    private void leave(Connection player) {
+        onThreadOf(player, () -> player.leaveSession(this));
+    }
+
+    private void onThreadOf(Connection player, Runnable task) {
+        if (player.getLobby() == this.lobby) {
+            task.run();
+        } else {
+            player.execute(task);
+        }
+    }
+
+    /**
+     * Sends the spectator the game so far and adds it to the audience.
+     */
+    final void watch(Connection spectator) {
+        execute(() -> {
+            if (this.over) {
+                this.audience.turnAway(spectator);
+                return;
+            }
+            this.audience.send(spectator, new BoardSnapshotPacket(true,
+                    this.rows, this.columns, this.winLength,
+                    Arrays.copyOf(this.moves, this.moveInts)));
+            this.audience.add(spectator);
+        });
+    }
+
+    final void unwatch(Connection spectator) {
+        execute(() -> this.audience.remove(spectator));
+    }
+
+}
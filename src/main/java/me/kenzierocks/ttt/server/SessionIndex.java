@@ -0,0 +1,40 @@
+package me.kenzierocks.ttt.server;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Every game on the server by the UUIDs of its players, shared by all lobbies
+ * so that spectators find a game whichever lobby or shard hosts it. May be
+ * used from any thread.
+ */
+final class SessionIndex {
+
+    private final ConcurrentMap<UUID, Session> sessions =
+            new ConcurrentHashMap<>();
+
+    void add(Session session, Connection x, Connection o) {
+        this.sessions.put(x.getUuid(), session);
+        this.sessions.put(o.getUuid(), session);
+    }
+
+    /**
+     * Removes the game, leaving alone any newer one of either player.
+     */
+    void remove(Session session, Connection x, Connection o) {
+        this.sessions.remove(x.getUuid(), session);
+        this.sessions.remove(o.getUuid(), session);
+    }
+
+    /**
+     * Returns the game the player is in, or {@code null} if there is none.
+     */
+    @Nullable
+    Session find(UUID player) {
+        return this.sessions.get(player);
+    }
+
+}
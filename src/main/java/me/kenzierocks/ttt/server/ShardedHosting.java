@@ -0,0 +1,149 @@
+package me.kenzierocks.ttt.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.journal.MoveJournal;
+import me.kenzierocks.ttt.leaderboard.Leaderboard;
+import me.kenzierocks.ttt.leaderboard.Standing;
+
+/**
+ * The games of a server configured with {@link ServerConfig#getGameShards()
+ * game shards}, hosted on one {@link GameRegistry} that every lobby hands its
+ * pairs to. Each shard journals to a stream of its own. If the config asks
+ * for matchmaking, the lobbies queue their players here instead of pairing
+ * them themselves.
+ */
+final class ShardedHosting implements Closeable {
+
+    /**
+     * Starts the shards, or returns {@code null} if the config hosts games
+     * on the lobbies.
+     */
+    @Nullable
+    static ShardedHosting start(ServerConfig config, Leaderboard leaderboard,
+            SessionIndex sessions) throws IOException {
+        if (config.getGameShards() == 0) {
+            return null;
+        }
+        return new ShardedHosting(config, leaderboard, sessions);
+    }
+
+    private final ServerConfig config;
+    private final Leaderboard leaderboard;
+    private final SessionIndex sessions;
+    private final MoveJournal[] journals;
+    private final GameRegistry registry;
+    @Nullable
+    private final Matchmaker<Connection> matchmaker;
+
+    private ShardedHosting(ServerConfig config, Leaderboard leaderboard,
+            SessionIndex sessions) throws IOException {
+        this.config = config;
+        this.leaderboard = leaderboard;
+        this.sessions = sessions;
+        this.journals = new MoveJournal[config.getGameShards()];
+        try {
+            for (int i = 0; i < this.journals.length; i++) {
+                this.journals[i] = Journals.open(config, "game-shard-" + i);
+            }
+        } catch (IOException e) {
+            closeJournals();
+            throw e;
+        }
+        this.registry =
+                new GameRegistry("ttt-game-shard", config.getGameShards());
+        this.matchmaker = config.isMatchmaking()
+                ? new Matchmaker<>(this::host,
+                        config.getMatchmakingBandWidth(),
+                        config.getMatchmakingMaxWaitNanos(),
+                        TimeUnit.NANOSECONDS)
+                : null;
+    }
+
+    ServerConfig getConfig() {
+        return config;
+    }
+
+    Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    SessionIndex getSessions() {
+        return sessions;
+    }
+
+    GameRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Returns the journal of the game's shard, only to be used on that
+     * shard, or {@code null} if there is no journal.
+     */
+    @Nullable
+    MoveJournal getJournal(long id) {
+        return this.journals[this.registry.shardOf(id)];
+    }
+
+    boolean isMatchmaking() {
+        return this.matchmaker != null;
+    }
+
+    /**
+     * Queues the player for the matchmaker, rated by their leaderboard
+     * points. May be called from any thread.
+     *
+     * @return {@code false} if the player is already waiting on another
+     *         connection
+     */
+    boolean enqueue(Connection player) {
+        Standing standing = this.leaderboard.getStanding(player.getUuid());
+        long rating = standing == null ? 0 : standing.getPoints();
+        return this.matchmaker.enqueue(player.getUuid(), rating, player);
+    }
+
+    /**
+     * Takes the player out of the matchmaker's queue, if it is waiting
+     * there.
+     */
+    void leave(Connection player) {
+        this.matchmaker.cancel(player.getUuid(), player);
+    }
+
+    /**
+     * Starts a game between the two, X being the one who waited. May be
+     * called from any thread.
+     */
+    void host(Connection x, Connection o) {
+        ShardedSession session =
+                new ShardedSession(this, this.config.newGame(), x, o);
+        this.sessions.add(session, x, o);
+        session.start();
+    }
+
+    /**
+     * Stops the shards and closes the journals, once no connection is left
+     * to send them anything.
+     */
+    @Override
+    public void close() {
+        if (this.matchmaker != null) {
+            this.matchmaker.close();
+        }
+        this.registry.close();
+        closeJournals();
+    }
+
+    private void closeJournals() {
+        for (MoveJournal journal : this.journals) {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+}
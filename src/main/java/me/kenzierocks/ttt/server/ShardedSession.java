@@ -0,0 +1,56 @@
+package me.kenzierocks.ttt.server;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * One game between two connections, hosted on a {@link GameRegistry} shard
+ * rather than by a lobby, so the players may live on different threads. The
+ * game itself is the registry's, and is journaled to the shard's journal.
+ * Everything for a connection is handed to it through
+ * {@link Connection#execute(Runnable)}.
+ */
+final class ShardedSession extends Session implements GameRegistry.Listener {
+
+    private final ShardedHosting hosting;
+    private final long id;
+
+    ShardedSession(ShardedHosting hosting, Game game, Connection x,
+            Connection o) {
+        super(null, null, hosting.getLeaderboard(), hosting.getSessions(),
+                game, x, o);
+        this.hosting = hosting;
+        this.id = hosting.getRegistry().create(game, this);
+    }
+
+    void start() {
+        execute(() -> begin(this.hosting.getJournal(this.id)));
+        joinPlayers();
+    }
+
+    @Override
+    void execute(Runnable task) {
+        this.hosting.getRegistry().execute(this.id, task);
+    }
+
+    @Override
+    void move(Connection from, int x, int y) {
+        this.hosting.getRegistry().move(this.id, from.getMark(), x, y);
+    }
+
+    @Override
+    void abandon(Connection quitter) {
+        this.hosting.getRegistry().abandon(this.id, quitter.getMark());
+    }
+
+    @Override
+    public void moved(long id, char mark, int x, int y, WinState state) {
+        played(mark, x, y, state);
+    }
+
+    @Override
+    public void abandoned(long id, char quitter) {
+        forfeited(quitter);
+    }
+
+}
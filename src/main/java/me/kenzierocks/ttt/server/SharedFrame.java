@@ -0,0 +1,93 @@
+package me.kenzierocks.ttt.server;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import me.kenzierocks.ttt.packets.Packet;
+
+/**
+ * A frame encoded once and written to any number of connections. Each holder
+ * writes from its own read-only {@link #view()} of the same bytes, so nothing
+ * is copied, and the buffer goes back to its pool once the last holder
+ * releases it.
+ */
+final class SharedFrame {
+
+    /**
+     * Encodes a packet with a single reference, owned by the caller. A pool,
+     * if given, must belong to the thread that releases the frame last.
+     */
+    static SharedFrame encode(Packet packet, @Nullable BufferPool pool) {
+        int frameSize = Frames.frameSize(packet);
+        ByteBuffer buffer;
+        if (pool != null && frameSize <= pool.getBufferSize()) {
+            buffer = pool.acquire();
+        } else {
+            pool = null;
+            buffer = ByteBuffer.allocate(frameSize);
+        }
+        Frames.write(buffer, packet, frameSize);
+        buffer.flip();
+        return new SharedFrame(buffer, pool);
+    }
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer readOnly;
+    @Nullable
+    private final BufferPool pool;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private SharedFrame(ByteBuffer buffer, @Nullable BufferPool pool) {
+        this.buffer = buffer;
+        this.readOnly = buffer.asReadOnlyBuffer();
+        this.pool = pool;
+    }
+
+    int size() {
+        return this.readOnly.remaining();
+    }
+
+    /**
+     * Returns a new read-only buffer over the frame, only valid while the
+     * caller holds a reference.
+     */
+    ByteBuffer view() {
+        checkState(this.references.get() > 0, "Frame already released");
+        return this.readOnly.duplicate();
+    }
+
+    void writeTo(OutputStream stream) throws IOException {
+        if (this.buffer.hasArray()) {
+            stream.write(this.buffer.array(), this.buffer.arrayOffset(),
+                    this.buffer.limit());
+        } else {
+            byte[] bytes = new byte[size()];
+            view().get(bytes);
+            stream.write(bytes);
+        }
+    }
+
+    SharedFrame retain() {
+        int references;
+        do {
+            references = this.references.get();
+            checkState(references > 0, "Frame already released");
+        } while (!this.references.compareAndSet(references, references + 1));
+        return this;
+    }
+
+    void release() {
+        int references = this.references.decrementAndGet();
+        checkState(references >= 0, "Frame released too often");
+        if (references == 0 && this.pool != null) {
+            this.pool.release(this.buffer);
+        }
+    }
+
+}
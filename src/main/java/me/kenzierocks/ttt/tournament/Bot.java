@@ -0,0 +1,24 @@
+package me.kenzierocks.ttt.tournament;
+
+import java.util.SplittableRandom;
+
+import me.kenzierocks.ttt.Game;
+
+/**
+ * A strategy playing in a {@link Tournament}. Every worker thread makes its
+ * own bots with {@link Bots#parse(String)}, so a bot may keep state from move
+ * to move without synchronizing.
+ */
+public interface Bot {
+
+    /**
+     * Picks a move for the current player of a game that isn't over.
+     *
+     * @param empty the empty cells, as {@code x * columns + y}, in no
+     *        particular order; only the first {@code emptyCount} are valid
+     * @param random the worker's random source
+     * @return the chosen cell, in the same form
+     */
+    int move(Game game, int[] empty, int emptyCount, SplittableRandom random);
+
+}
@@ -0,0 +1,116 @@
+package me.kenzierocks.ttt.tournament;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.ai.AlphaBetaBot;
+import me.kenzierocks.ttt.ai.Tablebase;
+
+/**
+ * The bots a {@link Tournament} can play, by name:
+ * <dl>
+ * <dt>{@code random}</dt>
+ * <dd>any empty cell</dd>
+ * <dt>{@code greedy}</dt>
+ * <dd>wins if it can, otherwise blocks the opponent's win if it can,
+ * otherwise plays randomly</dd>
+ * <dt>{@code tablebase}</dt>
+ * <dd>perfect play from the {@link Tablebase}, classic board only</dd>
+ * <dt>{@code alphabeta:<millis>}</dt>
+ * <dd>an {@link AlphaBetaBot} searching for that long per move</dd>
+ * </dl>
+ * Only {@code alphabeta} allocates while it moves.
+ */
+public final class Bots {
+
+    private static final int[][] AXES =
+            { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    /**
+     * Returns a factory of the named bot.
+     *
+     * @throws IllegalArgumentException if there is no such bot
+     */
+    public static Supplier<Bot> parse(String name) {
+        switch (name) {
+            case "random":
+                return () -> Bots::randomMove;
+            case "greedy":
+                return () -> Bots::greedyMove;
+            case "tablebase":
+                return () -> (game, empty, emptyCount, random) -> Tablebase
+                        .classic().bestCell(game);
+        }
+        if (name.startsWith("alphabeta:")) {
+            long millis = Long.parseLong(name.substring("alphabeta:".length()));
+            checkArgument(millis > 0, "Search time must be positive: %s",
+                    name);
+            return () -> alphaBeta(new AlphaBetaBot(16), millis);
+        }
+        throw new IllegalArgumentException("No such bot: " + name);
+    }
+
+    private static int randomMove(Game game, int[] empty, int emptyCount,
+            SplittableRandom random) {
+        return empty[random.nextInt(emptyCount)];
+    }
+
+    private static int greedyMove(Game game, int[] empty, int emptyCount,
+            SplittableRandom random) {
+        char mark = game.getCurrentPlayer();
+        char other = mark == 'X' ? 'O' : 'X';
+        int block = -1;
+        for (int i = 0; i < emptyCount; i++) {
+            int cell = empty[i];
+            int x = cell / game.getColumns();
+            int y = cell % game.getColumns();
+            if (completesLine(game, x, y, mark)) {
+                return cell;
+            }
+            if (block < 0 && completesLine(game, x, y, other)) {
+                block = cell;
+            }
+        }
+        return block >= 0 ? block : randomMove(game, empty, emptyCount, random);
+    }
+
+    private static boolean completesLine(Game game, int x, int y, char mark) {
+        for (int[] axis : AXES) {
+            int run = 1 + run(game, x, y, axis[0], axis[1], mark)
+                    + run(game, x, y, -axis[0], -axis[1], mark);
+            if (run >= game.getWinLength()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int run(Game game, int x, int y, int dx, int dy,
+            char mark) {
+        int run = 0;
+        for (int i = 1; i < game.getWinLength(); i++) {
+            int cx = x + dx * i;
+            int cy = y + dy * i;
+            if (cx < 0 || cx >= game.getRows() || cy < 0
+                    || cy >= game.getColumns() || game.get(cx, cy) != mark) {
+                break;
+            }
+            run++;
+        }
+        return run;
+    }
+
+    private static Bot alphaBeta(AlphaBetaBot bot, long millis) {
+        return (game, empty, emptyCount, random) -> {
+            AlphaBetaBot.Result result = bot.search(game, millis);
+            return result.getX() * game.getColumns() + result.getY();
+        };
+    }
+
+    private Bots() {
+    }
+
+}
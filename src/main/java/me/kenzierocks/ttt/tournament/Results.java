@@ -0,0 +1,145 @@
+package me.kenzierocks.ttt.tournament;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wins, ties and losses of every pairing in a {@link Tournament} at one
+ * moment, with the Elo ratings they imply.
+ */
+public final class Results {
+
+    private static final int RATING_ITERATIONS = 1000;
+    private static final double MEAN_RATING = 1500;
+
+    private final List<String> bots;
+    private final int[] firsts;
+    private final int[] seconds;
+    private final long[] outcomes;
+
+    Results(List<String> bots, int[] firsts, int[] seconds, long[] outcomes) {
+        this.bots = bots;
+        this.firsts = firsts;
+        this.seconds = seconds;
+        this.outcomes = outcomes;
+    }
+
+    public List<String> getBots() {
+        return this.bots;
+    }
+
+    public long getGames() {
+        long games = 0;
+        for (long count : this.outcomes) {
+            games += count;
+        }
+        return games;
+    }
+
+    /**
+     * Returns the wins, ties and losses of {@code bot} against
+     * {@code opponent}, both indexes into {@link #getBots()}.
+     */
+    public long[] getRecord(int bot, int opponent) {
+        for (int pair = 0; pair < this.firsts.length; pair++) {
+            if (this.firsts[pair] == bot && this.seconds[pair] == opponent) {
+                return Arrays.copyOfRange(this.outcomes, 3 * pair,
+                        3 * pair + 3);
+            }
+            if (this.firsts[pair] == opponent && this.seconds[pair] == bot) {
+                return new long[] { this.outcomes[3 * pair + 2],
+                        this.outcomes[3 * pair + 1],
+                        this.outcomes[3 * pair] };
+            }
+        }
+        throw new IllegalArgumentException(
+                "No pairing of " + bot + " and " + opponent);
+    }
+
+    /**
+     * Returns the Elo rating of every bot, averaging {@value #MEAN_RATING}.
+     *
+     * <p>
+     * Ratings are the maximum likelihood fit of the Bradley-Terry model, which
+     * Elo is, to every game at once, so they don't depend on the order games
+     * finished in. A tie counts half a win for each side, and every pairing
+     * gets one extra virtual tie so that a bot that never scores still has a
+     * finite rating.
+     * </p>
+     */
+    public double[] getRatings() {
+        int bots = this.bots.size();
+        double[] scores = new double[bots];
+        double[][] games = new double[bots][bots];
+        for (int pair = 0; pair < this.firsts.length; pair++) {
+            int first = this.firsts[pair];
+            int second = this.seconds[pair];
+            long wins = this.outcomes[3 * pair];
+            long ties = this.outcomes[3 * pair + 1];
+            long losses = this.outcomes[3 * pair + 2];
+            scores[first] += wins + (ties + 1) / 2.0;
+            scores[second] += losses + (ties + 1) / 2.0;
+            games[first][second] = games[second][first] =
+                    wins + ties + losses + 1;
+        }
+        // minorization-maximization, see Hunter (2004)
+        double[] strengths = new double[bots];
+        Arrays.fill(strengths, 1);
+        for (int iteration = 0; iteration < RATING_ITERATIONS; iteration++) {
+            double logSum = 0;
+            for (int bot = 0; bot < bots; bot++) {
+                double denominator = 0;
+                for (int other = 0; other < bots; other++) {
+                    if (other != bot) {
+                        denominator += games[bot][other]
+                                / (strengths[bot] + strengths[other]);
+                    }
+                }
+                strengths[bot] = scores[bot] / denominator;
+                logSum += Math.log(strengths[bot]);
+            }
+            double mean = Math.exp(logSum / bots);
+            for (int bot = 0; bot < bots; bot++) {
+                strengths[bot] /= mean;
+            }
+        }
+        double[] ratings = new double[bots];
+        for (int bot = 0; bot < bots; bot++) {
+            ratings[bot] = MEAN_RATING + 400 * Math.log10(strengths[bot]);
+        }
+        return ratings;
+    }
+
+    /**
+     * Returns a table of every bot's rating and record against each other
+     * bot, as wins/ties/losses.
+     */
+    @Override
+    public String toString() {
+        int bots = this.bots.size();
+        int width = 9;
+        for (String bot : this.bots) {
+            width = Math.max(width, bot.length() + 1);
+        }
+        double[] ratings = getRatings();
+        StringBuilder table = new StringBuilder(String.format("%-" + width
+                + "s %6s", "bot", "elo"));
+        for (String bot : this.bots) {
+            table.append(String.format(" %" + width * 2 + "s", bot));
+        }
+        for (int bot = 0; bot < bots; bot++) {
+            table.append('\n').append(String.format("%-" + width + "s %6.0f",
+                    this.bots.get(bot), ratings[bot]));
+            for (int other = 0; other < bots; other++) {
+                String record = "-";
+                if (other != bot) {
+                    long[] counts = getRecord(bot, other);
+                    record = counts[0] + "/" + counts[1] + "/" + counts[2];
+                }
+                table.append(String.format(" %" + width * 2 + "s", record));
+            }
+        }
+        return table.toString();
+    }
+
+}
@@ -0,0 +1,229 @@
+package me.kenzierocks.ttt.tournament;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import me.kenzierocks.ttt.Game;
+import me.kenzierocks.ttt.WinState;
+
+/**
+ * Round robin of bots, every pair playing the same number of games with
+ * colours alternating. Games are split into tasks on a work-stealing
+ * {@link ForkJoinPool}.
+ *
+ * <p>
+ * Each worker thread keeps one {@link Game}, reset between games, plus its
+ * own bots and random source, so playing allocates nothing beyond what the
+ * bots themselves do. Results are counted locally per task and added to the
+ * shared totals when it finishes, which {@link #results()} reads while the
+ * tournament runs.
+ * </p>
+ */
+public final class Tournament {
+
+    private static final int GAMES_PER_TASK = 512;
+
+    private final class Worker {
+
+        private final Game game = new Game(Tournament.this.rows,
+                Tournament.this.columns, Tournament.this.winLength);
+        private final Bot[] bots = new Bot[Tournament.this.names.size()];
+        private final SplittableRandom random;
+        private final int[] empty;
+        // where each cell is in empty
+        private final int[] positions;
+        // wins, ties and losses of the first bot of each pair
+        private final long[] outcomes = new long[3 * pairs()];
+
+        private Worker() {
+            for (int i = 0; i < this.bots.length; i++) {
+                this.bots[i] = Tournament.this.factories.get(i).get();
+            }
+            synchronized (Tournament.this.random) {
+                this.random = Tournament.this.random.split();
+            }
+            int cells = Tournament.this.rows * Tournament.this.columns;
+            this.empty = new int[cells];
+            this.positions = new int[cells];
+        }
+
+        private void play(long from, long to) {
+            for (long i = from; i < to; i++) {
+                int pair = (int) (i / Tournament.this.gamesPerPair);
+                boolean firstIsX = i % Tournament.this.gamesPerPair % 2 == 0;
+                int first = Tournament.this.firsts[pair];
+                int second = Tournament.this.seconds[pair];
+                int x = firstIsX ? first : second;
+                int o = firstIsX ? second : first;
+                WinState state = play(this.bots[x], this.bots[o]);
+                int outcome;
+                if (state == WinState.TIE) {
+                    outcome = 1;
+                } else {
+                    boolean xWon = this.game.getCurrentPlayer() == 'X';
+                    outcome = xWon == firstIsX ? 0 : 2;
+                }
+                this.outcomes[3 * pair + outcome]++;
+            }
+            for (int i = 0; i < this.outcomes.length; i++) {
+                if (this.outcomes[i] != 0) {
+                    Tournament.this.outcomes[i].add(this.outcomes[i]);
+                    this.outcomes[i] = 0;
+                }
+            }
+            Tournament.this.gamesPlayed.add(to - from);
+        }
+
+        private WinState play(Bot x, Bot o) {
+            Game game = this.game;
+            game.reset();
+            int[] empty = this.empty;
+            int[] positions = this.positions;
+            int emptyCount = empty.length;
+            for (int cell = 0; cell < emptyCount; cell++) {
+                empty[cell] = cell;
+                positions[cell] = cell;
+            }
+            int columns = Tournament.this.columns;
+            while (true) {
+                Bot bot = (game.getMoveCount() & 1) == 0 ? x : o;
+                int cell = bot.move(game, empty, emptyCount, this.random);
+                if (cell < 0 || cell >= empty.length
+                        || positions[cell] >= emptyCount) {
+                    throw new IllegalStateException(
+                            "Bot played illegal cell " + cell);
+                }
+                // swap the cell out of the empty ones
+                int last = empty[--emptyCount];
+                empty[positions[cell]] = last;
+                positions[last] = positions[cell];
+                empty[emptyCount] = cell;
+                positions[cell] = emptyCount;
+                WinState state = game.clickAndWin(cell / columns,
+                        cell % columns);
+                if (state != WinState.NEUTRAL) {
+                    return state;
+                }
+            }
+        }
+
+    }
+
+    private final class Games extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        private Games(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= GAMES_PER_TASK) {
+                Tournament.this.workers.get().play(this.from, this.to);
+                return;
+            }
+            long middle = (this.from + this.to) >>> 1;
+            invokeAll(new Games(this.from, middle), new Games(middle, this.to));
+        }
+
+    }
+
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final ImmutableList<String> names;
+    private final ImmutableList<Supplier<Bot>> factories;
+    private final long gamesPerPair;
+    private final SplittableRandom random;
+    private final int[] firsts;
+    private final int[] seconds;
+    private final LongAdder[] outcomes;
+    private final LongAdder gamesPlayed = new LongAdder();
+    private final ThreadLocal<Worker> workers =
+            ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * @param bots the names of the bots, see {@link Bots#parse(String)}
+     * @param gamesPerPair how many games each pair of bots plays
+     * @param seed where every worker's random source is split from
+     */
+    public Tournament(int rows, int columns, int winLength, List<String> bots,
+            long gamesPerPair, long seed) {
+        checkArgument(bots.size() >= 2, "Need at least two bots");
+        checkArgument(gamesPerPair > 0, "gamesPerPair must be positive");
+        // fail on bad boards here rather than in the workers
+        new Game(rows, columns, winLength);
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.names = ImmutableList.copyOf(bots);
+        ImmutableList.Builder<Supplier<Bot>> factories =
+                ImmutableList.builder();
+        for (String bot : bots) {
+            factories.add(Bots.parse(bot));
+        }
+        this.factories = factories.build();
+        this.gamesPerPair = gamesPerPair;
+        this.random = new SplittableRandom(seed);
+        this.firsts = new int[pairs()];
+        this.seconds = new int[pairs()];
+        int pair = 0;
+        for (int first = 0; first < bots.size(); first++) {
+            for (int second = first + 1; second < bots.size(); second++) {
+                this.firsts[pair] = first;
+                this.seconds[pair] = second;
+                pair++;
+            }
+        }
+        this.outcomes = new LongAdder[3 * pairs()];
+        for (int i = 0; i < this.outcomes.length; i++) {
+            this.outcomes[i] = new LongAdder();
+        }
+    }
+
+    private int pairs() {
+        int bots = this.names.size();
+        return bots * (bots - 1) / 2;
+    }
+
+    public long getTotalGames() {
+        return this.gamesPerPair * pairs();
+    }
+
+    /**
+     * Starts playing every game on the pool. Start a tournament only once.
+     */
+    public ForkJoinTask<?> start(ForkJoinPool pool) {
+        return pool.submit(new Games(0, getTotalGames()));
+    }
+
+    /**
+     * Returns the results so far. Safe to call while the tournament runs.
+     */
+    public Results results() {
+        long[] outcomes = new long[this.outcomes.length];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = this.outcomes[i].sum();
+        }
+        return new Results(this.names, this.firsts, this.seconds, outcomes);
+    }
+
+    public long getGamesPlayed() {
+        return this.gamesPlayed.sum();
+    }
+
+}
@@ -0,0 +1,66 @@
+package me.kenzierocks.ttt.tournament;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Headless self-play: {@code [rows]x[columns]x[winLength] [games per pair]
+ * [bot]...}, on every core. Defaults to a million games per pair of
+ * {@code random}, {@code greedy} and {@code tablebase} on the classic board.
+ * Progress is printed every second, and the results at the end.
+ */
+public final class TournamentMain {
+
+    public static void main(String[] args) throws Exception {
+        String board = args.length > 0 ? args[0] : "3x3x3";
+        long gamesPerPair = args.length > 1 ? Long.parseLong(args[1])
+                : 1_000_000;
+        List<String> bots = args.length > 2
+                ? Arrays.asList(args).subList(2, args.length)
+                : Arrays.asList("random", "greedy", "tablebase");
+        String[] dimensions = board.split("x");
+        if (dimensions.length != 3) {
+            throw new IllegalArgumentException(
+                    "Board must be rows x columns x winLength: " + board);
+        }
+        Tournament tournament = new Tournament(
+                Integer.parseInt(dimensions[0]),
+                Integer.parseInt(dimensions[1]),
+                Integer.parseInt(dimensions[2]), bots, gamesPerPair,
+                System.nanoTime());
+        ForkJoinPool pool = new ForkJoinPool();
+        System.out.printf("Playing %,d games on %s with %d workers%n",
+                tournament.getTotalGames(), board, pool.getParallelism());
+        long start = System.nanoTime();
+        ForkJoinTask<?> games = tournament.start(pool);
+        long lastGames = 0;
+        long last = start;
+        while (true) {
+            try {
+                games.get(1, TimeUnit.SECONDS);
+                break;
+            } catch (TimeoutException e) {
+                long now = System.nanoTime();
+                long played = tournament.getGamesPlayed();
+                System.out.printf("%,d games, %,.0f games/s%n", played,
+                        (played - lastGames) * 1e9 / (now - last));
+                lastGames = played;
+                last = now;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.printf("%,d games in %.2f s, %,.0f games/s%n",
+                tournament.getGamesPlayed(), elapsed / 1e9,
+                tournament.getGamesPlayed() * 1e9 / elapsed);
+        System.out.println(tournament.results());
+    }
+
+    private TournamentMain() {
+    }
+
+}